@@ -13,6 +13,8 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.List;
@@ -54,6 +56,8 @@ public class GymManagerApp extends JFrame {
     private JTextArea queueDisplayArea;
     
     private JTextArea historyDisplayArea;
+    private static final int HISTORY_PAGE_SIZE = 10;
+    private long historyPageStart = -1;    // First record shown, -1 follows the newest
     private JTextArea statsDisplayArea;
     
     public GymManagerApp() {
@@ -520,8 +524,8 @@ public class GymManagerApp extends JFrame {
         
         // Description Panel
         JPanel descPanel = createDescriptionPanel(
-            "Data Structure #1: Double Linked List + #4: Stack",
-            "Double Linked List maintains bidirectional navigation through member history with prev/next pointers. " +
+            "Data Structure #1: Ring Buffer + #4: Stack",
+            "Ring Buffer keeps the newest operations with bidirectional navigation; older entries spill to a compressed file. " +
             "Stack (LIFO) implements undo functionality for the last 50 operations. Combined, these structures provide " +
             "complete history tracking with forward/backward navigation and operation rollback capabilities.",
             "Complexity: Insert O(1), Navigate O(1), Undo O(1), Stack capacity: 50"
@@ -538,6 +542,14 @@ public class GymManagerApp extends JFrame {
         forwardButton.addActionListener(e -> navigateHistory(true));
         buttonPanel.add(forwardButton);
         
+        JButton olderButton = createStyledButton("⏪ Older Page", PRIMARY_COLOR);
+        olderButton.addActionListener(e -> pageHistory(true));
+        buttonPanel.add(olderButton);
+        
+        JButton newerButton = createStyledButton("⏩ Newer Page", PRIMARY_COLOR);
+        newerButton.addActionListener(e -> pageHistory(false));
+        buttonPanel.add(newerButton);
+        
         JButton undoButton = createStyledButton("↩️ Undo Last", WARNING_COLOR);
         undoButton.addActionListener(e -> performUndo());
         buttonPanel.add(undoButton);
@@ -597,6 +609,11 @@ public class GymManagerApp extends JFrame {
         searchField.setFont(new Font("SansSerif", Font.PLAIN, 14));
         formPanel.add(searchField);
         
+        final JComboBox<String> modeCombo = new JComboBox<String>(
+            new String[]{"Contains", "Allow typos (BK-tree)", "Regex (parallel scan)"});
+        modeCombo.setToolTipText("Typos: 1 edit, 2 for words longer than 4 letters. Regex: e.g. ^a.*met$");
+        formPanel.add(modeCombo);
+        
         final JTextArea resultArea = new JTextArea();
         resultArea.setEditable(false);
         resultArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
@@ -607,10 +624,19 @@ public class GymManagerApp extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 String term = searchField.getText().trim();
                 if (!term.isEmpty()) {
-                    List<Member> results = gymService.searchMemberByName(term);
+                    int mode = modeCombo.getSelectedIndex();
+                    List<Member> results;
+                    if (mode == 1) {
+                        results = gymService.fuzzySearchMembers(term, term.length() > 4 ? 2 : 1);
+                    } else if (mode == 2) {
+                        results = gymService.searchMembersByPattern(term);
+                    } else {
+                        results = gymService.searchMemberByName(term);
+                    }
                     StringBuilder sb = new StringBuilder();
                     sb.append("═══════════════════════════════════════════\n");
-                    sb.append("   KMP SEARCH RESULTS\n");
+                    sb.append(mode == 1 ? "   FUZZY SEARCH RESULTS\n"
+                        : mode == 2 ? "   REGEX SEARCH RESULTS\n" : "   KMP SEARCH RESULTS\n");
                     sb.append("═══════════════════════════════════════════\n\n");
                     sb.append("Search Term: \"").append(term).append("\"\n");
                     sb.append("Found: ").append(results.size()).append(" member(s)\n\n");
@@ -629,6 +655,55 @@ public class GymManagerApp extends JFrame {
         });
         formPanel.add(searchButton);
         
+        // Type-ahead: debounce keystrokes, complete off the EDT, drop stale results
+        final SwingWorker<?, ?>[] pending = new SwingWorker<?, ?>[1];
+        final Timer typeAhead = new Timer(150, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                final String prefix = searchField.getText().trim();
+                if (pending[0] != null) {
+                    pending[0].cancel(false);
+                }
+                if (prefix.isEmpty()) {
+                    return;
+                }
+                SwingWorker<List<Member>, Void> worker = new SwingWorker<List<Member>, Void>() {
+                    protected List<Member> doInBackground() {
+                        return gymService.autocompleteMembers(prefix, 10);
+                    }
+                    
+                    protected void done() {
+                        if (isCancelled() || !prefix.equals(searchField.getText().trim())) {
+                            return;
+                        }
+                        try {
+                            List<Member> matches = get();
+                            StringBuilder sb = new StringBuilder();
+                            sb.append("Suggestions for \"").append(prefix).append("\" (press Search for full results)\n\n");
+                            for (Member m : matches) {
+                                sb.append(String.format("  #%-4d %-25s %-25s %s%n",
+                                    m.getId(), m.getFullName(), m.getEmail(), m.getPhoneNumber()));
+                            }
+                            if (matches.isEmpty()) {
+                                sb.append("  No member starts with this text.\n");
+                            }
+                            resultArea.setText(sb.toString());
+                            resultArea.setCaretPosition(0);
+                        } catch (Exception ex) {
+                            System.err.println("Autocomplete failed: " + ex.getMessage());
+                        }
+                    }
+                };
+                pending[0] = worker;
+                worker.execute();
+            }
+        });
+        typeAhead.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { typeAhead.restart(); }
+            public void removeUpdate(DocumentEvent e) { typeAhead.restart(); }
+            public void changedUpdate(DocumentEvent e) { typeAhead.restart(); }
+        });
+        
         JPanel centerPanel = new JPanel(new BorderLayout(10, 10));
         centerPanel.add(formPanel, BorderLayout.NORTH);
         
@@ -1116,6 +1191,14 @@ public class GymManagerApp extends JFrame {
         queueDisplayArea.setText(sb.toString());
     }
     
+    private void pageHistory(boolean older) {
+        long total = gymService.getHistorySize();
+        long start = historyPageStart < 0 ? Math.max(0, total - HISTORY_PAGE_SIZE) : historyPageStart;
+        start = older ? Math.max(0, start - HISTORY_PAGE_SIZE) : start + HISTORY_PAGE_SIZE;
+        historyPageStart = start + HISTORY_PAGE_SIZE >= total ? -1 : start;
+        refreshHistoryDisplay();
+    }
+    
     private void refreshHistoryDisplay() {
         StringBuilder sb = new StringBuilder();
         sb.append("═══════════════════════════════════════════\n");
@@ -1123,9 +1206,16 @@ public class GymManagerApp extends JFrame {
         sb.append("═══════════════════════════════════════════\n\n");
         sb.append("Current Record:\n");
         sb.append(gymService.getCurrentHistory()).append("\n\n");
-        sb.append("───────────────────────────────────────────\n\n");
+        long total = gymService.getHistorySize();
+        long start = historyPageStart < 0 ? Math.max(0, total - HISTORY_PAGE_SIZE) : historyPageStart;
+        List<String> page = gymService.getHistoryPage(start, HISTORY_PAGE_SIZE);
+        sb.append(String.format("Records %d-%d of %d:%n", start + 1, start + page.size(), total));
+        for (String record : page) {
+            sb.append("  ").append(record).append("\n");
+        }
+        sb.append("\n───────────────────────────────────────────\n\n");
         sb.append("Data Structures:\n");
-        sb.append("• Double Linked List: Bidirectional navigation\n");
+        sb.append("• Ring Buffer: Bidirectional navigation, paging over spilled segments\n");
         sb.append("• Stack: Undo functionality (50 operations)\n\n");
         sb.append("Use Back/Forward buttons to navigate.\n");
         sb.append("Use Undo to reverse last operation.\n");
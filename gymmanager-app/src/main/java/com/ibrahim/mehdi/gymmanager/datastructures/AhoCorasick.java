@@ -0,0 +1,296 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Aho-Corasick multi-pattern string matching.
+ * All patterns are compiled once into a deterministic automaton; a text
+ * is then scanned in a single pass no matter how many patterns there are
+ * (KMPAlgorithm needs one pass per pattern).
+ *
+ * The alphabet is reduced to the characters that occur in the patterns,
+ * so the transition table is states x (alphabet + 1) ints; every other
+ * character leads back to the root.
+ *
+ * @author ibrahim.mehdi
+ */
+public class AhoCorasick implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int ASCII = 128;
+    
+    /**
+     * One pattern occurrence in a text
+     */
+    public static final class Match {
+        private final int pattern;
+        private final int start;
+        private final int end;
+        
+        Match(int pattern, int start, int end) {
+            this.pattern = pattern;
+            this.start = start;
+            this.end = end;
+        }
+        
+        /**
+         * Index of the pattern in the compiled list
+         */
+        public int getPattern() { return pattern; }
+        
+        /**
+         * Start index in text (inclusive)
+         */
+        public int getStart() { return start; }
+        
+        /**
+         * End index in text (exclusive)
+         */
+        public int getEnd() { return end; }
+        
+        @Override
+        public String toString() {
+            return "Match[pattern=" + pattern + ", " + start + ".." + end + "]";
+        }
+    }
+    
+    private final String[] patterns;
+    private final boolean ignoreCase;
+    
+    // Alphabet: ASCII by table, others by binary search; 0 = not in alphabet
+    private final int[] asciiSymbol;
+    private final char[] otherChars;
+    private final int symbols;
+    
+    private final int[] transitions;  // state * symbols + symbol -> state
+    private final int[] terminal;     // first pattern ending at state, -1 if none
+    private final int[] outputLink;   // nearest suffix state with a pattern, -1 if none
+    private final int[] samePattern;  // next pattern with identical text, -1 if none
+    private final int stateCount;
+    
+    /**
+     * Compile patterns (case sensitive)
+     */
+    public AhoCorasick(Collection<String> patterns) {
+        this(patterns, false);
+    }
+    
+    /**
+     * Compile patterns
+     *
+     * @param patterns Patterns to find; empty patterns never match
+     * @param ignoreCase Match case insensitively
+     */
+    public AhoCorasick(Collection<String> patterns, boolean ignoreCase) {
+        if (patterns == null) throw new IllegalArgumentException("Patterns cannot be null");
+        
+        this.ignoreCase = ignoreCase;
+        this.patterns = new String[patterns.size()];
+        int index = 0;
+        int totalLength = 0;
+        for (String pattern : patterns) {
+            if (pattern == null) throw new IllegalArgumentException("Pattern cannot be null");
+            this.patterns[index++] = normalize(pattern);
+            totalLength += pattern.length();
+        }
+        
+        // Compact alphabet
+        this.asciiSymbol = new int[ASCII];
+        StringBuilder others = new StringBuilder();
+        int next = 1;
+        for (String pattern : this.patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < ASCII) {
+                    if (asciiSymbol[c] == 0) {
+                        asciiSymbol[c] = next++;
+                    }
+                } else if (others.indexOf(String.valueOf(c)) < 0) {
+                    others.append(c);
+                }
+            }
+        }
+        this.otherChars = others.toString().toCharArray();
+        Arrays.sort(otherChars);
+        int asciiSymbols = next;
+        this.symbols = asciiSymbols + otherChars.length;
+        
+        // Trie over the patterns
+        int maxStates = totalLength + 1;
+        int[] table = new int[maxStates * symbols];
+        Arrays.fill(table, -1);
+        int[] term = new int[maxStates];
+        Arrays.fill(term, -1);
+        this.samePattern = new int[this.patterns.length];
+        Arrays.fill(samePattern, -1);
+        int states = 1;
+        
+        for (int p = 0; p < this.patterns.length; p++) {
+            String pattern = this.patterns[p];
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int slot = state * symbols + symbol(pattern.charAt(i));
+                if (table[slot] < 0) {
+                    table[slot] = states++;
+                }
+                state = table[slot];
+            }
+            samePattern[p] = term[state];
+            term[state] = p;
+        }
+        
+        // Breadth first: failure links, folded into a full DFA
+        int[] failure = new int[states];
+        int[] output = new int[states];
+        Arrays.fill(output, -1);
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int s = 0; s < symbols; s++) {
+            int child = table[s];
+            if (child < 0) {
+                table[s] = 0;
+            } else {
+                failure[child] = 0;
+                queue[tail++] = child;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int fail = failure[state];
+            output[state] = term[fail] >= 0 ? fail : output[fail];
+            for (int s = 0; s < symbols; s++) {
+                int slot = state * symbols + s;
+                int child = table[slot];
+                if (child < 0) {
+                    table[slot] = table[fail * symbols + s];
+                } else {
+                    failure[child] = table[fail * symbols + s];
+                    queue[tail++] = child;
+                }
+            }
+        }
+        
+        this.stateCount = states;
+        this.transitions = Arrays.copyOf(table, states * symbols);
+        this.terminal = Arrays.copyOf(term, states);
+        this.outputLink = output;
+    }
+    
+    /**
+     * Find all occurrences of all patterns
+     *
+     * @param text Text to scan
+     * @return Matches ordered by end position
+     */
+    public List<Match> findAll(String text) {
+        List<Match> matches = new ArrayList<>();
+        if (text == null) {
+            return matches;
+        }
+        
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * symbols + symbol(fold(text.charAt(i)))];
+            for (int s = terminal[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                for (int p = terminal[s]; p >= 0; p = samePattern[p]) {
+                    matches.add(new Match(p, i + 1 - patterns[p].length(), i + 1));
+                }
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * Check if any pattern occurs in text
+     */
+    public boolean containsAny(String text) {
+        if (text == null) {
+            return false;
+        }
+        
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * symbols + symbol(fold(text.charAt(i)))];
+            if (terminal[state] >= 0 || outputLink[state] >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get indices of patterns that occur in text
+     *
+     * @return Distinct pattern indices in ascending order
+     */
+    public int[] matchedPatterns(String text) {
+        boolean[] seen = new boolean[patterns.length];
+        int count = 0;
+        if (text != null) {
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                state = transitions[state * symbols + symbol(fold(text.charAt(i)))];
+                for (int s = terminal[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                    for (int p = terminal[s]; p >= 0; p = samePattern[p]) {
+                        if (!seen[p]) {
+                            seen[p] = true;
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        
+        int[] result = new int[count];
+        for (int p = 0, write = 0; write < count; p++) {
+            if (seen[p]) {
+                result[write++] = p;
+            }
+        }
+        return result;
+    }
+    
+    public int getPatternCount() {
+        return patterns.length;
+    }
+    
+    public int getStateCount() {
+        return stateCount;
+    }
+    
+    private int symbol(char c) {
+        if (c < ASCII) {
+            return asciiSymbol[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index >= 0 ? symbols - otherChars.length + index : 0;
+    }
+    
+    private char fold(char c) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+    
+    private String normalize(String pattern) {
+        if (!ignoreCase) {
+            return pattern;
+        }
+        char[] chars = pattern.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return new String(chars);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("AhoCorasick[patterns=%d, states=%d, alphabet=%d]",
+                patterns.length, stateCount, symbols - 1);
+    }
+}
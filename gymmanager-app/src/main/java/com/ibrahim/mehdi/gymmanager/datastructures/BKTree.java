@@ -0,0 +1,324 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BK-tree over terms for fuzzy (edit distance) lookup.
+ * Every child hangs off its parent by the Levenshtein distance between
+ * the two terms. By the triangle inequality, a query within distance k of
+ * some term below a node at distance d can only be under edges in
+ * [d - k, d + k], so most of the tree is skipped.
+ *
+ * Each term keeps a sorted list of ids (e.g. members whose name contains
+ * the term). Removing the last id leaves the node in place as a routing
+ * node; it is no longer reported.
+ *
+ * @author ibrahim.mehdi
+ */
+public class BKTree implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * One matching term with its distance to the query
+     */
+    public static final class Match {
+        private final String term;
+        private final int distance;
+        private final int[] ids;
+        
+        Match(String term, int distance, int[] ids) {
+            this.term = term;
+            this.distance = distance;
+            this.ids = ids;
+        }
+        
+        public String getTerm() { return term; }
+        public int getDistance() { return distance; }
+        
+        /**
+         * Ids stored under the term, ascending
+         */
+        public int[] getIds() { return ids.clone(); }
+        
+        @Override
+        public String toString() {
+            return term + "(" + distance + ")";
+        }
+    }
+    
+    private static class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String term;
+        int[] ids = new int[1];
+        int idCount;
+        
+        // Children sorted by edge distance
+        int[] edges = new int[0];
+        Node[] children = new Node[0];
+        
+        Node(String term) {
+            this.term = term;
+        }
+        
+        Node child(int distance) {
+            int index = Arrays.binarySearch(edges, distance);
+            return index >= 0 ? children[index] : null;
+        }
+        
+        void addChild(int distance, Node child) {
+            int index = -Arrays.binarySearch(edges, distance) - 1;
+            int length = edges.length;
+            edges = Arrays.copyOf(edges, length + 1);
+            children = Arrays.copyOf(children, length + 1);
+            System.arraycopy(edges, index, edges, index + 1, length - index);
+            System.arraycopy(children, index, children, index + 1, length - index);
+            edges[index] = distance;
+            children[index] = child;
+        }
+        
+        int maxEdge() {
+            return edges.length == 0 ? 0 : edges[edges.length - 1];
+        }
+        
+        boolean addId(int id) {
+            int index = Arrays.binarySearch(ids, 0, idCount, id);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, idCount * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, idCount - index);
+            ids[index] = id;
+            idCount++;
+            return true;
+        }
+        
+        boolean removeId(int id) {
+            int index = Arrays.binarySearch(ids, 0, idCount, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, idCount - index - 1);
+            idCount--;
+            return true;
+        }
+    }
+    
+    private Node root;
+    private int termCount;
+    private int nodeCount;
+    
+    /**
+     * Store id under term
+     *
+     * @return False if the id was already stored under the term
+     */
+    public boolean add(String term, int id) {
+        if (term == null || term.isEmpty()) {
+            throw new IllegalArgumentException("Term cannot be empty");
+        }
+        Node node = find(term, true);
+        boolean wasEmpty = node.idCount == 0;
+        boolean added = node.addId(id);
+        if (added && wasEmpty) {
+            termCount++;
+        }
+        return added;
+    }
+    
+    /**
+     * Remove id from term
+     *
+     * @return True if the id was stored under the term
+     */
+    public boolean remove(String term, int id) {
+        if (term == null || term.isEmpty()) {
+            return false;
+        }
+        Node node = find(term, false);
+        if (node == null || !node.removeId(id)) {
+            return false;
+        }
+        if (node.idCount == 0) {
+            termCount--;
+        }
+        return true;
+    }
+    
+    /**
+     * Check if term has any ids
+     */
+    public boolean contains(String term) {
+        Node node = term == null || term.isEmpty() ? null : find(term, false);
+        return node != null && node.idCount > 0;
+    }
+    
+    /**
+     * Find terms within maxDistance edits of query
+     *
+     * @param query Query term
+     * @param maxDistance Maximum Levenshtein distance
+     * @return Matches ordered by distance, then term
+     */
+    public List<Match> search(String query, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (query == null || root == null || maxDistance < 0) {
+            return matches;
+        }
+        
+        Node[] stack = new Node[16];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            // Exact distance is only needed up to where it still selects children
+            int limit = maxDistance + node.maxEdge();
+            int distance = distance(query, node.term, limit);
+            
+            if (distance <= maxDistance && node.idCount > 0) {
+                matches.add(new Match(node.term, distance, Arrays.copyOf(node.ids, node.idCount)));
+            }
+            if (distance > limit) {
+                continue;
+            }
+            
+            int from = Arrays.binarySearch(node.edges, distance - maxDistance);
+            if (from < 0) {
+                from = -from - 1;
+            }
+            for (int i = from; i < node.edges.length && node.edges[i] <= distance + maxDistance; i++) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = node.children[i];
+            }
+        }
+        
+        matches.sort((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance) : a.term.compareTo(b.term));
+        return matches;
+    }
+    
+    /**
+     * Get number of terms with at least one id
+     */
+    public int size() {
+        return termCount;
+    }
+    
+    public boolean isEmpty() {
+        return termCount == 0;
+    }
+    
+    /**
+     * Get number of tree nodes, including emptied terms
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+    
+    public void clear() {
+        root = null;
+        termCount = 0;
+        nodeCount = 0;
+    }
+    
+    /**
+     * Levenshtein distance, computed only inside the diagonal band of
+     * width max and abandoned once every cell of a row exceeds max.
+     *
+     * @return Distance, or max + 1 if it is larger than max
+     */
+    public static int distance(CharSequence a, CharSequence b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        if (n > m) {
+            CharSequence swap = a;
+            a = b;
+            b = swap;
+            n = m;
+            m = b.length();
+        }
+        if (n == 0) {
+            return m;
+        }
+        
+        int outside = max + 1;
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            previous[i] = i <= max ? i : outside;
+        }
+        
+        for (int j = 1; j <= m; j++) {
+            char c = b.charAt(j - 1);
+            int from = Math.max(1, j - max);
+            int to = Math.min(n, j + max);
+            current[0] = j <= max ? j : outside;
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+            int rowMin = current[0];
+            for (int i = from; i <= to; i++) {
+                int cost = a.charAt(i - 1) == c ? 0 : 1;
+                int value = Math.min(previous[i - 1] + cost,
+                        Math.min(previous[i], current[i - 1]) + 1);
+                current[i] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[i]);
+            }
+            if (to < n) {
+                current[to + 1] = outside;
+            }
+            if (rowMin > max) {
+                return outside;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[n], outside);
+    }
+    
+    private Node find(String term, boolean create) {
+        if (root == null) {
+            if (!create) {
+                return null;
+            }
+            root = new Node(term);
+            nodeCount++;
+            return root;
+        }
+        
+        Node node = root;
+        while (true) {
+            int distance = distance(term, node.term, Math.max(term.length(), node.term.length()));
+            if (distance == 0) {
+                return node;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Node(term);
+                node.addChild(distance, child);
+                nodeCount++;
+                return child;
+            }
+            node = child;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("BKTree[terms=%d, nodes=%d]", termCount, nodeCount);
+    }
+}
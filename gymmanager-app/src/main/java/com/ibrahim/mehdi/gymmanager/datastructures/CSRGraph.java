@@ -0,0 +1,349 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable Compressed Sparse Row (CSR) snapshot of a directed graph.
+ * Neighbors of vertex v are targets[offsets[v] .. offsets[v+1]-1], so the
+ * whole adjacency is two int arrays instead of boxed neighbor lists and
+ * traversals scan memory sequentially.
+ *
+ * Built from the mutable {@link Graph} with {@link Graph#snapshot()}.
+ *
+ * @author ibrahim.mehdi
+ */
+public final class CSRGraph {
+    
+    private final int[] offsets;
+    private final int[] targets;
+    private final int vertices;
+    
+    // Reusable Tarjan scratch space (guarded by componentIds lock)
+    private int[] sccIndex;
+    private int[] sccLow;
+    private int[] sccStack;
+    private int[] callStack;
+    private int[] callEdge;
+    
+    // Reverse graph, built on first use
+    private volatile CSRGraph transpose;
+    
+    /**
+     * Constructor from CSR arrays (arrays are not copied)
+     *
+     * @param offsets Row offsets, length vertices + 1
+     * @param targets Edge targets, length offsets[vertices]
+     */
+    CSRGraph(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.vertices = offsets.length - 1;
+    }
+    
+    /**
+     * Get number of vertices
+     */
+    public int getVertexCount() {
+        return vertices;
+    }
+    
+    /**
+     * Get number of edges
+     */
+    public int getEdgeCount() {
+        return offsets[vertices];
+    }
+    
+    /**
+     * Get out degree of vertex
+     */
+    public int outDegree(int vertex) {
+        checkVertex(vertex);
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+    
+    /**
+     * Get index of the first edge of vertex
+     */
+    public int edgeStart(int vertex) {
+        checkVertex(vertex);
+        return offsets[vertex];
+    }
+    
+    /**
+     * Get index after the last edge of vertex
+     */
+    public int edgeEnd(int vertex) {
+        checkVertex(vertex);
+        return offsets[vertex + 1];
+    }
+    
+    /**
+     * Get target vertex of edge
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+    
+    /**
+     * Get neighbors of vertex (copy)
+     */
+    public int[] neighbors(int vertex) {
+        checkVertex(vertex);
+        return Arrays.copyOfRange(targets, offsets[vertex], offsets[vertex + 1]);
+    }
+    
+    /**
+     * BFS traversal
+     *
+     * @param start Start vertex
+     * @return Vertices in visit order
+     */
+    public List<Integer> bfs(int start) {
+        return toList(bfsOrder(start));
+    }
+    
+    /**
+     * BFS traversal into a primitive array
+     *
+     * @param start Start vertex
+     * @return Vertices in visit order
+     */
+    public int[] bfsOrder(int start) {
+        checkVertex(start);
+        int[] queue = new int[vertices];
+        boolean[] visited = new boolean[vertices];
+        int head = 0;
+        int tail = 0;
+        
+        visited[start] = true;
+        queue[tail++] = start;
+        
+        while (head < tail) {
+            int vertex = queue[head++];
+            for (int e = offsets[vertex], end = offsets[vertex + 1]; e < end; e++) {
+                int neighbor = targets[e];
+                if (!visited[neighbor]) {
+                    visited[neighbor] = true;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        
+        return Arrays.copyOf(queue, tail);
+    }
+    
+    /**
+     * DFS traversal (iterative, explicit stack)
+     *
+     * @param start Start vertex
+     * @return Vertices in visit order
+     */
+    public List<Integer> dfs(int start) {
+        checkVertex(start);
+        int[] stack = new int[vertices];
+        int[] nextEdge = new int[vertices];
+        boolean[] visited = new boolean[vertices];
+        List<Integer> result = new ArrayList<>();
+        int top = 0;
+        
+        visited[start] = true;
+        result.add(start);
+        stack[top] = start;
+        nextEdge[top++] = offsets[start];
+        
+        while (top > 0) {
+            int v = stack[top - 1];
+            int e = nextEdge[top - 1];
+            if (e < offsets[v + 1]) {
+                nextEdge[top - 1] = e + 1;
+                int w = targets[e];
+                if (!visited[w]) {
+                    visited[w] = true;
+                    result.add(w);
+                    stack[top] = w;
+                    nextEdge[top++] = offsets[w];
+                }
+            } else {
+                top--;
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Find Strongly Connected Components using Tarjan's algorithm
+     *
+     * @return Components in topological order of the condensation,
+     *         members in ascending vertex order
+     */
+    public List<List<Integer>> findSCC() {
+        int[] component = new int[vertices];
+        int count = componentIds(component);
+        
+        // Bucket vertices by component (counting sort keeps ascending ids)
+        int[] start = new int[count + 1];
+        for (int v = 0; v < vertices; v++) {
+            start[component[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] members = new int[vertices];
+        int[] fill = Arrays.copyOf(start, count);
+        for (int v = 0; v < vertices; v++) {
+            members[fill[component[v]]++] = v;
+        }
+        
+        List<List<Integer>> sccs = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            List<Integer> list = new ArrayList<>(start[c + 1] - start[c]);
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                list.add(members[i]);
+            }
+            sccs.add(list);
+        }
+        return sccs;
+    }
+    
+    /**
+     * Label every vertex with its strongly connected component.
+     * Single-pass iterative Tarjan with explicit int stacks; scratch
+     * arrays are allocated once per snapshot and reused by later calls.
+     *
+     * @param component Output array (length vertex count); component ids
+     *                  are numbered in topological order of the condensation
+     * @return Number of components
+     */
+    public synchronized int componentIds(int[] component) {
+        if (component.length < vertices) {
+            throw new IllegalArgumentException("Component array too small");
+        }
+        if (sccIndex == null) {
+            sccIndex = new int[vertices];
+            sccLow = new int[vertices];
+            sccStack = new int[vertices];
+            callStack = new int[vertices];
+            callEdge = new int[vertices];
+        }
+        int[] index = sccIndex;
+        int[] low = sccLow;
+        int[] stack = sccStack;
+        int[] call = callStack;
+        int[] edge = callEdge;
+        
+        // index 0 = unvisited; component -1 = still on the Tarjan stack
+        Arrays.fill(index, 0, vertices, 0);
+        Arrays.fill(component, 0, vertices, -1);
+        int counter = 0;
+        int stackTop = 0;
+        int count = 0;
+        
+        for (int s = 0; s < vertices; s++) {
+            if (index[s] != 0) {
+                continue;
+            }
+            
+            int top = 0;
+            index[s] = low[s] = ++counter;
+            stack[stackTop++] = s;
+            call[top] = s;
+            edge[top++] = offsets[s];
+            
+            while (top > 0) {
+                int v = call[top - 1];
+                int e = edge[top - 1];
+                
+                if (e < offsets[v + 1]) {
+                    edge[top - 1] = e + 1;
+                    int w = targets[e];
+                    if (index[w] == 0) {
+                        index[w] = low[w] = ++counter;
+                        stack[stackTop++] = w;
+                        call[top] = w;
+                        edge[top++] = offsets[w];
+                    } else if (component[w] < 0 && index[w] < low[v]) {
+                        low[v] = index[w];
+                    }
+                    continue;
+                }
+                
+                top--;
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackTop];
+                        component[w] = count;
+                    } while (w != v);
+                    count++;
+                }
+                if (top > 0) {
+                    int parent = call[top - 1];
+                    if (low[v] < low[parent]) {
+                        low[parent] = low[v];
+                    }
+                }
+            }
+        }
+        
+        // Tarjan finishes components in reverse topological order
+        for (int v = 0; v < vertices; v++) {
+            component[v] = count - 1 - component[v];
+        }
+        return count;
+    }
+    
+    /**
+     * Get transpose graph (all edges reversed), built once in O(V+E)
+     */
+    public CSRGraph transpose() {
+        CSRGraph current = transpose;
+        if (current == null) {
+            current = buildTranspose();
+            transpose = current;
+        }
+        return current;
+    }
+    
+    private CSRGraph buildTranspose() {
+        int[] tOffsets = new int[vertices + 1];
+        for (int e = 0; e < targets.length; e++) {
+            tOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < vertices; v++) {
+            tOffsets[v + 1] += tOffsets[v];
+        }
+        
+        int[] fill = Arrays.copyOf(tOffsets, vertices);
+        int[] tTargets = new int[targets.length];
+        for (int v = 0; v < vertices; v++) {
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                tTargets[fill[targets[e]]++] = v;
+            }
+        }
+        
+        return new CSRGraph(tOffsets, tTargets);
+    }
+    
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= vertices) {
+            throw new IndexOutOfBoundsException("Invalid vertex: " + vertex);
+        }
+    }
+    
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("CSRGraph[vertices=%d, edges=%d]", vertices, getEdgeCount());
+    }
+}
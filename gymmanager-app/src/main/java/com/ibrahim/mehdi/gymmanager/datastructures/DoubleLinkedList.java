@@ -1,19 +1,30 @@
 package com.ibrahim.mehdi.gymmanager.datastructures;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
  * Double Linked List implementation for member history navigation.
  * Allows bidirectional traversal.
  * 
+ * Every node whose sequence number is a multiple of {@link #CHECKPOINT_INTERVAL}
+ * is kept in a checkpoint table, so get(index) walks at most that many
+ * nodes instead of the whole list. Sequence numbers grow on add and
+ * shrink on addFirst, so checkpoints never move when the list grows at
+ * either end. The table is not serialized and is rebuilt on first use.
+ * 
  * @param <T> Type of elements stored in the list
  * @author ibrahim.mehdi
  */
 public class DoubleLinkedList<T> implements Serializable, Iterable<T> {
     private static final long serialVersionUID = 1L;
     
+    /** Distance between checkpoint nodes */
+    public static final int CHECKPOINT_INTERVAL = 64;
+    
     /**
      * Node class for double linked list
      */
@@ -34,6 +45,10 @@ public class DoubleLinkedList<T> implements Serializable, Iterable<T> {
     private Node<T> tail;
     private Node<T> current; // For navigation
     private int size;
+    private transient long headSequence; // Sequence number of head, position i has headSequence + i
+    
+    // Sequence / CHECKPOINT_INTERVAL -> node, rebuilt after deserialization
+    private transient LongLinearProbingHash<Node<T>> checkpoints;
     
     /**
      * Default constructor
@@ -61,6 +76,7 @@ public class DoubleLinkedList<T> implements Serializable, Iterable<T> {
             tail = newNode;
         }
         size++;
+        checkpoint(headSequence + size - 1, newNode);
     }
     
     /**
@@ -77,8 +93,10 @@ public class DoubleLinkedList<T> implements Serializable, Iterable<T> {
             newNode.next = head;
             head.prev = newNode;
             head = newNode;
+            headSequence--;
         }
         size++;
+        checkpoint(headSequence, newNode);
     }
     
     /**
@@ -92,9 +110,14 @@ public class DoubleLinkedList<T> implements Serializable, Iterable<T> {
         }
         
         T data = tail.data;
+        long sequence = headSequence + size - 1;
+        if (Math.floorMod(sequence, CHECKPOINT_INTERVAL) == 0) {
+            getCheckpoints().remove(Math.floorDiv(sequence, CHECKPOINT_INTERVAL));
+        }
         
         if (head == tail) {
             head = tail = current = null;
+            headSequence = 0;
         } else {
             tail = tail.prev;
             tail.next = null;
@@ -169,6 +192,10 @@ public class DoubleLinkedList<T> implements Serializable, Iterable<T> {
     public void clear() {
         head = tail = current = null;
         size = 0;
+        headSequence = 0;
+        if (checkpoints != null) {
+            checkpoints.clear();
+        }
     }
     
     /**
@@ -182,11 +209,79 @@ public class DoubleLinkedList<T> implements Serializable, Iterable<T> {
             throw new IndexOutOfBoundsException("Index: " + index);
         }
         
-        Node<T> node = head;
-        for (int i = 0; i < index; i++) {
+        return nodeAt(index).data;
+    }
+    
+    /**
+     * Get elements in positions [from, to), e.g. one page of history
+     * 
+     * @param from First index (inclusive)
+     * @param to Last index (exclusive)
+     * @return Elements in list order
+     */
+    public List<T> getRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range: " + from + " to " + to);
+        }
+        
+        List<T> result = new ArrayList<>(to - from);
+        if (from == to) {
+            return result;
+        }
+        Node<T> node = nodeAt(from);
+        for (int i = from; i < to; i++) {
+            result.add(node.data);
+            node = node.next;
+        }
+        return result;
+    }
+    
+    /**
+     * Find node at index starting from the nearest checkpoint, head or tail
+     */
+    private Node<T> nodeAt(int index) {
+        if (size - 1 - index < CHECKPOINT_INTERVAL) {
+            Node<T> node = tail;
+            for (int i = size - 1; i > index; i--) {
+                node = node.prev;
+            }
+            return node;
+        }
+        
+        long sequence = headSequence + index;
+        long block = Math.floorDiv(sequence, CHECKPOINT_INTERVAL);
+        Node<T> node = block * CHECKPOINT_INTERVAL >= headSequence ? getCheckpoints().get(block) : null;
+        long steps = node != null ? sequence - block * CHECKPOINT_INTERVAL : index;
+        if (node == null) {
+            node = head;
+        }
+        for (long i = 0; i < steps; i++) {
             node = node.next;
         }
-        return node.data;
+        return node;
+    }
+    
+    private void checkpoint(long sequence, Node<T> node) {
+        if (Math.floorMod(sequence, CHECKPOINT_INTERVAL) == 0) {
+            getCheckpoints().put(Math.floorDiv(sequence, CHECKPOINT_INTERVAL), node);
+        }
+    }
+    
+    /**
+     * Get checkpoint table, built from the nodes when missing
+     */
+    private LongLinearProbingHash<Node<T>> getCheckpoints() {
+        if (checkpoints == null) {
+            checkpoints = new LongLinearProbingHash<>();
+            long sequence = headSequence;
+            for (Node<T> node = head; node != null; node = node.next) {
+                if (Math.floorMod(sequence, CHECKPOINT_INTERVAL) == 0) {
+                    checkpoints.put(Math.floorDiv(sequence, CHECKPOINT_INTERVAL), node);
+                }
+                sequence++;
+            }
+        }
+        return checkpoints;
     }
     
     @Override
@@ -1,137 +1,289 @@
 package com.ibrahim.mehdi.gymmanager.datastructures;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
 /**
  * Graph implementation for equipment dependency analysis.
  * Supports BFS, DFS, and Strongly Connected Components (SCC).
- * 
+ *
+ * Edges are collected in per-vertex int arrays (mutable builder) and
+ * traversals run on an immutable {@link CSRGraph} snapshot that is
+ * rebuilt lazily after the graph changes. The vertex set grows on
+ * demand, and SCCs are maintained incrementally on edge insertion.
+ * Graphs saved with the older adjacency list map are converted when
+ * they are read.
+ *
  * @author ibrahim.mehdi
  */
 public class Graph implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final int[] NO_EDGES = new int[0];
     
-    private Map<Integer, List<Integer>> adjacencyList;
+    private int[][] adjacency;
+    private int[] degree;
     private int vertices;
+    private int edgeCount;
+    
+    // Derived from adjacency, rebuilt on demand
+    private transient CSRGraph snapshot;
+    private transient IncrementalSCC scc;
+    
+    /**
+     * Create empty graph that grows as vertices are used
+     */
+    public Graph() {
+        this(0);
+    }
     
     public Graph(int vertices) {
         this.vertices = vertices;
-        this.adjacencyList = new HashMap<>();
-        for (int i = 0; i < vertices; i++) {
-            adjacencyList.put(i, new ArrayList<>());
-        }
+        this.adjacency = new int[Math.max(vertices, 16)][];
+        this.degree = new int[adjacency.length];
+        Arrays.fill(adjacency, NO_EDGES);
     }
     
-    public void addEdge(int from, int to) {
-        adjacencyList.get(from).add(to);
+    /**
+     * Add new vertex
+     *
+     * @return Id of the new vertex
+     */
+    public int addVertex() {
+        ensureVertex(vertices);
+        return vertices - 1;
     }
     
     /**
-     * BFS traversal
+     * Make sure vertex exists, growing the graph if needed
+     *
+     * @param vertex Vertex id
      */
-    public List<Integer> bfs(int start) {
-        List<Integer> result = new ArrayList<>();
-        boolean[] visited = new boolean[vertices];
-        Queue<Integer> queue = new LinkedList<>();
+    public void ensureVertex(int vertex) {
+        if (vertex < 0) {
+            throw new IndexOutOfBoundsException("Invalid vertex: " + vertex);
+        }
+        if (vertex < vertices) {
+            return;
+        }
         
-        visited[start] = true;
-        queue.offer(start);
+        if (vertex >= adjacency.length) {
+            int capacity = Math.max(vertex + 1, adjacency.length * 2);
+            int oldLength = adjacency.length;
+            adjacency = Arrays.copyOf(adjacency, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+            Arrays.fill(adjacency, oldLength, capacity, NO_EDGES);
+        }
         
-        while (!queue.isEmpty()) {
-            int vertex = queue.poll();
-            result.add(vertex);
-            
-            for (int neighbor : adjacencyList.get(vertex)) {
-                if (!visited[neighbor]) {
-                    visited[neighbor] = true;
-                    queue.offer(neighbor);
-                }
+        int oldVertices = vertices;
+        vertices = vertex + 1;
+        snapshot = null;
+        if (scc != null) {
+            for (int v = oldVertices; v < vertices; v++) {
+                scc.vertexAdded(v);
             }
         }
+    }
+    
+    public void addEdge(int from, int to) {
+        ensureVertex(from);
+        ensureVertex(to);
         
-        return result;
+        int[] row = adjacency[from];
+        if (degree[from] == row.length) {
+            row = Arrays.copyOf(row, Math.max(4, row.length * 2));
+            adjacency[from] = row;
+        }
+        row[degree[from]++] = to;
+        edgeCount++;
+        snapshot = null;
+        if (scc != null) {
+            scc.edgeAdded(from, to);
+        }
     }
     
     /**
-     * DFS traversal
+     * Remove one edge from -> to
+     *
+     * @return True if the edge existed
      */
-    public List<Integer> dfs(int start) {
-        List<Integer> result = new ArrayList<>();
-        boolean[] visited = new boolean[vertices];
-        dfsUtil(start, visited, result);
-        return result;
-    }
-    
-    private void dfsUtil(int vertex, boolean[] visited, List<Integer> result) {
-        visited[vertex] = true;
-        result.add(vertex);
+    public boolean removeEdge(int from, int to) {
+        if (from < 0 || from >= vertices) {
+            return false;
+        }
         
-        for (int neighbor : adjacencyList.get(vertex)) {
-            if (!visited[neighbor]) {
-                dfsUtil(neighbor, visited, result);
+        int[] row = adjacency[from];
+        for (int i = 0; i < degree[from]; i++) {
+            if (row[i] == to) {
+                System.arraycopy(row, i + 1, row, i, degree[from] - i - 1);
+                degree[from]--;
+                edgeCount--;
+                snapshot = null;
+                // Edges inside a component may split it
+                if (scc != null && inSameComponent(from, to)) {
+                    scc.markDirty();
+                }
+                return true;
             }
         }
+        return false;
     }
     
     /**
-     * Find Strongly Connected Components using Kosaraju's algorithm
+     * Check if edge from -> to exists
      */
-    public List<List<Integer>> findSCC() {
-        Stack<Integer> stack = new Stack<>();
-        boolean[] visited = new boolean[vertices];
-        
-        // Fill stack with vertices in order of finish time
-        for (int i = 0; i < vertices; i++) {
-            if (!visited[i]) {
-                fillOrder(i, visited, stack);
-            }
+    public boolean hasEdge(int from, int to) {
+        if (from < 0 || from >= vertices) {
+            return false;
         }
-        
-        // Create transpose graph
-        Graph transpose = getTranspose();
-        
-        // Process all vertices in order defined by stack
-        Arrays.fill(visited, false);
-        List<List<Integer>> sccs = new ArrayList<>();
-        
-        while (!stack.isEmpty()) {
-            int v = stack.pop();
-            if (!visited[v]) {
-                List<Integer> component = new ArrayList<>();
-                transpose.dfsUtil(v, visited, component);
-                sccs.add(component);
+        for (int i = 0; i < degree[from]; i++) {
+            if (adjacency[from][i] == to) {
+                return true;
             }
         }
-        
-        return sccs;
+        return false;
     }
     
-    private void fillOrder(int v, boolean[] visited, Stack<Integer> stack) {
-        visited[v] = true;
-        for (int neighbor : adjacencyList.get(v)) {
-            if (!visited[neighbor]) {
-                fillOrder(neighbor, visited, stack);
+    /**
+     * Get immutable CSR snapshot of the current edges
+     *
+     * @return Snapshot (cached until the next modification)
+     */
+    public CSRGraph snapshot() {
+        CSRGraph current = snapshot;
+        if (current == null) {
+            int[] offsets = new int[vertices + 1];
+            int[] targets = new int[edgeCount];
+            for (int v = 0; v < vertices; v++) {
+                System.arraycopy(adjacency[v], 0, targets, offsets[v], degree[v]);
+                offsets[v + 1] = offsets[v] + degree[v];
             }
+            current = new CSRGraph(offsets, targets);
+            snapshot = current;
         }
-        stack.push(v);
+        return current;
     }
     
-    private Graph getTranspose() {
-        Graph g = new Graph(vertices);
-        for (int v = 0; v < vertices; v++) {
-            for (int neighbor : adjacencyList.get(v)) {
-                g.adjacencyList.get(neighbor).add(v);
-            }
+    /**
+     * BFS traversal
+     */
+    public List<Integer> bfs(int start) {
+        return snapshot().bfs(start);
+    }
+    
+    /**
+     * Parallel level-synchronous BFS traversal
+     *
+     * @param start Start vertex
+     * @param parallelism Maximum number of tasks per level (common fork/join pool)
+     * @return Vertices level by level, ascending id inside a level
+     */
+    public List<Integer> parallelBfs(int start, int parallelism) {
+        int[] order = new ParallelBFS(snapshot()).traverse(start, parallelism);
+        List<Integer> result = new ArrayList<>(order.length);
+        for (int vertex : order) {
+            result.add(vertex);
+        }
+        return result;
+    }
+    
+    /**
+     * DFS traversal
+     */
+    public List<Integer> dfs(int start) {
+        return snapshot().dfs(start);
+    }
+    
+    /**
+     * Find Strongly Connected Components.
+     * The first call runs Tarjan's algorithm; later edge insertions
+     * update the components incrementally instead of recomputing.
+     *
+     * @return Components in topological order of the condensation
+     */
+    public List<List<Integer>> findSCC() {
+        return components().components();
+    }
+    
+    /**
+     * Get number of strongly connected components
+     */
+    public int getComponentCount() {
+        return components().getComponentCount();
+    }
+    
+    private IncrementalSCC components() {
+        if (scc == null) {
+            scc = new IncrementalSCC(this);
+        } else if (scc.isDirty()) {
+            scc.rebuild();
         }
-        return g;
+        return scc;
+    }
+    
+    private boolean inSameComponent(int a, int b) {
+        return !scc.isDirty() && scc.sameComponent(a, b);
+    }
+    
+    int degree(int vertex) {
+        return degree[vertex];
+    }
+    
+    int neighbor(int vertex, int index) {
+        return adjacency[vertex][index];
     }
     
     public int getVertices() {
         return vertices;
     }
     
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+    
+    /**
+     * Get adjacency list view (built as a copy)
+     */
     public Map<Integer, List<Integer>> getAdjacencyList() {
+        Map<Integer, List<Integer>> adjacencyList = new HashMap<>();
+        for (int v = 0; v < vertices; v++) {
+            List<Integer> neighbors = new ArrayList<>(degree[v]);
+            for (int i = 0; i < degree[v]; i++) {
+                neighbors.add(adjacency[v][i]);
+            }
+            adjacencyList.put(v, neighbors);
+        }
         return adjacencyList;
     }
+    
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        vertices = fields.get("vertices", 0);
+        adjacency = (int[][]) fields.get("adjacency", null);
+        degree = (int[]) fields.get("degree", null);
+        edgeCount = fields.get("edgeCount", 0);
+        if (adjacency != null && degree != null) {
+            return;
+        }
+        
+        // Older versions stored Map<Integer, List<Integer>> adjacencyList
+        Map<Integer, List<Integer>> adjacencyList =
+                (Map<Integer, List<Integer>>) fields.get("adjacencyList", null);
+        edgeCount = 0;
+        adjacency = new int[Math.max(vertices, 16)][];
+        degree = new int[adjacency.length];
+        Arrays.fill(adjacency, NO_EDGES);
+        if (adjacencyList == null) {
+            return;
+        }
+        for (Map.Entry<Integer, List<Integer>> entry : adjacencyList.entrySet()) {
+            for (Integer to : entry.getValue()) {
+                if (entry.getKey() != null && to != null) {
+                    addEdge(entry.getKey(), to);
+                }
+            }
+        }
+    }
 }
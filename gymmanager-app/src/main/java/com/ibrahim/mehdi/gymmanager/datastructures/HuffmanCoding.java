@@ -1,17 +1,49 @@
 package com.ibrahim.mehdi.gymmanager.datastructures;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
+import java.util.zip.CRC32;
 
 /**
  * Huffman Coding for data compression.
  * Used for compressing gym reports and data.
  * 
+ * {@link #compress(byte[])} produces a packed bitstream with a canonical
+ * code header; {@link #encode(String, Map)} gives the same idea as a
+ * readable '0'/'1' string for display, with the code table from
+ * {@link #buildCode(String)} passed explicitly to decode.
+ * 
+ * Thread safety: no method keeps state. Every packed payload carries its
+ * own code table, and '0'/'1' strings are decoded with the table they
+ * were encoded with, so any call can run on any thread.
+ * 
+ * Packed format:
+ * <pre>
+ *   mode (1 byte)       0 = stored, 1 = huffman
+ *   length (4 bytes)    original size, big endian
+ *   stored:  raw bytes
+ *   huffman: symbols - 1 (1 byte), symbols (n bytes),
+ *            code lengths (n nibbles, high nibble first), code bits (MSB first)
+ * </pre>
+ * 
  * @author ibrahim.mehdi
  */
 public class HuffmanCoding implements Serializable {
     private static final long serialVersionUID = 1L;
     
+    private static final int MODE_STORED = 0;
+    private static final int MODE_HUFFMAN = 1;
+    private static final int HEADER_SIZE = 5;
+    
+    // Code lengths must fit a nibble
+    static final int MAX_CODE_LENGTH = 15;
+    
+    // Codes up to this length decode with one table lookup
+    private static final int TABLE_BITS = 10;
+    
     private static class Node implements Comparable<Node>, Serializable {
         private static final long serialVersionUID = 1L;
         char character;
@@ -29,15 +61,482 @@ public class HuffmanCoding implements Serializable {
         }
     }
     
-    private Map<Character, String> huffmanCode = new HashMap<>();
-    private Node root;
+    /**
+     * Compress bytes into a packed Huffman bitstream.
+     * Falls back to stored mode when coding would not make data smaller.
+     *
+     * @param data Bytes to compress
+     * @return Packed data
+     */
+    public static byte[] compress(byte[] data) {
+        if (data == null) throw new IllegalArgumentException("Data cannot be null");
+        
+        int[] frequency = new int[256];
+        for (byte b : data) {
+            frequency[b & 0xFF]++;
+        }
+        int[] lengths = codeLengths(frequency);
+        
+        int symbols = 0;
+        long bits = 0;
+        for (int c = 0; c < 256; c++) {
+            if (lengths[c] > 0) {
+                symbols++;
+                bits += (long) frequency[c] * lengths[c];
+            }
+        }
+        long packedSize = HEADER_SIZE + 1 + symbols + (symbols + 1) / 2 + (bits + 7) / 8;
+        if (symbols == 0 || packedSize >= HEADER_SIZE + data.length) {
+            byte[] out = new byte[HEADER_SIZE + data.length];
+            writeHeader(out, MODE_STORED, data.length);
+            System.arraycopy(data, 0, out, HEADER_SIZE, data.length);
+            return out;
+        }
+        
+        byte[] out = new byte[(int) packedSize];
+        writeHeader(out, MODE_HUFFMAN, data.length);
+        int pos = HEADER_SIZE;
+        out[pos++] = (byte) (symbols - 1);
+        int nibbles = pos + symbols;
+        int written = 0;
+        for (int c = 0; c < 256; c++) {
+            if (lengths[c] > 0) {
+                out[pos++] = (byte) c;
+                out[nibbles + written / 2] |= (byte) (written % 2 == 0 ? lengths[c] << 4 : lengths[c]);
+                written++;
+            }
+        }
+        pos = nibbles + (symbols + 1) / 2;
+        
+        writeBits(data, lengths, canonicalCodes(lengths), out, pos);
+        return out;
+    }
     
     /**
-     * Encode text using Huffman coding
+     * Append the codes of data to out, MSB first, last byte zero padded
      */
-    public String encode(String text) {
+    private static void writeBits(byte[] data, int[] lengths, int[] codes, byte[] out, int pos) {
+        long buffer = 0;
+        int count = 0;
+        for (byte b : data) {
+            int c = b & 0xFF;
+            buffer = (buffer << lengths[c]) | codes[c];
+            count += lengths[c];
+            while (count >= 8) {
+                count -= 8;
+                out[pos++] = (byte) (buffer >>> count);
+            }
+        }
+        if (count > 0) {
+            out[pos] = (byte) (buffer << (8 - count));
+        }
+    }
+    
+    /**
+     * Restore bytes packed by {@link #compress(byte[])}
+     *
+     * @param packed Packed data
+     * @return Original bytes
+     */
+    public static byte[] decompress(byte[] packed) {
+        if (packed == null || packed.length < HEADER_SIZE) {
+            throw new IllegalArgumentException("Not Huffman packed data");
+        }
+        int mode = packed[0];
+        int length = ((packed[1] & 0xFF) << 24) | ((packed[2] & 0xFF) << 16)
+                | ((packed[3] & 0xFF) << 8) | (packed[4] & 0xFF);
+        if (length < 0 || (mode != MODE_STORED && mode != MODE_HUFFMAN)) {
+            throw new IllegalArgumentException("Corrupt Huffman header");
+        }
+        if (mode == MODE_STORED) {
+            if (packed.length - HEADER_SIZE < length) {
+                throw new IllegalArgumentException("Truncated stored data");
+            }
+            return Arrays.copyOfRange(packed, HEADER_SIZE, HEADER_SIZE + length);
+        }
+        
+        // Code lengths
+        int pos = HEADER_SIZE;
+        int symbols = (packed[pos++] & 0xFF) + 1;
+        int nibbles = pos + symbols;
+        int start = nibbles + (symbols + 1) / 2;
+        if (start > packed.length) {
+            throw new IllegalArgumentException("Truncated Huffman header");
+        }
+        int[] lengths = new int[256];
+        for (int i = 0; i < symbols; i++) {
+            int nibble = packed[nibbles + i / 2] >> (i % 2 == 0 ? 4 : 0) & 0x0F;
+            lengths[packed[pos + i] & 0xFF] = nibble;
+        }
+        
+        return new Decoder(lengths).decode(packed, start, length);
+    }
+    
+    /**
+     * Train a shared code table on sample records
+     *
+     * @param samples Typical records
+     * @return Dictionary that can code any bytes, best those like the samples
+     */
+    public static Dictionary train(Iterable<byte[]> samples) {
+        if (samples == null) throw new IllegalArgumentException("Samples cannot be null");
+        
+        // Every byte value is seen at least once, so nothing is unencodable
+        int[] frequency = new int[256];
+        Arrays.fill(frequency, 1);
+        for (byte[] sample : samples) {
+            for (byte b : sample) {
+                if (frequency[b & 0xFF] < Integer.MAX_VALUE / 2) {
+                    frequency[b & 0xFF]++;
+                }
+            }
+        }
+        return new Dictionary(codeLengths(frequency));
+    }
+    
+    /**
+     * Static code table shared by many short records.
+     * A per-record code table costs more than it saves on strings like
+     * "Added member: Ahmet Yılmaz"; with a dictionary trained once on
+     * similar records, a record is stored as the dictionary id (4 bytes),
+     * its length (varint) and code bits only. The dictionary must be kept
+     * to decode its records; a record packed with another dictionary is
+     * rejected by its id.
+     */
+    public static final class Dictionary implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final int ID_SIZE = 4;
+        private final int[] lengths;
+        private final transient int[] codes;
+        private final transient Decoder decoder;
+        private final transient int id;
+        
+        Dictionary(int[] lengths) {
+            this.lengths = lengths;
+            this.codes = canonicalCodes(lengths);
+            this.decoder = new Decoder(lengths);
+            this.id = checksum(lengths);
+        }
+        
+        private Object readResolve() {
+            return new Dictionary(lengths);
+        }
+        
+        /**
+         * Read a dictionary written by {@link #write(DataOutput)}
+         *
+         * @throws IOException If the stored table does not match its id
+         */
+        public static Dictionary read(DataInput in) throws IOException {
+            int[] lengths = new int[256];
+            for (int c = 0; c < 256; c++) {
+                lengths[c] = in.readUnsignedByte();
+                if (lengths[c] == 0 || lengths[c] > MAX_CODE_LENGTH) {
+                    throw new IOException("Corrupt dictionary");
+                }
+            }
+            if (in.readInt() != checksum(lengths)) {
+                throw new IOException("Corrupt dictionary");
+            }
+            return new Dictionary(lengths);
+        }
+        
+        /**
+         * Write the code lengths (256 bytes) and the id (int)
+         */
+        public void write(DataOutput out) throws IOException {
+            for (int length : lengths) {
+                out.writeByte(length);
+            }
+            out.writeInt(id);
+        }
+        
+        /**
+         * Get id of the code table, the same for equal tables
+         */
+        public int getId() {
+            return id;
+        }
+        
+        /**
+         * Compress one record with the shared table
+         */
+        public byte[] compress(byte[] data) {
+            if (data == null) throw new IllegalArgumentException("Data cannot be null");
+            long bits = 0;
+            for (byte b : data) {
+                bits += lengths[b & 0xFF];
+            }
+            int prefix = ID_SIZE + varintSize(data.length);
+            byte[] out = new byte[prefix + (int) ((bits + 7) / 8)];
+            for (int i = 0; i < ID_SIZE; i++) {
+                out[i] = (byte) (id >>> (24 - 8 * i));
+            }
+            int pos = ID_SIZE;
+            int value = data.length;
+            while (value >= 0x80) {
+                out[pos++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+            out[pos] = (byte) value;
+            writeBits(data, lengths, codes, out, prefix);
+            return out;
+        }
+        
+        /**
+         * Restore a record compressed with this dictionary
+         */
+        public byte[] decompress(byte[] packed) {
+            if (packed == null || packed.length <= ID_SIZE) {
+                throw new IllegalArgumentException("Not dictionary packed data");
+            }
+            int packedId = 0;
+            for (int i = 0; i < ID_SIZE; i++) {
+                packedId = packedId << 8 | (packed[i] & 0xFF);
+            }
+            if (packedId != id) {
+                throw new IllegalArgumentException("Record packed with another dictionary");
+            }
+            int length = 0;
+            int pos = ID_SIZE;
+            for (int shift = 0; ; shift += 7) {
+                if (pos == packed.length || shift > 28) {
+                    throw new IllegalArgumentException("Corrupt record length");
+                }
+                int b = packed[pos++];
+                length |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            if (length < 0) {
+                throw new IllegalArgumentException("Corrupt record length");
+            }
+            return decoder.decode(packed, pos, length);
+        }
+        
+        /**
+         * Get code length in bits of a byte value
+         */
+        public int getCodeLength(int value) {
+            return lengths[value & 0xFF];
+        }
+        
+        private static int checksum(int[] lengths) {
+            CRC32 crc = new CRC32();
+            for (int length : lengths) {
+                crc.update(length);
+            }
+            return (int) crc.getValue();
+        }
+        
+        private static int varintSize(int value) {
+            int size = 1;
+            while (value >= 0x80) {
+                value >>>= 7;
+                size++;
+            }
+            return size;
+        }
+    }
+    
+    /**
+     * Table driven decoder for one set of canonical code lengths
+     */
+    private static final class Decoder {
+        private final int maxLength;
+        private final int tableBits;
+        private final int[] table;        // Next tableBits bits -> symbol << 4 | length, 0 = long code
+        private final int[] lengthCount;
+        private final int[] firstCode;    // Canonical ranges per length, for long codes
+        private final int[] firstIndex;
+        private final int[] ordered;      // Symbols in code order
+        
+        Decoder(int[] lengths) {
+            int max = 0;
+            lengthCount = new int[MAX_CODE_LENGTH + 1];
+            for (int c = 0; c < 256; c++) {
+                lengthCount[lengths[c]]++;
+                max = Math.max(max, lengths[c]);
+            }
+            lengthCount[0] = 0;
+            maxLength = max;
+            
+            firstCode = new int[MAX_CODE_LENGTH + 2];
+            firstIndex = new int[MAX_CODE_LENGTH + 2];
+            int symbols = 0;
+            for (int len = 1, code = 0; len <= MAX_CODE_LENGTH; len++) {
+                firstCode[len] = code;
+                firstIndex[len] = symbols;
+                code = (code + lengthCount[len]) << 1;
+                symbols += lengthCount[len];
+            }
+            ordered = new int[symbols];
+            int[] next = Arrays.copyOf(firstIndex, firstIndex.length);
+            for (int c = 0; c < 256; c++) {
+                if (lengths[c] > 0) {
+                    ordered[next[lengths[c]]++] = c;
+                }
+            }
+            
+            tableBits = Math.min(maxLength, TABLE_BITS);
+            table = new int[1 << tableBits];
+            int[] codes = canonicalCodes(lengths);
+            for (int c = 0; c < 256; c++) {
+                int len = lengths[c];
+                if (len > 0 && len <= tableBits) {
+                    int from = codes[c] << (tableBits - len);
+                    Arrays.fill(table, from, from + (1 << (tableBits - len)), c << 4 | len);
+                }
+            }
+        }
+        
+        /**
+         * Decode length symbols from code bits starting at packed[start]
+         */
+        byte[] decode(byte[] packed, int start, int length) {
+            byte[] out = new byte[length];
+            long buffer = 0;
+            int count = 0;
+            int read = start;
+            for (int i = 0; i < length; i++) {
+                while (count <= 56) {
+                    buffer = (buffer << 8) | (read < packed.length ? packed[read] & 0xFF : 0);
+                    read++;
+                    count += 8;
+                }
+                int entry = table[(int) (buffer >>> (count - tableBits)) & ((1 << tableBits) - 1)];
+                if (entry != 0) {
+                    out[i] = (byte) (entry >>> 4);
+                    count -= entry & 0x0F;
+                    continue;
+                }
+                
+                // Longer than the table: walk the canonical ranges
+                int len = tableBits + 1;
+                int code = (int) (buffer >>> (count - len)) & ((1 << len) - 1);
+                while (len <= maxLength && (code < firstCode[len] || code - firstCode[len] >= lengthCount[len])) {
+                    len++;
+                    code = (int) (buffer >>> (count - len)) & ((1 << len) - 1);
+                }
+                if (len > maxLength) {
+                    throw new IllegalArgumentException("Corrupt Huffman data");
+                }
+                out[i] = (byte) ordered[firstIndex[len] + code - firstCode[len]];
+                count -= len;
+            }
+            long usedBits = (long) (read - start) * 8 - count;
+            if (start + (usedBits + 7) / 8 > packed.length) {
+                throw new IllegalArgumentException("Truncated Huffman data");
+            }
+            return out;
+        }
+    }
+    
+    /**
+     * Huffman code lengths per byte value, none above MAX_CODE_LENGTH.
+     * When the tree gets too deep, frequencies are halved and the tree
+     * is rebuilt, which flattens it while keeping the order of symbols.
+     */
+    static int[] codeLengths(int[] frequency) {
+        int[] weights = frequency.clone();
+        while (true) {
+            int[] lengths = treeLengths(weights);
+            int max = 0;
+            for (int len : lengths) {
+                max = Math.max(max, len);
+            }
+            if (max <= MAX_CODE_LENGTH) {
+                return lengths;
+            }
+            for (int c = 0; c < weights.length; c++) {
+                if (weights[c] > 0) {
+                    weights[c] = Math.max(1, weights[c] >> 1);
+                }
+            }
+        }
+    }
+    
+    private static int[] treeLengths(int[] weights) {
+        int n = weights.length;
+        int[] parent = new int[2 * n];
+        PriorityQueue<long[]> pq = new PriorityQueue<>((a, b) ->
+            a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        for (int c = 0; c < n; c++) {
+            if (weights[c] > 0) {
+                pq.offer(new long[]{weights[c], c});
+            }
+        }
+        int[] lengths = new int[n];
+        if (pq.size() == 1) {
+            lengths[(int) pq.poll()[1]] = 1;
+            return lengths;
+        }
+        
+        int nextNode = n;
+        while (pq.size() > 1) {
+            long[] a = pq.poll();
+            long[] b = pq.poll();
+            parent[(int) a[1]] = nextNode;
+            parent[(int) b[1]] = nextNode;
+            pq.offer(new long[]{a[0] + b[0], nextNode++});
+        }
+        
+        // Depth of each internal node, parents are created after children
+        int root = nextNode - 1;
+        int[] depth = new int[2 * n];
+        for (int node = root - 1; node >= n; node--) {
+            depth[node] = depth[parent[node]] + 1;
+        }
+        for (int c = 0; c < n; c++) {
+            if (weights[c] > 0) {
+                lengths[c] = depth[parent[c]] + 1;
+            }
+        }
+        return lengths;
+    }
+    
+    /**
+     * Canonical codes: shorter codes first, ties by symbol value
+     */
+    private static int[] canonicalCodes(int[] lengths) {
+        int[] lengthCount = new int[MAX_CODE_LENGTH + 1];
+        for (int len : lengths) {
+            lengthCount[len]++;
+        }
+        lengthCount[0] = 0;
+        int[] nextCode = new int[MAX_CODE_LENGTH + 1];
+        for (int len = 1, code = 0; len <= MAX_CODE_LENGTH; len++) {
+            code = (code + lengthCount[len - 1]) << 1;
+            nextCode[len] = code;
+        }
+        int[] codes = new int[lengths.length];
+        for (int c = 0; c < lengths.length; c++) {
+            if (lengths[c] > 0) {
+                codes[c] = nextCode[lengths[c]]++;
+            }
+        }
+        return codes;
+    }
+    
+    private static void writeHeader(byte[] out, int mode, int length) {
+        out[0] = (byte) mode;
+        out[1] = (byte) (length >>> 24);
+        out[2] = (byte) (length >>> 16);
+        out[3] = (byte) (length >>> 8);
+        out[4] = (byte) length;
+    }
+    
+    /**
+     * Build the Huffman code table of a text
+     *
+     * @param text Text to code
+     * @return Character to '0'/'1' code, empty for empty text
+     */
+    public Map<Character, String> buildCode(String text) {
+        Map<Character, String> codes = new HashMap<>();
         if (text == null || text.isEmpty()) {
-            return "";
+            return codes;
         }
         
         // Calculate frequency
@@ -63,54 +562,110 @@ public class HuffmanCoding implements Serializable {
             pq.offer(parent);
         }
         
-        root = pq.poll();
-        
         // Generate codes
-        huffmanCode.clear();
-        generateCodes(root, "");
+        generateCodes(pq.poll(), "", codes);
+        return codes;
+    }
+    
+    /**
+     * Encode text with its own code table, one '0'/'1' char per bit.
+     * Decoding needs the table, see {@link #buildCode(String)}.
+     */
+    public String encode(String text) {
+        return encode(text, buildCode(text));
+    }
+    
+    /**
+     * Encode text with a code table, one '0'/'1' char per bit
+     *
+     * @param text Text to encode
+     * @param codes Code table covering every character of text
+     * @return Encoded bits
+     */
+    public String encode(String text, Map<Character, String> codes) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        if (codes == null) {
+            throw new IllegalArgumentException("Code table cannot be null");
+        }
         
-        // Encode text
         StringBuilder encoded = new StringBuilder();
         for (char c : text.toCharArray()) {
-            encoded.append(huffmanCode.get(c));
+            String code = codes.get(c);
+            if (code == null) {
+                throw new IllegalArgumentException("No code for character: " + c);
+            }
+            encoded.append(code);
         }
-        
         return encoded.toString();
     }
     
     /**
-     * Decode Huffman encoded text
+     * Decode Huffman encoded text with the table it was encoded with
+     *
+     * @param encoded Encoded bits
+     * @param codes Code table used by encode
+     * @return Decoded text
      */
-    public String decode(String encoded) {
-        if (encoded == null || encoded.isEmpty() || root == null) {
+    public String decode(String encoded, Map<Character, String> codes) {
+        if (encoded == null || encoded.isEmpty()) {
             return "";
         }
+        if (codes == null || codes.isEmpty()) {
+            throw new IllegalArgumentException("Code table cannot be empty");
+        }
+        
+        // Rebuild the tree from the codes
+        Node root = new Node('\0', 0);
+        for (Map.Entry<Character, String> entry : codes.entrySet()) {
+            Node node = root;
+            for (char bit : entry.getValue().toCharArray()) {
+                if (bit == '0') {
+                    if (node.left == null) {
+                        node.left = new Node('\0', 0);
+                    }
+                    node = node.left;
+                } else {
+                    if (node.right == null) {
+                        node.right = new Node('\0', 0);
+                    }
+                    node = node.right;
+                }
+            }
+            node.character = entry.getKey();
+        }
         
         StringBuilder decoded = new StringBuilder();
         Node current = root;
-        
         for (char bit : encoded.toCharArray()) {
             current = (bit == '0') ? current.left : current.right;
+            if (current == null) {
+                throw new IllegalArgumentException("Bits do not match the code table");
+            }
             
             if (current.left == null && current.right == null) {
                 decoded.append(current.character);
                 current = root;
             }
         }
+        if (current != root) {
+            throw new IllegalArgumentException("Encoded text ends inside a code");
+        }
         
         return decoded.toString();
     }
     
-    private void generateCodes(Node node, String code) {
+    private static void generateCodes(Node node, String code, Map<Character, String> codes) {
         if (node == null) return;
         
         if (node.left == null && node.right == null) {
-            huffmanCode.put(node.character, code.isEmpty() ? "0" : code);
+            codes.put(node.character, code.isEmpty() ? "0" : code);
             return;
         }
         
-        generateCodes(node.left, code + "0");
-        generateCodes(node.right, code + "1");
+        generateCodes(node.left, code + "0", codes);
+        generateCodes(node.right, code + "1", codes);
     }
     
     /**
@@ -122,8 +677,4 @@ public class HuffmanCoding implements Serializable {
         int encodedBits = encoded.length();
         return (1.0 - (double) encodedBits / originalBits) * 100;
     }
-    
-    public Map<Character, String> getHuffmanCode() {
-        return new HashMap<>(huffmanCode);
-    }
 }
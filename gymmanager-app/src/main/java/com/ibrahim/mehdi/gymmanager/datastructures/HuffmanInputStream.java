@@ -0,0 +1,136 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Input stream that reads data written by {@link HuffmanOutputStream}.
+ * One block is decoded at a time, so memory stays constant.
+ *
+ * @author ibrahim.mehdi
+ */
+public class HuffmanInputStream extends FilterInputStream {
+    
+    private static final byte[] EMPTY = new byte[0];
+    
+    private final DataInputStream data;
+    private byte[] block = EMPTY;
+    private int position;
+    private boolean ended;
+    
+    /**
+     * Constructor
+     *
+     * @param in Stream with compressed data
+     * @throws IOException If the stream does not start with the magic header
+     */
+    public HuffmanInputStream(InputStream in) throws IOException {
+        super(in);
+        this.data = new DataInputStream(in);
+        byte[] magic = new byte[HuffmanOutputStream.MAGIC.length];
+        try {
+            data.readFully(magic);
+        } catch (EOFException e) {
+            throw new IOException("Not a Huffman stream");
+        }
+        if (!Arrays.equals(magic, HuffmanOutputStream.MAGIC)) {
+            throw new IOException("Not a Huffman stream");
+        }
+    }
+    
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return block[position++] & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int chunk = Math.min(len, block.length - position);
+        System.arraycopy(block, position, b, off, chunk);
+        position += chunk;
+        return chunk;
+    }
+    
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && fill()) {
+            int chunk = (int) Math.min(n - skipped, block.length - position);
+            position += chunk;
+            skipped += chunk;
+        }
+        return skipped;
+    }
+    
+    @Override
+    public int available() {
+        return block.length - position;
+    }
+    
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+    
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+    
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+    
+    /**
+     * Decode the next block if the current one is used up
+     *
+     * @return False at the end marker
+     */
+    private boolean fill() throws IOException {
+        while (position == block.length) {
+            if (ended) {
+                return false;
+            }
+            int length;
+            try {
+                length = data.readInt();
+            } catch (EOFException e) {
+                throw new IOException("Truncated Huffman stream");
+            }
+            if (length == 0) {
+                ended = true;
+                return false;
+            }
+            if (length < 0) {
+                throw new IOException("Corrupt Huffman stream");
+            }
+            byte[] packed = new byte[length];
+            try {
+                data.readFully(packed);
+                block = HuffmanCoding.decompress(packed);
+            } catch (EOFException e) {
+                throw new IOException("Truncated Huffman stream");
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt Huffman stream: " + e.getMessage());
+            }
+            position = 0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Output stream that Huffman compresses everything written to it.
+ * Data is cut into blocks of at most {@link #BLOCK_SIZE} bytes and each
+ * block is coded with its own tree ({@link HuffmanCoding#compress(byte[])}),
+ * so memory stays constant however long the stream gets and the code
+ * adapts when the content changes along the way.
+ *
+ * Stream format: {@link #MAGIC}, then per block its packed length
+ * (4 bytes) and packed bytes, then a 0 length as end marker.
+ * Read it back with {@link HuffmanInputStream}.
+ *
+ * Like DeflaterOutputStream, flush() does not cut a short block; the
+ * buffered tail is written by finish() or close().
+ *
+ * @author ibrahim.mehdi
+ */
+public class HuffmanOutputStream extends FilterOutputStream {
+    
+    /** First bytes of every Huffman stream */
+    public static final byte[] MAGIC = {'G', 'H', 'Z', '1'};
+    
+    public static final int BLOCK_SIZE = 64 * 1024;
+    
+    private final DataOutputStream data;
+    private final byte[] block;
+    private int count;
+    private boolean finished;
+    
+    /**
+     * Constructor
+     *
+     * @param out Stream that receives compressed data
+     * @throws IOException If the header cannot be written
+     */
+    public HuffmanOutputStream(OutputStream out) throws IOException {
+        this(out, BLOCK_SIZE);
+    }
+    
+    /**
+     * Constructor with custom block size
+     *
+     * @param out Stream that receives compressed data
+     * @param blockSize Uncompressed bytes per block
+     * @throws IOException If the header cannot be written
+     */
+    public HuffmanOutputStream(OutputStream out, int blockSize) throws IOException {
+        super(out);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.data = new DataOutputStream(out);
+        this.block = new byte[blockSize];
+        data.write(MAGIC);
+    }
+    
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == block.length) {
+            writeBlock();
+        }
+        block[count++] = (byte) b;
+    }
+    
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (count == block.length) {
+                writeBlock();
+            }
+            int chunk = Math.min(len, block.length - count);
+            System.arraycopy(b, off, block, count, chunk);
+            count += chunk;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        data.flush();
+    }
+    
+    /**
+     * Write the buffered tail and the end marker without closing the
+     * underlying stream
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (count > 0) {
+            writeBlock();
+        }
+        data.writeInt(0);
+        data.flush();
+        finished = true;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+    
+    private void writeBlock() throws IOException {
+        byte[] packed = HuffmanCoding.compress(count == block.length ? block : Arrays.copyOf(block, count));
+        data.writeInt(packed.length);
+        data.write(packed);
+        count = 0;
+    }
+    
+    private void ensureOpen() throws IOException {
+        if (finished) {
+            throw new IOException("Stream already finished");
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incrementally maintained strongly connected components and a
+ * topological order of the condensation for {@link Graph}.
+ *
+ * Edge insertion u->v only does work when v's component is ordered
+ * before u's: a forward search from v limited to the affected order
+ * range either reorders that range (Marchetti-Spaccamela et al.) or, if
+ * u is reached, merges the components on the new cycle. Removing an edge
+ * inside a component may split it, so the structure is marked dirty and
+ * rebuilt with Tarjan on the next query.
+ *
+ * @author ibrahim.mehdi
+ */
+final class IncrementalSCC {
+    
+    private final Graph graph;
+    
+    private int[] parent;      // union-find over vertices
+    private int[] ord;         // order position of a component (by representative)
+    private int[] order;       // position -> representative, -1 = hole
+    private int[][] members;   // vertices of a component (by representative)
+    private int[] memberCount;
+    private int nextPos;
+    private int vertices;
+    private int componentCount;
+    private boolean dirty;
+    
+    // Search scratch
+    private int[] mark;
+    private int stamp;
+    private int[] stack;
+    
+    IncrementalSCC(Graph graph) {
+        this.graph = graph;
+        rebuild();
+    }
+    
+    /**
+     * Recompute everything from a Tarjan pass over the current graph
+     */
+    void rebuild() {
+        CSRGraph csr = graph.snapshot();
+        vertices = csr.getVertexCount();
+        int capacity = Math.max(16, vertices);
+        parent = new int[capacity];
+        ord = new int[capacity];
+        order = new int[capacity * 2];
+        members = new int[capacity][];
+        memberCount = new int[capacity];
+        mark = new int[capacity];
+        stack = new int[capacity];
+        stamp = 0;
+        Arrays.fill(order, -1);
+        
+        int[] component = new int[vertices];
+        componentCount = csr.componentIds(component);
+        int[] rep = new int[componentCount];
+        Arrays.fill(rep, -1);
+        
+        for (int v = 0; v < vertices; v++) {
+            int c = component[v];
+            if (rep[c] < 0) {
+                rep[c] = v;
+                ord[v] = c;
+                order[c] = v;
+                members[v] = new int[2];
+            }
+            int r = rep[c];
+            parent[v] = r;
+            addMember(r, v);
+        }
+        nextPos = componentCount;
+        dirty = false;
+    }
+    
+    boolean isDirty() {
+        return dirty;
+    }
+    
+    void markDirty() {
+        dirty = true;
+    }
+    
+    /**
+     * New isolated vertex: its own component, placed last
+     */
+    void vertexAdded(int v) {
+        if (dirty) {
+            return;
+        }
+        ensureCapacity(v + 1);
+        if (nextPos == order.length) {
+            compact();
+        }
+        parent[v] = v;
+        members[v] = new int[2];
+        memberCount[v] = 0;
+        addMember(v, v);
+        ord[v] = nextPos;
+        order[nextPos++] = v;
+        vertices = Math.max(vertices, v + 1);
+        componentCount++;
+    }
+    
+    /**
+     * Edge u->v was added to the graph
+     */
+    void edgeAdded(int u, int v) {
+        if (dirty) {
+            return;
+        }
+        int cu = find(u);
+        int cv = find(v);
+        if (cu == cv || ord[cu] < ord[cv]) {
+            return;
+        }
+        
+        int lb = ord[cv];
+        int ub = ord[cu];
+        
+        // Forward search from v over components ordered at most ub
+        stamp++;
+        int top = 0;
+        mark[cv] = stamp;
+        stack[top++] = cv;
+        while (top > 0) {
+            int x = stack[--top];
+            for (int i = 0; i < memberCount[x]; i++) {
+                int m = members[x][i];
+                for (int e = 0, deg = graph.degree(m); e < deg; e++) {
+                    int y = find(graph.neighbor(m, e));
+                    if (mark[y] != stamp && ord[y] <= ub) {
+                        mark[y] = stamp;
+                        stack[top++] = y;
+                    }
+                }
+            }
+        }
+        
+        // Components in the affected range, in current order
+        int[] region = new int[ub - lb + 1];
+        int[] positions = new int[ub - lb + 1];
+        int regionSize = 0;
+        for (int p = lb; p <= ub; p++) {
+            if (order[p] >= 0) {
+                region[regionSize] = order[p];
+                positions[regionSize++] = p;
+            }
+        }
+        
+        int write = 0;
+        if (mark[cu] != stamp) {
+            // No cycle: unreached components first, then the reached ones
+            for (int i = 0; i < regionSize; i++) {
+                if (mark[region[i]] != stamp) {
+                    place(region[i], positions[write++]);
+                }
+            }
+            for (int i = 0; i < regionSize; i++) {
+                if (mark[region[i]] == stamp) {
+                    place(region[i], positions[write++]);
+                }
+            }
+            return;
+        }
+        
+        // Cycle: components of F that reach u merge with u's component.
+        // Edges inside F go forward in order, so scan F backwards.
+        boolean[] reaches = new boolean[regionSize];
+        int merged = cu;
+        for (int i = regionSize - 1; i >= 0; i--) {
+            int x = region[i];
+            if (mark[x] != stamp) {
+                continue;
+            }
+            if (x == cu) {
+                reaches[i] = true;
+                continue;
+            }
+            for (int k = 0; k < memberCount[x] && !reaches[i]; k++) {
+                int m = members[x][k];
+                for (int e = 0, deg = graph.degree(m); e < deg; e++) {
+                    int y = find(graph.neighbor(m, e));
+                    if (mark[y] == stamp && ord[y] > ord[x] && reachesAt(y, region, positions, regionSize, reaches)) {
+                        reaches[i] = true;
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < regionSize; i++) {
+            if (reaches[i] && region[i] != cu) {
+                merged = union(merged, region[i]);
+            }
+        }
+        
+        for (int i = 0; i < regionSize; i++) {
+            if (mark[region[i]] != stamp) {
+                place(region[i], positions[write++]);
+            }
+        }
+        place(merged, positions[write++]);
+        for (int i = 0; i < regionSize; i++) {
+            if (mark[region[i]] == stamp && !reaches[i]) {
+                place(region[i], positions[write++]);
+            }
+        }
+        while (write < regionSize) {
+            order[positions[write++]] = -1;
+        }
+    }
+    
+    /**
+     * Components in topological order, members ascending
+     */
+    List<List<Integer>> components() {
+        List<List<Integer>> result = new ArrayList<>(componentCount);
+        for (int p = 0; p < nextPos; p++) {
+            int rep = order[p];
+            if (rep < 0) {
+                continue;
+            }
+            int[] sorted = Arrays.copyOf(members[rep], memberCount[rep]);
+            Arrays.sort(sorted);
+            List<Integer> component = new ArrayList<>(sorted.length);
+            for (int v : sorted) {
+                component.add(v);
+            }
+            result.add(component);
+        }
+        return result;
+    }
+    
+    int getComponentCount() {
+        return componentCount;
+    }
+    
+    boolean sameComponent(int a, int b) {
+        return a < vertices && b < vertices && find(a) == find(b);
+    }
+    
+    private boolean reachesAt(int rep, int[] region, int[] positions, int regionSize,
+                              boolean[] reaches) {
+        int i = Arrays.binarySearch(positions, 0, regionSize, ord[rep]);
+        return i >= 0 && region[i] == rep && reaches[i];
+    }
+    
+    private void place(int rep, int position) {
+        ord[rep] = position;
+        order[position] = rep;
+    }
+    
+    private int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+    
+    /**
+     * Merge two components, the larger one keeps its representative
+     */
+    private int union(int a, int b) {
+        if (memberCount[a] < memberCount[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        for (int i = 0; i < memberCount[b]; i++) {
+            addMember(a, members[b][i]);
+        }
+        parent[b] = a;
+        members[b] = null;
+        memberCount[b] = 0;
+        componentCount--;
+        return a;
+    }
+    
+    private void addMember(int rep, int v) {
+        if (memberCount[rep] == members[rep].length) {
+            members[rep] = Arrays.copyOf(members[rep], members[rep].length * 2);
+        }
+        members[rep][memberCount[rep]++] = v;
+    }
+    
+    /**
+     * Remove holes from the order array
+     */
+    private void compact() {
+        int write = 0;
+        for (int p = 0; p < nextPos; p++) {
+            if (order[p] >= 0) {
+                place(order[p], write++);
+            }
+        }
+        Arrays.fill(order, write, order.length, -1);
+        nextPos = write;
+        if (nextPos == order.length) {
+            order = Arrays.copyOf(order, order.length * 2);
+            Arrays.fill(order, nextPos, order.length, -1);
+        }
+    }
+    
+    private void ensureCapacity(int size) {
+        if (size <= parent.length) {
+            return;
+        }
+        int capacity = Math.max(size, parent.length * 2);
+        parent = Arrays.copyOf(parent, capacity);
+        ord = Arrays.copyOf(ord, capacity);
+        members = Arrays.copyOf(members, capacity);
+        memberCount = Arrays.copyOf(memberCount, capacity);
+        mark = Arrays.copyOf(mark, capacity);
+        stack = Arrays.copyOf(stack, capacity);
+    }
+}
@@ -13,15 +13,126 @@ import java.util.List;
 public class KMPAlgorithm implements Serializable {
     private static final long serialVersionUID = 1L;
     
+    /**
+     * Pattern with precomputed LPS table, reusable for many texts.
+     * Build once per query with {@link #compile(String)}; matching
+     * does not allocate.
+     */
+    public static final class Pattern implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String pattern;
+        private final int[] lps;
+        
+        private Pattern(String pattern) {
+            this.pattern = pattern;
+            this.lps = computeLPS(pattern);
+        }
+        
+        /**
+         * Find first occurrence in text
+         * 
+         * @param text Text to search in
+         * @return Start index or -1
+         */
+        public int indexIn(CharSequence text) {
+            return indexIn(text, 0);
+        }
+        
+        /**
+         * Find first occurrence starting at or after from
+         * 
+         * @return Start index or -1
+         */
+        public int indexIn(CharSequence text, int from) {
+            int m = pattern.length();
+            if (text == null || m == 0) {
+                return -1;
+            }
+            
+            int j = 0;
+            for (int i = Math.max(from, 0); i < text.length(); i++) {
+                char c = text.charAt(i);
+                while (j > 0 && pattern.charAt(j) != c) {
+                    j = lps[j - 1];
+                }
+                if (pattern.charAt(j) == c) {
+                    j++;
+                }
+                if (j == m) {
+                    return i - m + 1;
+                }
+            }
+            return -1;
+        }
+        
+        /**
+         * Check if pattern occurs in text
+         */
+        public boolean isFoundIn(CharSequence text) {
+            return indexIn(text, 0) >= 0;
+        }
+        
+        /**
+         * Find all occurrences in text (may overlap)
+         * 
+         * @return List of starting indices
+         */
+        public List<Integer> findAll(CharSequence text) {
+            List<Integer> matches = new ArrayList<>();
+            int m = pattern.length();
+            if (text == null || m == 0) {
+                return matches;
+            }
+            
+            int j = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                while (j > 0 && pattern.charAt(j) != c) {
+                    j = lps[j - 1];
+                }
+                if (pattern.charAt(j) == c) {
+                    j++;
+                }
+                if (j == m) {
+                    matches.add(i - m + 1);
+                    j = lps[j - 1];
+                }
+            }
+            return matches;
+        }
+        
+        public String getPattern() {
+            return pattern;
+        }
+        
+        public int length() {
+            return pattern.length();
+        }
+    }
+    
+    /**
+     * Compile pattern for repeated searches
+     * 
+     * @param pattern Pattern to search for
+     * @return Compiled pattern
+     */
+    public static Pattern compile(String pattern) {
+        if (pattern == null) throw new IllegalArgumentException("Pattern cannot be null");
+        return new Pattern(pattern);
+    }
+    
     /**
      * Compute LPS (Longest Proper Prefix which is also Suffix) array
      */
-    private int[] computeLPS(String pattern) {
+    private static int[] computeLPS(String pattern) {
         int m = pattern.length();
         int[] lps = new int[m];
         int len = 0;
         int i = 1;
         
+        if (m == 0) {
+            return lps;
+        }
         lps[0] = 0;
         
         while (i < m) {
@@ -50,46 +161,21 @@ public class KMPAlgorithm implements Serializable {
      * @return List of starting indices where pattern is found
      */
     public List<Integer> search(String text, String pattern) {
-        List<Integer> matches = new ArrayList<>();
-        
         if (text == null || pattern == null || pattern.isEmpty()) {
-            return matches;
+            return new ArrayList<>();
         }
         
-        int n = text.length();
-        int m = pattern.length();
-        
-        int[] lps = computeLPS(pattern);
-        
-        int i = 0; // Index for text
-        int j = 0; // Index for pattern
-        
-        while (i < n) {
-            if (pattern.charAt(j) == text.charAt(i)) {
-                i++;
-                j++;
-            }
-            
-            if (j == m) {
-                matches.add(i - j);
-                j = lps[j - 1];
-            } else if (i < n && pattern.charAt(j) != text.charAt(i)) {
-                if (j != 0) {
-                    j = lps[j - 1];
-                } else {
-                    i++;
-                }
-            }
-        }
-        
-        return matches;
+        return compile(pattern).findAll(text);
     }
     
     /**
      * Check if pattern exists in text
      */
     public boolean contains(String text, String pattern) {
-        return !search(text, pattern).isEmpty();
+        if (text == null || pattern == null || pattern.isEmpty()) {
+            return false;
+        }
+        return compile(pattern).isFoundIn(text);
     }
     
     /**
@@ -0,0 +1,218 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map with primitive long keys.
+ * Keys and values live in two parallel arrays, so lookups never box the
+ * key or allocate. Deletion shifts the following cluster back instead of
+ * leaving tombstones, keeping probe sequences short.
+ *
+ * Long.MIN_VALUE marks an empty slot and cannot be used as a key.
+ *
+ * @param <V> Value type
+ * @author ibrahim.mehdi
+ */
+public class LongLinearProbingHash<V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int DEFAULT_CAPACITY = 16; // Power of two
+    
+    /**
+     * Callback for entry iteration
+     *
+     * @param <V> Value type
+     */
+    public interface EntryVisitor<V> {
+        void visit(long key, V value);
+    }
+    
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    
+    public LongLinearProbingHash() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor with expected number of entries
+     */
+    public LongLinearProbingHash(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+    
+    /**
+     * Spread key bits (finalizer of MurmurHash3)
+     */
+    private int slot(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+    
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Insert or replace value
+     *
+     * @return Previous value or null
+     */
+    public V put(long key, V value) {
+        if (key == EMPTY) throw new IllegalArgumentException("Reserved key");
+        if (value == null) throw new IllegalArgumentException("Value cannot be null");
+        
+        int index = slot(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                V old = valueAt(index);
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        
+        if (size > keys.length * 3 / 4) {
+            resize();
+        }
+        return null;
+    }
+    
+    /**
+     * Get value by key
+     */
+    public V get(long key) {
+        int index = indexOf(key);
+        return index >= 0 ? valueAt(index) : null;
+    }
+    
+    /**
+     * Check if key exists
+     */
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+    
+    /**
+     * Remove key
+     *
+     * @return Removed value or null
+     */
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        
+        V old = valueAt(index);
+        
+        // Backward shift: move later cluster entries into the gap when
+        // the gap lies on their probe path
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return old;
+    }
+    
+    /**
+     * Visit all entries (table order)
+     */
+    public void forEach(EntryVisitor<? super V> visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                visitor.visit(keys[i], valueAt(i));
+            }
+        }
+    }
+    
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+    
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = slot(oldKeys[i]);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) values[index];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public int getCapacity() {
+        return keys.length;
+    }
+    
+    public double getLoadFactor() {
+        return (double) size / keys.length;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("LongLinearProbingHash[size=%d, capacity=%d, load=%.2f]",
+                size, keys.length, getLoadFactor());
+    }
+}
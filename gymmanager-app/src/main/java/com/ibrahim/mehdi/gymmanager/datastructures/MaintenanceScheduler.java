@@ -0,0 +1,186 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maintenance scheduler over a dependency {@link Graph}.
+ * Edge from -> to means "from must be maintained before to".
+ *
+ * Strongly connected components are condensed first: equipment on a
+ * dependency cycle is maintained together in one window whose duration
+ * is the sum of its members. The condensation is a DAG, so earliest
+ * start times and the critical path follow from one longest-path pass in
+ * topological order. Everything runs in O(V + E).
+ *
+ * @author ibrahim.mehdi
+ */
+public final class MaintenanceScheduler {
+    
+    private final Graph graph;
+    
+    /**
+     * Constructor
+     *
+     * @param graph Dependency graph
+     */
+    public MaintenanceScheduler(Graph graph) {
+        this.graph = graph;
+    }
+    
+    /**
+     * Compute schedule
+     *
+     * @param durations Duration per vertex id; missing entries count as 0
+     * @return Schedule with start/finish times, order and critical path
+     */
+    public Schedule schedule(int[] durations) {
+        CSRGraph csr = graph.snapshot();
+        int n = csr.getVertexCount();
+        
+        int[] component = new int[n];
+        int count = csr.componentIds(component);
+        
+        // Bucket vertices by component (ids are already topological)
+        int[] start = new int[count + 1];
+        for (int v = 0; v < n; v++) {
+            start[component[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] order = new int[n];
+        int[] fill = Arrays.copyOf(start, count);
+        for (int v = 0; v < n; v++) {
+            order[fill[component[v]]++] = v;
+        }
+        
+        long[] length = new long[count];
+        for (int v = 0; v < n; v++) {
+            int duration = v < durations.length ? durations[v] : 0;
+            if (duration < 0) {
+                throw new IllegalArgumentException("Negative duration for vertex " + v);
+            }
+            length[component[v]] += duration;
+        }
+        
+        // Longest path over the condensation in topological order
+        long[] earliest = new long[count];
+        int[] previous = new int[count];
+        Arrays.fill(previous, -1);
+        long makespan = 0;
+        int last = -1;
+        for (int c = 0; c < count; c++) {
+            long finish = earliest[c] + length[c];
+            if (last < 0 || finish > makespan) {
+                makespan = finish;
+                last = c;
+            }
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                int v = order[i];
+                for (int e = csr.edgeStart(v), end = csr.edgeEnd(v); e < end; e++) {
+                    int d = component[csr.target(e)];
+                    if (d != c && finish > earliest[d]) {
+                        earliest[d] = finish;
+                        previous[d] = c;
+                    }
+                }
+            }
+        }
+        
+        List<Integer> criticalPath = new ArrayList<>();
+        for (int c = last; c >= 0; c = previous[c]) {
+            for (int i = start[c + 1] - 1; i >= start[c]; i--) {
+                criticalPath.add(order[i]);
+            }
+        }
+        Collections.reverse(criticalPath);
+        
+        return new Schedule(component, earliest, length, order, criticalPath, makespan);
+    }
+    
+    /**
+     * Result of a scheduling run (immutable)
+     */
+    public static final class Schedule {
+        private final int[] component;
+        private final long[] earliest;
+        private final long[] length;
+        private final int[] order;
+        private final List<Integer> criticalPath;
+        private final long makespan;
+        
+        private Schedule(int[] component, long[] earliest, long[] length, int[] order,
+                         List<Integer> criticalPath, long makespan) {
+            this.component = component;
+            this.earliest = earliest;
+            this.length = length;
+            this.order = order;
+            this.criticalPath = Collections.unmodifiableList(criticalPath);
+            this.makespan = makespan;
+        }
+        
+        /**
+         * Earliest start time of the window containing vertex
+         */
+        public long getEarliestStart(int vertex) {
+            return earliest[componentOf(vertex)];
+        }
+        
+        /**
+         * Earliest finish time of the window containing vertex
+         */
+        public long getEarliestFinish(int vertex) {
+            int c = componentOf(vertex);
+            return earliest[c] + length[c];
+        }
+        
+        /**
+         * Maintenance window (SCC index) of vertex, in topological order
+         */
+        public int getWindow(int vertex) {
+            return componentOf(vertex);
+        }
+        
+        /**
+         * Number of maintenance windows (condensed components)
+         */
+        public int getWindowCount() {
+            return earliest.length;
+        }
+        
+        /**
+         * Vertices in a valid maintenance order
+         */
+        public List<Integer> getOrder() {
+            List<Integer> result = new ArrayList<>(order.length);
+            for (int v : order) {
+                result.add(v);
+            }
+            return result;
+        }
+        
+        /**
+         * Vertices on the longest dependency chain, in order
+         */
+        public List<Integer> getCriticalPath() {
+            return criticalPath;
+        }
+        
+        /**
+         * Total time needed to finish all maintenance
+         */
+        public long getMakespan() {
+            return makespan;
+        }
+        
+        private int componentOf(int vertex) {
+            if (vertex < 0 || vertex >= component.length) {
+                throw new IndexOutOfBoundsException("Invalid vertex: " + vertex);
+            }
+            return component[vertex];
+        }
+    }
+}
@@ -77,6 +77,27 @@ public class MinHeap<T extends Comparable<T>> implements Serializable {
         return heap.get(0);
     }
     
+    /**
+     * Remove a specific element (matched with equals)
+     *
+     * @param element Element to remove
+     * @return True if element was found and removed
+     */
+    public boolean remove(T element) {
+        int index = heap.indexOf(element);
+        if (index < 0) {
+            return false;
+        }
+
+        T last = heap.remove(heap.size() - 1);
+        if (index < heap.size()) {
+            heap.set(index, last);
+            heapifyDown(index);
+            heapifyUp(index);
+        }
+        return true;
+    }
+
     /**
      * Build heap from existing elements
      */
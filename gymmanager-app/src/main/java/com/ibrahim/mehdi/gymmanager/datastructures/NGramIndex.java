@@ -0,0 +1,216 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Trigram inverted index for case insensitive substring search.
+ * Every indexed text is split into overlapping 3 character grams; each
+ * gram maps to a sorted posting list of ids. A query intersects the
+ * posting lists of its own grams (smallest list first) and verifies the
+ * few remaining candidates, instead of scanning every text.
+ *
+ * Queries shorter than 3 characters have no grams and fall back to a
+ * scan of the stored texts.
+ *
+ * @author ibrahim.mehdi
+ */
+public class NGramIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int N = 3;
+    private static final int[] NO_IDS = new int[0];
+    
+    /**
+     * Sorted, growable id list of one gram
+     */
+    private static class Postings implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int[] ids = new int[2];
+        int size;
+        
+        void add(int id) {
+            int index = size > 0 && ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                index = -index - 1;
+            } else if (index < size) {
+                return; // Already present
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+        
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+        
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+    
+    private final LongLinearProbingHash<Postings> postings;
+    private final LongLinearProbingHash<String> texts;
+    
+    public NGramIndex() {
+        this.postings = new LongLinearProbingHash<>();
+        this.texts = new LongLinearProbingHash<>();
+    }
+    
+    /**
+     * Index text under id, replacing any previous text of the id
+     *
+     * @param id Document id
+     * @param text Text to index
+     */
+    public void add(int id, String text) {
+        if (text == null) throw new IllegalArgumentException("Text cannot be null");
+        remove(id);
+        
+        String normalized = normalize(text);
+        texts.put(id, normalized);
+        for (int i = 0; i + N <= normalized.length(); i++) {
+            long gram = gram(normalized, i);
+            Postings list = postings.get(gram);
+            if (list == null) {
+                list = new Postings();
+                postings.put(gram, list);
+            }
+            list.add(id);
+        }
+    }
+    
+    /**
+     * Remove id from the index
+     *
+     * @return True if id was indexed
+     */
+    public boolean remove(int id) {
+        String old = texts.remove(id);
+        if (old == null) {
+            return false;
+        }
+        
+        for (int i = 0; i + N <= old.length(); i++) {
+            long gram = gram(old, i);
+            Postings list = postings.get(gram);
+            if (list != null) {
+                list.remove(id);
+                if (list.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Find ids whose text contains query (case insensitive)
+     *
+     * @param query Substring to find
+     * @return Matching ids in ascending order
+     */
+    public int[] search(String query) {
+        if (query == null || query.isEmpty()) {
+            return NO_IDS;
+        }
+        String term = normalize(query);
+        if (term.length() < N) {
+            return scan(term);
+        }
+        
+        // Posting lists of the query grams, smallest first
+        int grams = term.length() - N + 1;
+        Postings[] lists = new Postings[grams];
+        for (int i = 0; i < grams; i++) {
+            lists[i] = postings.get(gram(term, i));
+            if (lists[i] == null) {
+                return NO_IDS;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        
+        int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int count = candidates.length;
+        for (int l = 1; l < lists.length && count > 0; l++) {
+            if (lists[l] == lists[l - 1]) {
+                continue; // Repeated gram
+            }
+            int write = 0;
+            for (int i = 0; i < count; i++) {
+                if (lists[l].contains(candidates[i])) {
+                    candidates[write++] = candidates[i];
+                }
+            }
+            count = write;
+        }
+        
+        // Grams can match out of order, so check the real text
+        KMPAlgorithm.Pattern pattern = KMPAlgorithm.compile(term);
+        int write = 0;
+        for (int i = 0; i < count; i++) {
+            if (grams == 1 || pattern.isFoundIn(texts.get(candidates[i]))) {
+                candidates[write++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(candidates, write);
+    }
+    
+    /**
+     * Get number of indexed texts
+     */
+    public int size() {
+        return texts.size();
+    }
+    
+    /**
+     * Get number of distinct grams
+     */
+    public int getGramCount() {
+        return postings.size();
+    }
+    
+    /**
+     * Remove everything
+     */
+    public void clear() {
+        postings.clear();
+        texts.clear();
+    }
+    
+    private int[] scan(String term) {
+        KMPAlgorithm.Pattern pattern = KMPAlgorithm.compile(term);
+        int[] result = new int[texts.size()];
+        int[] count = new int[1];
+        texts.forEach((id, text) -> {
+            if (pattern.isFoundIn(text)) {
+                result[count[0]++] = (int) id;
+            }
+        });
+        int[] ids = Arrays.copyOf(result, count[0]);
+        Arrays.sort(ids);
+        return ids;
+    }
+    
+    private static String normalize(String text) {
+        return text.toLowerCase();
+    }
+    
+    private static long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32)
+                | ((long) text.charAt(start + 1) << 16)
+                | text.charAt(start + 2);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("NGramIndex[texts=%d, grams=%d]", texts.size(), postings.size());
+    }
+}
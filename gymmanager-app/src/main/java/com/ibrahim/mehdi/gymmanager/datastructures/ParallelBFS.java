@@ -0,0 +1,241 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level-synchronous parallel BFS over a {@link CSRGraph}.
+ * Frontier and visited sets are bitsets (one bit per vertex); each level
+ * is expanded by fork/join tasks over ranges of bitset words.
+ *
+ * Direction optimizing: small frontiers are expanded top-down (push to
+ * out-neighbors), large frontiers bottom-up (every unvisited vertex
+ * checks its in-neighbors against the frontier), which avoids touching
+ * most edges on dense levels.
+ *
+ * Result order: level by level, ascending vertex id inside a level.
+ *
+ * Tasks run on the shared common fork/join pool, so a traversal starts
+ * no threads of its own.
+ *
+ * @author ibrahim.mehdi
+ */
+public final class ParallelBFS {
+    
+    // Switch heuristics from Beamer et al. (direction-optimizing BFS)
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    
+    // Minimum bitset words handled by one leaf task (64 vertices per word)
+    private static final int WORDS_PER_TASK = 64;
+    
+    private final CSRGraph graph;
+    
+    /**
+     * Constructor
+     *
+     * @param graph Graph snapshot to traverse
+     */
+    public ParallelBFS(CSRGraph graph) {
+        this.graph = graph;
+    }
+    
+    /**
+     * Run parallel BFS
+     *
+     * @param start Start vertex
+     * @param parallelism Maximum number of leaf tasks per level
+     * @return Visited vertices, level by level
+     */
+    public int[] traverse(int start, int parallelism) {
+        int n = graph.getVertexCount();
+        if (start < 0 || start >= n) {
+            throw new IndexOutOfBoundsException("Invalid vertex: " + start);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        
+        int words = (n + 63) >>> 6;
+        AtomicLongArray visited = new AtomicLongArray(words);
+        AtomicLongArray next = new AtomicLongArray(words);
+        long[] frontier = new long[words];
+        int[] order = new int[n];
+        int count = 0;
+        
+        visited.set(start >>> 6, 1L << start);
+        frontier[start >>> 6] = 1L << start;
+        order[count++] = start;
+        
+        long frontierEdges = graph.outDegree(start);
+        long unexploredEdges = graph.getEdgeCount() - frontierEdges;
+        int frontierSize = 1;
+        boolean bottomUp = false;
+        
+        int grain = Math.max(WORDS_PER_TASK, (words + parallelism - 1) / parallelism);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        while (frontierSize > 0) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < n / BETA) {
+                bottomUp = false;
+            }
+            
+            if (bottomUp) {
+                pool.invoke(new BottomUpStep(graph.transpose(), n, frontier, visited, next, 0, words, grain));
+            } else {
+                pool.invoke(new TopDownStep(graph, frontier, visited, next, 0, words, grain));
+            }
+            
+            // Next frontier becomes current; append it to the result
+            frontierSize = 0;
+            frontierEdges = 0;
+            for (int w = 0; w < words; w++) {
+                long bits = next.get(w);
+                frontier[w] = bits;
+                if (bits == 0) {
+                    continue;
+                }
+                next.set(w, 0);
+                while (bits != 0) {
+                    int v = (w << 6) | Long.numberOfTrailingZeros(bits);
+                    order[count++] = v;
+                    frontierEdges += graph.outDegree(v);
+                    frontierSize++;
+                    bits &= bits - 1;
+                }
+            }
+            unexploredEdges -= frontierEdges;
+        }
+        
+        return Arrays.copyOf(order, count);
+    }
+    
+    /**
+     * Atomically set bit, returns true if this call set it
+     */
+    private static boolean setBit(AtomicLongArray bits, int v) {
+        int word = v >>> 6;
+        long mask = 1L << v;
+        long old;
+        do {
+            old = bits.get(word);
+            if ((old & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, old, old | mask));
+        return true;
+    }
+    
+    /**
+     * Push frontier vertices to their unvisited out-neighbors
+     */
+    private static final class TopDownStep extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final CSRGraph graph;
+        private final long[] frontier;
+        private final AtomicLongArray visited;
+        private final AtomicLongArray next;
+        private final int fromWord;
+        private final int toWord;
+        private final int grain;
+        
+        TopDownStep(CSRGraph graph, long[] frontier, AtomicLongArray visited,
+                    AtomicLongArray next, int fromWord, int toWord, int grain) {
+            this.graph = graph;
+            this.frontier = frontier;
+            this.visited = visited;
+            this.next = next;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+            this.grain = grain;
+        }
+        
+        @Override
+        protected void compute() {
+            if (toWord - fromWord > grain) {
+                int mid = (fromWord + toWord) >>> 1;
+                invokeAll(new TopDownStep(graph, frontier, visited, next, fromWord, mid, grain),
+                          new TopDownStep(graph, frontier, visited, next, mid, toWord, grain));
+                return;
+            }
+            
+            for (int w = fromWord; w < toWord; w++) {
+                long bits = frontier[w];
+                while (bits != 0) {
+                    int v = (w << 6) | Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                        int u = graph.target(e);
+                        if ((visited.get(u >>> 6) & (1L << u)) == 0 && setBit(visited, u)) {
+                            setBit(next, u);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Unvisited vertices look for a parent in the frontier
+     */
+    private static final class BottomUpStep extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final CSRGraph transpose;
+        private final int vertices;
+        private final long[] frontier;
+        private final AtomicLongArray visited;
+        private final AtomicLongArray next;
+        private final int fromWord;
+        private final int toWord;
+        private final int grain;
+        
+        BottomUpStep(CSRGraph transpose, int vertices, long[] frontier, AtomicLongArray visited,
+                     AtomicLongArray next, int fromWord, int toWord, int grain) {
+            this.transpose = transpose;
+            this.vertices = vertices;
+            this.frontier = frontier;
+            this.visited = visited;
+            this.next = next;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+            this.grain = grain;
+        }
+        
+        @Override
+        protected void compute() {
+            if (toWord - fromWord > grain) {
+                int mid = (fromWord + toWord) >>> 1;
+                invokeAll(new BottomUpStep(transpose, vertices, frontier, visited, next, fromWord, mid, grain),
+                          new BottomUpStep(transpose, vertices, frontier, visited, next, mid, toWord, grain));
+                return;
+            }
+            
+            // Each task owns its words, so no other thread writes them this level
+            for (int w = fromWord; w < toWord; w++) {
+                long unvisited = ~visited.get(w);
+                long found = 0;
+                while (unvisited != 0) {
+                    int v = (w << 6) | Long.numberOfTrailingZeros(unvisited);
+                    unvisited &= unvisited - 1;
+                    if (v >= vertices) {
+                        break;
+                    }
+                    for (int e = transpose.edgeStart(v), end = transpose.edgeEnd(v); e < end; e++) {
+                        int u = transpose.target(e);
+                        if ((frontier[u >>> 6] & (1L << u)) != 0) {
+                            found |= 1L << v;
+                            break;
+                        }
+                    }
+                }
+                if (found != 0) {
+                    next.set(w, found);
+                    visited.set(w, visited.get(w) | found);
+                }
+            }
+        }
+    }
+}
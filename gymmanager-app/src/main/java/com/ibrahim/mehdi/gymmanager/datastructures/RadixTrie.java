@@ -0,0 +1,398 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Radix (compressed) trie for prefix completion.
+ * Chains of single-child nodes are merged into one edge label, so the
+ * tree has at most 2 nodes per key and a lookup walks one node per
+ * branching point instead of one per character. Completions are produced
+ * in key order and the walk stops as soon as enough have been found, so
+ * the cost of a query depends on the answer size, not on the number of
+ * keys.
+ *
+ * A key can hold several values (e.g. two members with the same name).
+ *
+ * @param <V> Type of values
+ * @author ibrahim.mehdi
+ */
+public class RadixTrie<V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final Object[] NO_VALUES = new Object[0];
+    
+    /**
+     * Callback for completions; return false to stop
+     *
+     * @param <V> Type of values
+     */
+    public interface Visitor<V> {
+        boolean visit(String key, V value);
+    }
+    
+    /**
+     * One completed key with its values
+     *
+     * @param <V> Type of values
+     */
+    public static final class Completion<V> {
+        private final String key;
+        private final List<V> values;
+        
+        Completion(String key, List<V> values) {
+            this.key = key;
+            this.values = values;
+        }
+        
+        public String getKey() { return key; }
+        public List<V> getValues() { return values; }
+        
+        @Override
+        public String toString() {
+            return key + "=" + values;
+        }
+    }
+    
+    private static class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+        char[] label;
+        Node[] children = new Node[0];   // Sorted by first label char
+        Object[] values = NO_VALUES;
+        
+        Node(char[] label) {
+            this.label = label;
+        }
+        
+        int indexOf(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label[0];
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+        
+        void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            grown[index] = child;
+            children = grown;
+        }
+        
+        void removeChild(int index) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, shrunk.length - index);
+            children = shrunk;
+        }
+    }
+    
+    private final Node root;
+    private int keyCount;
+    private int nodeCount;
+    
+    public RadixTrie() {
+        this.root = new Node(new char[0]);
+        this.nodeCount = 1;
+    }
+    
+    /**
+     * Add value under key
+     *
+     * @return False if the value was already stored under the key
+     */
+    public boolean put(String key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key and value cannot be null");
+        }
+        
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.indexOf(key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i).toCharArray());
+                node.insertChild(-index - 1, leaf);
+                nodeCount++;
+                node = leaf;
+                break;
+            }
+            
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                // Split the edge at the first difference
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[] {child};
+                node.children[index] = middle;
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        
+        for (Object existing : node.values) {
+            if (existing.equals(value)) {
+                return false;
+            }
+        }
+        if (node.values.length == 0) {
+            keyCount++;
+        }
+        node.values = Arrays.copyOf(node.values, node.values.length + 1);
+        node.values[node.values.length - 1] = value;
+        return true;
+    }
+    
+    /**
+     * Remove value from key
+     *
+     * @return True if the value was stored under the key
+     */
+    public boolean remove(String key, V value) {
+        if (key == null || value == null) {
+            return false;
+        }
+        
+        // Path of (parent, child index) pairs down to the key
+        Node[] parents = new Node[8];
+        int[] indices = new int[8];
+        int depth = 0;
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.indexOf(key.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+            Node child = node.children[index];
+            if (commonPrefix(child.label, key, i) < child.label.length) {
+                return false;
+            }
+            if (depth == parents.length) {
+                parents = Arrays.copyOf(parents, depth * 2);
+                indices = Arrays.copyOf(indices, depth * 2);
+            }
+            parents[depth] = node;
+            indices[depth++] = index;
+            node = child;
+            i += child.label.length;
+        }
+        
+        int found = -1;
+        for (int v = 0; v < node.values.length; v++) {
+            if (node.values[v].equals(value)) {
+                found = v;
+                break;
+            }
+        }
+        if (found < 0) {
+            return false;
+        }
+        Object[] values = new Object[node.values.length - 1];
+        System.arraycopy(node.values, 0, values, 0, found);
+        System.arraycopy(node.values, found + 1, values, found, values.length - found);
+        node.values = values.length == 0 ? NO_VALUES : values;
+        if (values.length > 0) {
+            return true;
+        }
+        keyCount--;
+        
+        // Drop the empty leaf, then merge what became a pass-through node
+        if (depth > 0 && node.children.length == 0) {
+            depth--;
+            parents[depth].removeChild(indices[depth]);
+            nodeCount--;
+            node = parents[depth];
+        }
+        if (depth > 0 && node.values.length == 0 && node.children.length == 1) {
+            Node child = node.children[0];
+            char[] label = Arrays.copyOf(node.label, node.label.length + child.label.length);
+            System.arraycopy(child.label, 0, label, node.label.length, child.label.length);
+            child.label = label;
+            parents[depth - 1].children[indices[depth - 1]] = child;
+            nodeCount--;
+        }
+        return true;
+    }
+    
+    /**
+     * Get values stored under exactly key
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> get(String key) {
+        Node node = key == null ? null : find(key);
+        if (node == null || node.values.length == 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList((V[]) node.values.clone()));
+    }
+    
+    /**
+     * Visit keys starting with prefix in key order
+     *
+     * @param prefix Prefix, empty visits everything
+     * @param visitor Called per (key, value) until it returns false
+     */
+    public void forEachWithPrefix(String prefix, Visitor<? super V> visitor) {
+        if (prefix == null) {
+            return;
+        }
+        
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = node.indexOf(prefix.charAt(i));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                // Prefix ends inside or at the end of this edge
+                StringBuilder path = new StringBuilder(prefix.length() + 16);
+                path.append(prefix, 0, i).append(child.label);
+                visit(child, path, visitor);
+                return;
+            }
+            if (common < child.label.length) {
+                return;
+            }
+            node = child;
+            i += common;
+        }
+        visit(node, new StringBuilder(prefix), visitor);
+    }
+    
+    /**
+     * Get the first completions of prefix in key order
+     *
+     * @param prefix Prefix
+     * @param limit Maximum number of keys
+     * @return Completions, at most limit
+     */
+    public List<Completion<V>> complete(String prefix, int limit) {
+        final List<Completion<V>> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        final List<V> current = new ArrayList<>();
+        final String[] currentKey = new String[1];
+        forEachWithPrefix(prefix, new Visitor<V>() {
+            public boolean visit(String key, V value) {
+                if (!key.equals(currentKey[0])) {
+                    if (currentKey[0] != null) {
+                        result.add(new Completion<V>(currentKey[0], new ArrayList<>(current)));
+                        current.clear();
+                        if (result.size() == limit) {
+                            currentKey[0] = null;
+                            return false;
+                        }
+                    }
+                    currentKey[0] = key;
+                }
+                current.add(value);
+                return true;
+            }
+        });
+        if (currentKey[0] != null) {
+            result.add(new Completion<V>(currentKey[0], current));
+        }
+        return result;
+    }
+    
+    /**
+     * Get number of keys with at least one value
+     */
+    public int size() {
+        return keyCount;
+    }
+    
+    public boolean isEmpty() {
+        return keyCount == 0;
+    }
+    
+    /**
+     * Get number of trie nodes, including the root
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+    
+    public void clear() {
+        root.children = new Node[0];
+        root.values = NO_VALUES;
+        keyCount = 0;
+        nodeCount = 1;
+    }
+    
+    /**
+     * Depth first, values before children, so keys come out sorted
+     */
+    @SuppressWarnings("unchecked")
+    private boolean visit(Node node, StringBuilder path, Visitor<? super V> visitor) {
+        if (node.values.length > 0) {
+            String key = path.toString();
+            for (Object value : node.values) {
+                if (!visitor.visit(key, (V) value)) {
+                    return false;
+                }
+            }
+        }
+        for (Node child : node.children) {
+            int length = path.length();
+            path.append(child.label);
+            boolean more = visit(child, path, visitor);
+            path.setLength(length);
+            if (!more) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private Node find(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.indexOf(key.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            if (commonPrefix(node.label, key, i) < node.label.length) {
+                return null;
+            }
+            i += node.label.length;
+        }
+        return node;
+    }
+    
+    private static int commonPrefix(char[] label, String key, int from) {
+        int max = Math.min(label.length, key.length() - from);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("RadixTrie[keys=%d, nodes=%d]", keyCount, nodeCount);
+    }
+}
@@ -0,0 +1,206 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Fixed capacity ring buffer for operation history.
+ * Keeps the newest entries in one array; once full, every add evicts
+ * the oldest entry and hands it to the eviction listener (for example
+ * to spill it to disk), so memory and serialized size stay constant.
+ *
+ * Navigation works like {@link DoubleLinkedList}: the cursor starts at
+ * the oldest entry and moves forward and backward. If the entry under
+ * the cursor is evicted, the cursor moves to the new oldest entry.
+ *
+ * @param <T> Type of elements stored in the buffer
+ * @author ibrahim.mehdi
+ */
+public class RingBuffer<T> implements Serializable, Iterable<T> {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Receives entries pushed out of a full buffer
+     */
+    public interface EvictionListener<T> {
+        void evicted(T element);
+    }
+    
+    private final Object[] elements;
+    private int head;       // Array index of the oldest entry
+    private int size;
+    private int current;    // Cursor, logical index from the oldest entry
+    private long evictedCount;
+    private transient EvictionListener<T> listener;
+    
+    /**
+     * Constructor
+     *
+     * @param capacity Maximum number of entries kept
+     */
+    public RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.elements = new Object[capacity];
+    }
+    
+    /**
+     * Set listener for evicted entries (not serialized)
+     */
+    public void setEvictionListener(EvictionListener<T> listener) {
+        this.listener = listener;
+    }
+    
+    /**
+     * Add element as the newest entry
+     *
+     * @param data Element to add
+     * @return Evicted oldest element, or null if the buffer had room
+     */
+    public T add(T data) {
+        T evicted = null;
+        if (size == elements.length) {
+            evicted = elementAt(0);
+            elements[head] = data;
+            head = (head + 1) % elements.length;
+            if (current > 0) {
+                current--;
+            }
+            evictedCount++;
+            if (listener != null) {
+                listener.evicted(evicted);
+            }
+        } else {
+            elements[(head + size) % elements.length] = data;
+            size++;
+        }
+        return evicted;
+    }
+    
+    /**
+     * Navigate forward (like browser forward button)
+     *
+     * @return Next element or null
+     */
+    public T navigateForward() {
+        if (current + 1 < size) {
+            current++;
+            return elementAt(current);
+        }
+        return null;
+    }
+    
+    /**
+     * Navigate backward (like browser back button)
+     *
+     * @return Previous element or null
+     */
+    public T navigateBackward() {
+        if (current > 0 && size > 0) {
+            current--;
+            return elementAt(current);
+        }
+        return null;
+    }
+    
+    /**
+     * Get element under the cursor
+     *
+     * @return Current element or null if empty
+     */
+    public T getCurrent() {
+        return size > 0 ? elementAt(current) : null;
+    }
+    
+    /**
+     * Reset navigation to the oldest entry
+     */
+    public void resetNavigation() {
+        current = 0;
+    }
+    
+    /**
+     * Get element at index, 0 is the oldest entry
+     */
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        return elementAt(index);
+    }
+    
+    /**
+     * Get newest entry
+     *
+     * @return Newest element or null if empty
+     */
+    public T getLast() {
+        return size > 0 ? elementAt(size - 1) : null;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public int capacity() {
+        return elements.length;
+    }
+    
+    /**
+     * Get number of entries evicted since creation
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+    
+    /**
+     * Remove all entries without notifying the listener
+     */
+    public void clear() {
+        Arrays.fill(elements, null);
+        head = 0;
+        size = 0;
+        current = 0;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private T elementAt(int index) {
+        return (T) elements[(head + index) % elements.length];
+    }
+    
+    /**
+     * Iterate from oldest to newest
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int index = 0;
+            
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+            
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return elementAt(index++);
+            }
+        };
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("RingBuffer[size=%d, capacity=%d, evicted=%d]",
+                size, elements.length, evictedCount);
+    }
+}
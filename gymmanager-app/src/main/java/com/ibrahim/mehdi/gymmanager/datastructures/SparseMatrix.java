@@ -1,12 +1,20 @@
 package com.ibrahim.mehdi.gymmanager.datastructures;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Sparse Matrix implementation for equipment location map.
  * Only stores non-zero values to save memory.
+ * Cells are keyed by a packed long (row << 32 | col) in an open
+ * addressing map, so get/set/hasValue do not allocate. Matrices saved
+ * by older versions, keyed by Position objects, are converted on read.
  * 
  * @param <T> Type of elements
  * @author ibrahim.mehdi
@@ -15,42 +23,31 @@ public class SparseMatrix<T> implements Serializable {
     private static final long serialVersionUID = 1L;
     
     /**
-     * Position class for matrix coordinates
+     * Callback for entry iteration
+     * 
+     * @param <T> Type of elements
+     */
+    public interface EntryVisitor<T> {
+        void visit(int row, int col, T value);
+    }
+    
+    /**
+     * Cell key of older versions, only kept to read their matrices
      */
     private static class Position implements Serializable {
         private static final long serialVersionUID = 1L;
         int row;
         int col;
-        
-        Position(int row, int col) {
-            this.row = row;
-            this.col = col;
-        }
-        
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj) return true;
-            if (obj == null || getClass() != obj.getClass()) return false;
-            Position position = (Position) obj;
-            return row == position.row && col == position.col;
-        }
-        
-        @Override
-        public int hashCode() {
-            return 31 * row + col;
-        }
-        
-        @Override
-        public String toString() {
-            return "(" + row + "," + col + ")";
-        }
     }
     
-    private Map<Position, T> matrix;
+    private LongLinearProbingHash<T> matrix;
     private int rows;
     private int cols;
     private int nonZeroCount;
     
+    // Read-only view of the values, rebuilt after the next change
+    private transient List<T> valuesView;
+    
     /**
      * Constructor with dimensions
      * 
@@ -60,7 +57,7 @@ public class SparseMatrix<T> implements Serializable {
     public SparseMatrix(int rows, int cols) {
         this.rows = rows;
         this.cols = cols;
-        this.matrix = new HashMap<>();
+        this.matrix = new LongLinearProbingHash<>();
         this.nonZeroCount = 0;
     }
     
@@ -77,7 +74,8 @@ public class SparseMatrix<T> implements Serializable {
                 String.format("Invalid position (%d,%d)", row, col));
         }
         
-        Position pos = new Position(row, col);
+        long pos = key(row, col);
+        valuesView = null;
         
         if (value == null) {
             if (matrix.remove(pos) != null) {
@@ -103,7 +101,7 @@ public class SparseMatrix<T> implements Serializable {
                 String.format("Invalid position (%d,%d)", row, col));
         }
         
-        return matrix.get(new Position(row, col));
+        return matrix.get(key(row, col));
     }
     
     /**
@@ -114,7 +112,46 @@ public class SparseMatrix<T> implements Serializable {
      * @return True if position has non-null value
      */
     public boolean hasValue(int row, int col) {
-        return matrix.containsKey(new Position(row, col));
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return false;
+        }
+        return matrix.containsKey(key(row, col));
+    }
+    
+    /**
+     * Visit non-zero values of a row in column order
+     * 
+     * @param row Row index
+     * @param visitor Callback for each value
+     */
+    public void forEachInRow(int row, EntryVisitor<? super T> visitor) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Invalid row " + row);
+        }
+        for (int col = 0; col < cols; col++) {
+            T value = matrix.get(key(row, col));
+            if (value != null) {
+                visitor.visit(row, col, value);
+            }
+        }
+    }
+    
+    /**
+     * Visit non-zero values of a column in row order
+     * 
+     * @param col Column index
+     * @param visitor Callback for each value
+     */
+    public void forEachInColumn(int col, EntryVisitor<? super T> visitor) {
+        if (col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Invalid column " + col);
+        }
+        for (int row = 0; row < rows; row++) {
+            T value = matrix.get(key(row, col));
+            if (value != null) {
+                visitor.visit(row, col, value);
+            }
+        }
     }
     
     /**
@@ -124,12 +161,36 @@ public class SparseMatrix<T> implements Serializable {
      */
     public Map<String, T> getNonZeroElements() {
         Map<String, T> result = new HashMap<>();
-        for (Map.Entry<Position, T> entry : matrix.entrySet()) {
-            result.put(entry.getKey().toString(), entry.getValue());
-        }
+        forEach((row, col, value) -> result.put("(" + row + "," + col + ")", value));
         return result;
     }
     
+    /**
+     * Visit all non-zero values with their coordinates (storage order)
+     * 
+     * @param visitor Callback for each value
+     */
+    public void forEach(EntryVisitor<? super T> visitor) {
+        matrix.forEach((key, value) -> visitor.visit(row(key), col(key), value));
+    }
+    
+    /**
+     * Get read-only view of all non-zero values.
+     * The same view is returned until the matrix changes.
+     * 
+     * @return Unmodifiable list of values (storage order)
+     */
+    public List<T> values() {
+        List<T> view = valuesView;
+        if (view == null) {
+            List<T> values = new ArrayList<>(nonZeroCount);
+            matrix.forEach((key, value) -> values.add(value));
+            view = Collections.unmodifiableList(values);
+            valuesView = view;
+        }
+        return view;
+    }
+    
     /**
      * Get memory efficiency ratio
      * 
@@ -145,6 +206,7 @@ public class SparseMatrix<T> implements Serializable {
      */
     public void clear() {
         matrix.clear();
+        valuesView = null;
         nonZeroCount = 0;
     }
     
@@ -175,16 +237,50 @@ public class SparseMatrix<T> implements Serializable {
         return nonZeroCount;
     }
     
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        rows = fields.get("rows", 0);
+        cols = fields.get("cols", 0);
+        nonZeroCount = fields.get("nonZeroCount", 0);
+        Object stored = fields.get("matrix", null);
+        if (stored instanceof LongLinearProbingHash) {
+            matrix = (LongLinearProbingHash<T>) stored;
+            return;
+        }
+        
+        // Older versions stored Map<Position, T>
+        matrix = new LongLinearProbingHash<>();
+        if (stored instanceof Map) {
+            for (Map.Entry<Position, T> entry : ((Map<Position, T>) stored).entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    matrix.put(key(entry.getKey().row, entry.getKey().col), entry.getValue());
+                }
+            }
+        }
+        nonZeroCount = matrix.size();
+    }
+    
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+    
+    private static int row(long key) {
+        return (int) (key >>> 32);
+    }
+    
+    private static int col(long key) {
+        return (int) key;
+    }
+    
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("SparseMatrix[%dx%d, NonZero=%d, Sparsity=%.2f%%]\n",
                 rows, cols, nonZeroCount, getSparsity() * 100));
         
-        for (Map.Entry<Position, T> entry : matrix.entrySet()) {
-            sb.append(String.format("  %s = %s\n", 
-                entry.getKey(), entry.getValue()));
-        }
+        forEach((row, col, value) ->
+            sb.append(String.format("  (%d,%d) = %s\n", row, col, value)));
         
         return sb.toString();
     }
@@ -0,0 +1,437 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index for items placed on a multi-layer (multi-floor) grid.
+ * Items are kept in square buckets of cellSize x cellSize cells, stored
+ * in a {@link LongLinearProbingHash} keyed by (layer, bucketX, bucketY),
+ * so only occupied buckets cost memory and the map can be arbitrarily
+ * large.
+ *
+ * Every bucket keeps a bitmap of the item types it holds, so type
+ * filtered queries skip buckets without a match. Supports rectangle,
+ * radius (Euclidean) and k-nearest queries.
+ *
+ * @param <T> Type of items
+ * @author ibrahim.mehdi
+ */
+public class SpatialIndex<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_CELL_SIZE = 8;
+    
+    // Types beyond 63 share the last bit and are checked per item
+    private static final int OVERFLOW_BIT = 63;
+    
+    // Bucket coordinates use 24 bits each, layer 16 bits
+    private static final int COORD_BITS = 24;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+    
+    /**
+     * Items of one bucket, in parallel arrays
+     */
+    private static class Bucket implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int[] xs = new int[4];
+        int[] ys = new int[4];
+        int[] types = new int[4];
+        Object[] items = new Object[4];
+        int size;
+        long typeMask;
+        
+        void add(int x, int y, int type, Object item) {
+            if (size == xs.length) {
+                int capacity = size * 2;
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                types = Arrays.copyOf(types, capacity);
+                items = Arrays.copyOf(items, capacity);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            types[size] = type;
+            items[size] = item;
+            size++;
+            typeMask |= typeBit(type);
+        }
+        
+        void removeAt(int index) {
+            size--;
+            xs[index] = xs[size];
+            ys[index] = ys[size];
+            types[index] = types[size];
+            items[index] = items[size];
+            items[size] = null;
+            
+            typeMask = 0;
+            for (int i = 0; i < size; i++) {
+                typeMask |= typeBit(types[i]);
+            }
+        }
+    }
+    
+    private final int cellSize;
+    private final LongLinearProbingHash<Bucket> buckets;
+    private final Map<String, Integer> typeIds;
+    private int size;
+    
+    // Occupied bucket range over all layers (only grows), bounds kNN rings
+    private int minBucketX = Integer.MAX_VALUE;
+    private int maxBucketX = Integer.MIN_VALUE;
+    private int minBucketY = Integer.MAX_VALUE;
+    private int maxBucketY = Integer.MIN_VALUE;
+    
+    public SpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+    
+    /**
+     * Constructor with bucket size
+     *
+     * @param cellSize Bucket width/height in cells
+     */
+    public SpatialIndex(int cellSize) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+        this.buckets = new LongLinearProbingHash<>();
+        this.typeIds = new HashMap<>();
+    }
+    
+    /**
+     * Insert item
+     *
+     * @param layer Layer (floor) id
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param type Item type, may be null
+     * @param item Item to store
+     */
+    public void insert(int layer, int x, int y, String type, T item) {
+        if (item == null) throw new IllegalArgumentException("Item cannot be null");
+        
+        int bx = Math.floorDiv(x, cellSize);
+        int by = Math.floorDiv(y, cellSize);
+        long key = key(layer, bx, by);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets.put(key, bucket);
+        }
+        bucket.add(x, y, typeId(type), item);
+        size++;
+        
+        minBucketX = Math.min(minBucketX, bx);
+        maxBucketX = Math.max(maxBucketX, bx);
+        minBucketY = Math.min(minBucketY, by);
+        maxBucketY = Math.max(maxBucketY, by);
+    }
+    
+    /**
+     * Remove item stored at location
+     *
+     * @return True if item was found
+     */
+    public boolean remove(int layer, int x, int y, T item) {
+        long key = key(layer, Math.floorDiv(x, cellSize), Math.floorDiv(y, cellSize));
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return false;
+        }
+        
+        for (int i = 0; i < bucket.size; i++) {
+            if (bucket.xs[i] == x && bucket.ys[i] == y && bucket.items[i].equals(item)) {
+                bucket.removeAt(i);
+                size--;
+                if (bucket.size == 0) {
+                    buckets.remove(key);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Find items inside rectangle (inclusive)
+     *
+     * @param type Type filter or null for all types
+     * @return Matching items
+     */
+    public List<T> rangeQuery(int layer, int x1, int y1, int x2, int y2, String type) {
+        List<T> result = new ArrayList<>();
+        int wanted = queryType(type);
+        if (wanted == -2) {
+            return result;
+        }
+        
+        int minX = Math.min(x1, x2);
+        int maxX = Math.max(x1, x2);
+        int minY = Math.min(y1, y2);
+        int maxY = Math.max(y1, y2);
+        
+        for (Bucket bucket : bucketsIn(layer, minX, minY, maxX, maxY, wanted)) {
+            for (int i = 0; i < bucket.size; i++) {
+                int x = bucket.xs[i];
+                int y = bucket.ys[i];
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY
+                        && (wanted < 0 || bucket.types[i] == wanted)) {
+                    result.add(item(bucket, i));
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Find items within Euclidean distance of a point
+     *
+     * @param type Type filter or null for all types
+     * @return Matching items ordered by distance
+     */
+    public List<T> radiusQuery(int layer, int x, int y, int radius, String type) {
+        List<Candidate> candidates = new ArrayList<>();
+        int wanted = queryType(type);
+        if (wanted == -2 || radius < 0) {
+            return new ArrayList<>();
+        }
+        
+        long limit = (long) radius * radius;
+        for (Bucket bucket : bucketsIn(layer, x - radius, y - radius, x + radius, y + radius, wanted)) {
+            for (int i = 0; i < bucket.size; i++) {
+                long d = distance(x, y, bucket.xs[i], bucket.ys[i]);
+                if (d <= limit && (wanted < 0 || bucket.types[i] == wanted)) {
+                    candidates.add(new Candidate(d, bucket, i));
+                }
+            }
+        }
+        return sorted(candidates, candidates.size());
+    }
+    
+    /**
+     * Find k nearest items by expanding rings of buckets around the point
+     *
+     * @param type Type filter or null for all types
+     * @return Up to k items ordered by distance
+     */
+    public List<T> nearest(int layer, int x, int y, int k, String type) {
+        List<Candidate> candidates = new ArrayList<>();
+        int wanted = queryType(type);
+        if (wanted == -2 || k <= 0 || size == 0) {
+            return new ArrayList<>();
+        }
+        
+        int cx = Math.floorDiv(x, cellSize);
+        int cy = Math.floorDiv(y, cellSize);
+        int maxRing = Math.max(Math.max(cx - minBucketX, maxBucketX - cx),
+                               Math.max(cy - minBucketY, maxBucketY - cy));
+        long kth = Long.MAX_VALUE;
+        
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Points in this ring are at least (ring - 1) buckets away
+            long bound = (long) Math.max(0, ring - 1) * cellSize;
+            if (candidates.size() >= k && bound * bound > kth) {
+                break;
+            }
+            
+            for (int bx = cx - ring; bx <= cx + ring; bx++) {
+                boolean edge = bx == cx - ring || bx == cx + ring;
+                int step = edge ? 1 : 2 * ring;
+                for (int by = cy - ring; by <= cy + ring; by += Math.max(step, 1)) {
+                    Bucket bucket = matchingBucket(layer, bx, by, wanted);
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < bucket.size; i++) {
+                        if (wanted < 0 || bucket.types[i] == wanted) {
+                            candidates.add(new Candidate(distance(x, y, bucket.xs[i], bucket.ys[i]), bucket, i));
+                        }
+                    }
+                }
+            }
+            
+            if (candidates.size() >= k) {
+                long[] distances = new long[candidates.size()];
+                for (int i = 0; i < distances.length; i++) {
+                    distances[i] = candidates.get(i).distance;
+                }
+                Arrays.sort(distances);
+                kth = distances[k - 1];
+            }
+        }
+        return sorted(candidates, k);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Get number of occupied buckets
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+    
+    /**
+     * Remove all items
+     */
+    public void clear() {
+        buckets.clear();
+        size = 0;
+        minBucketX = Integer.MAX_VALUE;
+        maxBucketX = Integer.MIN_VALUE;
+        minBucketY = Integer.MAX_VALUE;
+        maxBucketY = Integer.MIN_VALUE;
+    }
+    
+    /**
+     * Occupied buckets overlapping a cell rectangle. Large rectangles on a
+     * sparse map scan the occupied buckets instead of the bucket range.
+     */
+    private List<Bucket> bucketsIn(int layer, int minX, int minY, int maxX, int maxY, int type) {
+        List<Bucket> result = new ArrayList<>();
+        int bx1 = Math.floorDiv(minX, cellSize);
+        int by1 = Math.floorDiv(minY, cellSize);
+        int bx2 = Math.floorDiv(maxX, cellSize);
+        int by2 = Math.floorDiv(maxY, cellSize);
+        
+        long range = ((long) bx2 - bx1 + 1) * ((long) by2 - by1 + 1);
+        if (range > buckets.size()) {
+            buckets.forEach((key, bucket) -> {
+                int bx = bucketX(key);
+                int by = bucketY(key);
+                if (layerOf(key) == (layer & 0xFFFF) && bx >= bx1 && bx <= bx2 && by >= by1 && by <= by2
+                        && (type < 0 || (bucket.typeMask & typeBit(type)) != 0)) {
+                    result.add(bucket);
+                }
+            });
+            return result;
+        }
+        
+        for (int bx = bx1; bx <= bx2; bx++) {
+            for (int by = by1; by <= by2; by++) {
+                Bucket bucket = matchingBucket(layer, bx, by, type);
+                if (bucket != null) {
+                    result.add(bucket);
+                }
+            }
+        }
+        return result;
+    }
+    
+    private Bucket matchingBucket(int layer, int bx, int by, int type) {
+        Bucket bucket = buckets.get(key(layer, bx, by));
+        if (bucket == null || (type >= 0 && (bucket.typeMask & typeBit(type)) == 0)) {
+            return null;
+        }
+        return bucket;
+    }
+    
+    private int typeId(String type) {
+        Integer id = typeIds.get(type);
+        if (id == null) {
+            id = typeIds.size();
+            typeIds.put(type, id);
+        }
+        return id;
+    }
+    
+    /**
+     * Type id for a query: -1 = any type, -2 = type never inserted
+     */
+    private int queryType(String type) {
+        if (type == null) {
+            return -1;
+        }
+        Integer id = typeIds.get(type);
+        return id != null ? id : -2;
+    }
+    
+    private static long typeBit(int type) {
+        return 1L << Math.min(type, OVERFLOW_BIT);
+    }
+    
+    private static long key(int layer, int bx, int by) {
+        return ((long) (layer & 0xFFFF) << (2 * COORD_BITS))
+                | ((bx & COORD_MASK) << COORD_BITS)
+                | (by & COORD_MASK);
+    }
+    
+    private static int layerOf(long key) {
+        return (int) (key >>> (2 * COORD_BITS));
+    }
+    
+    // Sign-extend the 24 bit bucket coordinates
+    private static int bucketX(long key) {
+        return (int) ((key << (64 - 2 * COORD_BITS)) >> (64 - COORD_BITS));
+    }
+    
+    private static int bucketY(long key) {
+        return (int) ((key << (64 - COORD_BITS)) >> (64 - COORD_BITS));
+    }
+    
+    private static long distance(int x1, int y1, int x2, int y2) {
+        long dx = x1 - x2;
+        long dy = y1 - y2;
+        return dx * dx + dy * dy;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private T item(Bucket bucket, int index) {
+        return (T) bucket.items[index];
+    }
+    
+    private List<T> sorted(List<Candidate> candidates, int limit) {
+        Collections.sort(candidates);
+        List<T> result = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (int i = 0; i < candidates.size() && i < limit; i++) {
+            Candidate candidate = candidates.get(i);
+            result.add(item(candidate.bucket, candidate.index));
+        }
+        return result;
+    }
+    
+    /**
+     * Query match with its squared distance
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        final long distance;
+        final Bucket bucket;
+        final int index;
+        
+        Candidate(long distance, Bucket bucket, int index) {
+            this.distance = distance;
+            this.bucket = bucket;
+            this.index = index;
+        }
+        
+        @Override
+        public int compareTo(Candidate other) {
+            if (distance != other.distance) {
+                return Long.compare(distance, other.distance);
+            }
+            if (bucket.xs[index] != other.bucket.xs[other.index]) {
+                return Integer.compare(bucket.xs[index], other.bucket.xs[other.index]);
+            }
+            return Integer.compare(bucket.ys[index], other.bucket.ys[other.index]);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("SpatialIndex[size=%d, buckets=%d, cellSize=%d]",
+                size, getBucketCount(), cellSize);
+    }
+}
@@ -0,0 +1,310 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Columnar store of many short texts for brute-force scans.
+ * All texts sit back to back in one char[] (separated by a '\0' that a
+ * pattern never contains), with an offsets column and an ids column, so
+ * a scan runs over one contiguous buffer instead of chasing a String
+ * per entry.
+ *
+ * Substring scans use Boyer-Moore-Horspool over whole chunks of the
+ * buffer; regex scans run a matcher per text. Large arenas are split
+ * into chunks that are scanned in parallel on the common fork/join pool.
+ *
+ * Removed texts are masked out and the buffer is compacted once half
+ * of it is garbage.
+ *
+ * @author ibrahim.mehdi
+ */
+public class TextArena implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final char SEPARATOR = '\0';
+    private static final int[] NO_IDS = new int[0];
+    
+    // Texts per leaf task; smaller arenas are scanned on the calling thread
+    private static final int TEXTS_PER_TASK = 4096;
+    
+    private char[] chars;
+    private int length;
+    private int[] offsets;     // Start of text i; offsets[count] = length
+    private int[] ids;
+    private boolean[] removed;
+    private int count;
+    private int removedCount;
+    private final LongLinearProbingHash<Integer> slots;   // id -> slot
+    
+    public TextArena() {
+        this.chars = new char[256];
+        this.offsets = new int[17];
+        this.ids = new int[16];
+        this.removed = new boolean[16];
+        this.slots = new LongLinearProbingHash<>();
+    }
+    
+    /**
+     * Store text under id, replacing any previous text of the id
+     */
+    public void add(int id, String text) {
+        if (text == null) throw new IllegalArgumentException("Text cannot be null");
+        if (text.indexOf(SEPARATOR) >= 0) {
+            text = text.replace(SEPARATOR, ' ');
+        }
+        remove(id);
+        
+        if (count == ids.length) {
+            ids = Arrays.copyOf(ids, count * 2);
+            removed = Arrays.copyOf(removed, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2 + 1);
+        }
+        int needed = length + text.length() + 1;
+        if (needed > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(needed, chars.length * 2));
+        }
+        text.getChars(0, text.length(), chars, length);
+        length += text.length();
+        chars[length++] = SEPARATOR;
+        
+        ids[count] = id;
+        removed[count] = false;
+        slots.put(id, count);
+        count++;
+        offsets[count] = length;
+    }
+    
+    /**
+     * Remove text of id
+     *
+     * @return True if id was stored
+     */
+    public boolean remove(int id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return false;
+        }
+        removed[slot] = true;
+        removedCount++;
+        if (removedCount > 32 && removedCount * 2 > count) {
+            compact();
+        }
+        return true;
+    }
+    
+    /**
+     * Get text stored under id
+     *
+     * @return Text or null
+     */
+    public String get(int id) {
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            return null;
+        }
+        return new String(chars, offsets[slot], offsets[slot + 1] - offsets[slot] - 1);
+    }
+    
+    /**
+     * Find ids whose text contains pattern (exact characters)
+     *
+     * @return Ids in insertion order
+     */
+    public int[] scan(String pattern) {
+        if (pattern == null || pattern.isEmpty() || pattern.indexOf(SEPARATOR) >= 0) {
+            return NO_IDS;
+        }
+        char[] needle = pattern.toCharArray();
+        int[] shift = shiftTable(needle);
+        return run((from, to, out) -> horspool(from, to, needle, shift, out));
+    }
+    
+    /**
+     * Find ids whose text contains a match of regex
+     *
+     * @return Ids in insertion order
+     */
+    public int[] scan(Pattern regex) {
+        if (regex == null) {
+            return NO_IDS;
+        }
+        return run((from, to, out) -> {
+            int found = 0;
+            Matcher matcher = regex.matcher("");
+            for (int slot = from; slot < to; slot++) {
+                if (removed[slot]) {
+                    continue;
+                }
+                int start = offsets[slot];
+                matcher.reset(CharBuffer.wrap(chars, start, offsets[slot + 1] - 1 - start));
+                if (matcher.find()) {
+                    out[found++] = ids[slot];
+                }
+            }
+            return found;
+        });
+    }
+    
+    /**
+     * Get number of stored texts
+     */
+    public int size() {
+        return count - removedCount;
+    }
+    
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    /**
+     * Get used chars in the buffer, including removed texts
+     */
+    public int getBufferLength() {
+        return length;
+    }
+    
+    public void clear() {
+        length = 0;
+        count = 0;
+        removedCount = 0;
+        slots.clear();
+    }
+    
+    /**
+     * Scans slots [from, to), writes matching ids to out
+     */
+    private interface SlotMatcher {
+        int match(int from, int to, int[] out);
+    }
+    
+    /**
+     * Chunk of slots scanned by one task; results keep slot order
+     */
+    private static final class ScanTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+        private final transient SlotMatcher matcher;
+        private final int from;
+        private final int to;
+        
+        ScanTask(SlotMatcher matcher, int from, int to) {
+            this.matcher = matcher;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected int[] compute() {
+            if (to - from <= TEXTS_PER_TASK) {
+                int[] out = new int[to - from];
+                return Arrays.copyOf(out, matcher.match(from, to, out));
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(matcher, from, middle);
+            left.fork();
+            int[] high = new ScanTask(matcher, middle, to).compute();
+            int[] low = left.join();
+            int[] merged = Arrays.copyOf(low, low.length + high.length);
+            System.arraycopy(high, 0, merged, low.length, high.length);
+            return merged;
+        }
+    }
+    
+    private int[] run(SlotMatcher matcher) {
+        ScanTask task = new ScanTask(matcher, 0, count);
+        if (count <= TEXTS_PER_TASK) {
+            return task.compute();
+        }
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+    
+    /**
+     * Horspool over the buffer of slots [from, to); a hit is mapped to
+     * its slot by walking the offsets forward, then the search resumes at
+     * the next text so each id is reported once.
+     */
+    private int horspool(int from, int to, char[] needle, int[] shift, int[] out) {
+        int found = 0;
+        int m = needle.length;
+        int last = m - 1;
+        char lastChar = needle[last];
+        int end = offsets[to];
+        int slot = from;
+        int i = offsets[from];
+        
+        while (i + m <= end) {
+            char c = chars[i + last];
+            if (c == lastChar && regionMatches(i, needle, last)) {
+                while (offsets[slot + 1] <= i) {
+                    slot++;
+                }
+                if (!removed[slot]) {
+                    out[found++] = ids[slot];
+                }
+                i = offsets[slot + 1];
+                slot++;
+                continue;
+            }
+            i += c < shift.length ? shift[c] : m;
+        }
+        return found;
+    }
+    
+    private boolean regionMatches(int start, char[] needle, int last) {
+        for (int j = 0; j < last; j++) {
+            if (chars[start + j] != needle[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Bad character shifts for chars below the largest needle char;
+     * everything above shifts by the full needle length
+     */
+    private static int[] shiftTable(char[] needle) {
+        int max = 0;
+        for (char c : needle) {
+            max = Math.max(max, c);
+        }
+        int[] shift = new int[max + 1];
+        Arrays.fill(shift, needle.length);
+        for (int j = 0; j < needle.length - 1; j++) {
+            shift[needle[j]] = needle.length - 1 - j;
+        }
+        return shift;
+    }
+    
+    private void compact() {
+        int write = 0;
+        int writeChars = 0;
+        for (int slot = 0; slot < count; slot++) {
+            if (removed[slot]) {
+                continue;
+            }
+            int start = offsets[slot];
+            int textLength = offsets[slot + 1] - start;
+            System.arraycopy(chars, start, chars, writeChars, textLength);
+            offsets[write] = writeChars;
+            ids[write] = ids[slot];
+            removed[write] = false;
+            slots.put(ids[write], write);
+            writeChars += textLength;
+            write++;
+        }
+        count = write;
+        length = writeChars;
+        offsets[count] = length;
+        removedCount = 0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("TextArena[texts=%d, chars=%d]", size(), length);
+    }
+}
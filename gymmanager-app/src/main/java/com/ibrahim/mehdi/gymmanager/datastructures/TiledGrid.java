@@ -0,0 +1,310 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse grid split into 64x64 tiles, for multi-branch, multi-floor
+ * equipment maps. Coordinates are non-negative and have no fixed
+ * width or height (up to 2^30).
+ * Each layer (branch + floor) is a plane of tiles; a tile is a
+ * {@link SparseMatrix} that is allocated on first use and dropped when
+ * its last cell is cleared, so memory follows the occupied cells and
+ * stays bounded per tile. Tiles are found through a
+ * {@link LongLinearProbingHash} keyed by (layer, tileX, tileY).
+ * Layer ids are found per branch in an array indexed by floor, so a
+ * lookup builds no key objects.
+ *
+ * @param <T> Type of elements
+ * @author ibrahim.mehdi
+ */
+public class TiledGrid<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    public static final int TILE_SIZE = 64;
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    
+    // Tile coordinates use 24 bits each, layer 15 bits: keys stay positive,
+    // Long.MIN_VALUE is the empty key of LongLinearProbingHash
+    private static final int COORD_BITS = 24;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+    private static final int MAX_LAYERS = (1 << 15) - 1;
+    
+    /**
+     * Callback for cell iteration
+     *
+     * @param <T> Type of elements
+     */
+    public interface CellVisitor<T> {
+        void visit(int layer, int x, int y, T value);
+    }
+    
+    /**
+     * Callback for tile iteration
+     */
+    public interface TileVisitor {
+        void visit(TileInfo tile);
+    }
+    
+    /**
+     * Occupancy of one allocated tile
+     */
+    public static final class TileInfo {
+        private final int layer;
+        private final int tileX;
+        private final int tileY;
+        private final int count;
+        
+        TileInfo(int layer, int tileX, int tileY, int count) {
+            this.layer = layer;
+            this.tileX = tileX;
+            this.tileY = tileY;
+            this.count = count;
+        }
+        
+        public int getLayer() { return layer; }
+        public int getTileX() { return tileX; }
+        public int getTileY() { return tileY; }
+        public int getCount() { return count; }
+        
+        /**
+         * Used cells / cells in tile
+         */
+        public double getOccupancy() {
+            return (double) count / (TILE_SIZE * TILE_SIZE);
+        }
+    }
+    
+    /**
+     * Layer ids of one branch, id + 1 per floor (0 = not registered)
+     */
+    private static final class Floors implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int[] up = new int[0];      // Floor f >= 0 at index f
+        int[] down = new int[0];    // Floor f < 0 at index -1 - f
+    }
+    
+    private final LongLinearProbingHash<SparseMatrix<T>> tiles;
+    private final Map<String, Floors> layerIds;
+    private int layerCount;
+    private int size;
+    
+    // Read-only view of the values, rebuilt after the next change
+    private transient List<T> valuesView;
+    
+    public TiledGrid() {
+        this.tiles = new LongLinearProbingHash<>();
+        this.layerIds = new HashMap<>();
+    }
+    
+    /**
+     * Get layer id of a branch floor, registering it on first use
+     *
+     * @param branch Branch name
+     * @param floor Floor number
+     * @return Layer id
+     */
+    public int getLayer(String branch, int floor) {
+        int id = findLayer(branch, floor);
+        if (id >= 0) {
+            return id;
+        }
+        int index = floor >= 0 ? floor : -1 - floor;
+        if (index >= MAX_LAYERS) {
+            throw new IllegalArgumentException("Floor out of range: " + floor);
+        }
+        if (layerCount == MAX_LAYERS) {
+            throw new IllegalStateException("Too many layers");
+        }
+        Floors floors = layerIds.computeIfAbsent(branch, b -> new Floors());
+        int[] ids = floor >= 0 ? floors.up : floors.down;
+        if (index >= ids.length) {
+            ids = Arrays.copyOf(ids, Math.min(MAX_LAYERS, Math.max(index + 1, ids.length * 2)));
+            if (floor >= 0) {
+                floors.up = ids;
+            } else {
+                floors.down = ids;
+            }
+        }
+        id = layerCount++;
+        ids[index] = id + 1;
+        return id;
+    }
+    
+    /**
+     * Get layer id of a branch floor without registering it
+     *
+     * @param branch Branch name
+     * @param floor Floor number
+     * @return Layer id, or -1 if the branch floor was never used
+     */
+    public int findLayer(String branch, int floor) {
+        Floors floors = layerIds.get(branch);
+        if (floors == null) {
+            return -1;
+        }
+        int[] ids = floor >= 0 ? floors.up : floors.down;
+        int index = floor >= 0 ? floor : -1 - floor;
+        return index < ids.length ? ids[index] - 1 : -1;
+    }
+    
+    /**
+     * Get number of registered layers
+     */
+    public int getLayerCount() {
+        return layerCount;
+    }
+    
+    /**
+     * Set value at position, null clears the cell
+     *
+     * @return Previous value or null
+     */
+    public T set(int layer, int x, int y, T value) {
+        checkPosition(layer, x, y);
+        
+        long key = key(layer, x >> TILE_SHIFT, y >> TILE_SHIFT);
+        SparseMatrix<T> tile = tiles.get(key);
+        if (tile == null) {
+            if (value == null) {
+                return null;
+            }
+            tile = new SparseMatrix<>(TILE_SIZE, TILE_SIZE);
+            tiles.put(key, tile);
+        }
+        
+        T previous = tile.get(y & TILE_MASK, x & TILE_MASK);
+        tile.set(y & TILE_MASK, x & TILE_MASK, value);
+        if (previous == null && value != null) {
+            size++;
+        } else if (previous != null && value == null) {
+            size--;
+            if (tile.getNonZeroCount() == 0) {
+                tiles.remove(key);
+            }
+        }
+        valuesView = null;
+        return previous;
+    }
+    
+    /**
+     * Get value at position
+     *
+     * @return Value or null
+     */
+    public T get(int layer, int x, int y) {
+        checkPosition(layer, x, y);
+        SparseMatrix<T> tile = tiles.get(key(layer, x >> TILE_SHIFT, y >> TILE_SHIFT));
+        return tile != null ? tile.get(y & TILE_MASK, x & TILE_MASK) : null;
+    }
+    
+    /**
+     * Visit all values with their coordinates
+     */
+    public void forEach(CellVisitor<? super T> visitor) {
+        tiles.forEach((key, tile) -> {
+            int layer = layerOf(key);
+            int baseX = tileX(key) << TILE_SHIFT;
+            int baseY = tileY(key) << TILE_SHIFT;
+            tile.forEach((row, col, value) -> visitor.visit(layer, baseX + col, baseY + row, value));
+        });
+    }
+    
+    /**
+     * Visit allocated tiles with their occupancy
+     */
+    public void forEachTile(TileVisitor visitor) {
+        tiles.forEach((key, tile) ->
+            visitor.visit(new TileInfo(layerOf(key), tileX(key), tileY(key), tile.getNonZeroCount())));
+    }
+    
+    /**
+     * Get read-only view of all values, reused until the grid changes
+     */
+    public List<T> values() {
+        List<T> view = valuesView;
+        if (view == null) {
+            List<T> values = new ArrayList<>(size);
+            tiles.forEach((key, tile) -> values.addAll(tile.values()));
+            view = Collections.unmodifiableList(values);
+            valuesView = view;
+        }
+        return view;
+    }
+    
+    /**
+     * Remove all values (layers stay registered)
+     */
+    public void clear() {
+        tiles.clear();
+        size = 0;
+        valuesView = null;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Get number of allocated tiles
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
+    
+    /**
+     * Get average occupancy of allocated tiles
+     */
+    public double getAverageTileOccupancy() {
+        return tiles.isEmpty() ? 0 : (double) size / (tiles.size() * TILE_SIZE * TILE_SIZE);
+    }
+    
+    /**
+     * Get highest occupancy of any allocated tile
+     */
+    public double getMaxTileOccupancy() {
+        double[] max = new double[1];
+        forEachTile(tile -> max[0] = Math.max(max[0], tile.getOccupancy()));
+        return max[0];
+    }
+    
+    private void checkPosition(int layer, int x, int y) {
+        if (layer < 0 || layer >= MAX_LAYERS || x < 0 || y < 0
+                || (x >> TILE_SHIFT) > COORD_MASK || (y >> TILE_SHIFT) > COORD_MASK) {
+            throw new IndexOutOfBoundsException(
+                String.format("Invalid position (%d,%d) on layer %d", x, y, layer));
+        }
+    }
+    
+    private static long key(int layer, int tileX, int tileY) {
+        return ((long) layer << (2 * COORD_BITS)) | ((long) tileX << COORD_BITS) | tileY;
+    }
+    
+    private static int layerOf(long key) {
+        return (int) (key >>> (2 * COORD_BITS));
+    }
+    
+    private static int tileX(long key) {
+        return (int) ((key >>> COORD_BITS) & COORD_MASK);
+    }
+    
+    private static int tileY(long key) {
+        return (int) (key & COORD_MASK);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("TiledGrid[size=%d, tiles=%d, layers=%d]",
+                size, tiles.size(), layerCount);
+    }
+}
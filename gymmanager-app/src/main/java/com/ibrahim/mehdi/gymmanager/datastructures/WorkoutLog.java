@@ -0,0 +1,419 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only columnar log of workout records.
+ * Each field (member id, branch, time, exercise type, duration, volume,
+ * note) is its own primitive array, cut into chunks of {@link #CHUNK_SIZE}
+ * records. Appending only touches the last chunk, full chunks are never
+ * copied again, and aggregations are plain loops over the columns they
+ * need. Every chunk keeps its min/max time so period queries skip
+ * chunks outside the period.
+ *
+ * Times are stored as UTC epoch seconds, durations in seconds and
+ * volume in kilograms lifted. Branch names are stored once and the
+ * column holds their codes.
+ *
+ * @author ibrahim.mehdi
+ */
+public class WorkoutLog implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /** Records per chunk */
+    public static final int CHUNK_SIZE = 4096;
+    
+    /** Member id of records not linked to a member */
+    public static final int NO_MEMBER = 0;
+    
+    /** Member filter that matches every record */
+    public static final int ANY_MEMBER = -1;
+    
+    /** Time of records migrated without a timestamp, before every bounded period */
+    public static final LocalDateTime UNKNOWN_TIME = LocalDateTime.MIN;
+    
+    /**
+     * Exercise category of a record
+     */
+    public enum ExerciseType {
+        CARDIO, STRENGTH, FLEXIBILITY, OTHER
+    }
+    
+    private static final ExerciseType[] TYPES = ExerciseType.values();
+    
+    /**
+     * One chunk of columns; only the last chunk grows
+     */
+    private static final class Chunk implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int[] memberIds;
+        short[] branches;
+        long[] times;
+        byte[] types;
+        int[] durations;
+        double[] volumes;
+        String[] notes;
+        int count;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        
+        Chunk() {
+            allocate(16);
+        }
+        
+        /**
+         * Make room for one more record, up to CHUNK_SIZE
+         */
+        void ensureRoom() {
+            if (count == memberIds.length) {
+                allocate(Math.min(count * 2, CHUNK_SIZE));
+            }
+        }
+        
+        private void allocate(int capacity) {
+            memberIds = memberIds == null ? new int[capacity] : Arrays.copyOf(memberIds, capacity);
+            branches = branches == null ? new short[capacity] : Arrays.copyOf(branches, capacity);
+            times = times == null ? new long[capacity] : Arrays.copyOf(times, capacity);
+            types = types == null ? new byte[capacity] : Arrays.copyOf(types, capacity);
+            durations = durations == null ? new int[capacity] : Arrays.copyOf(durations, capacity);
+            volumes = volumes == null ? new double[capacity] : Arrays.copyOf(volumes, capacity);
+            notes = notes == null ? new String[capacity] : Arrays.copyOf(notes, capacity);
+        }
+        
+        boolean overlaps(long from, long to) {
+            return count > 0 && maxTime >= from && minTime <= to;
+        }
+    }
+    
+    /**
+     * Totals of a group of records
+     */
+    public static final class Summary implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private int count;
+        private long totalDuration;
+        private double totalVolume;
+        
+        void add(int duration, double volume) {
+            count++;
+            totalDuration += duration;
+            totalVolume += volume;
+        }
+        
+        void add(Summary other) {
+            count += other.count;
+            totalDuration += other.totalDuration;
+            totalVolume += other.totalVolume;
+        }
+        
+        public int getCount() {
+            return count;
+        }
+        
+        /**
+         * Get total duration in seconds
+         */
+        public long getTotalDuration() {
+            return totalDuration;
+        }
+        
+        public long getTotalMinutes() {
+            return totalDuration / 60;
+        }
+        
+        /**
+         * Get total volume in kilograms
+         */
+        public double getTotalVolume() {
+            return totalVolume;
+        }
+        
+        /**
+         * Get average duration in seconds
+         */
+        public double getAverageDuration() {
+            return count == 0 ? 0 : (double) totalDuration / count;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Summary[count=%d, minutes=%d, volume=%.1f]",
+                    count, getTotalMinutes(), totalVolume);
+        }
+    }
+    
+    private final List<Chunk> chunks;
+    private final List<String> branchNames;   // Branch code -> name
+    private int size;
+    private transient List<String> notesView;
+    
+    public WorkoutLog() {
+        this.chunks = new ArrayList<>();
+        this.branchNames = new ArrayList<>();
+    }
+    
+    /**
+     * Append a workout record without a branch
+     *
+     * @return Index of the record
+     */
+    public int add(int memberId, LocalDateTime time, ExerciseType type,
+                   int durationSeconds, double volume, String note) {
+        return add(memberId, null, time, type, durationSeconds, volume, note);
+    }
+    
+    /**
+     * Append a workout record
+     *
+     * @param memberId Member id or {@link #NO_MEMBER}
+     * @param branch Branch name, may be null
+     * @param time Time of the workout
+     * @param type Exercise type
+     * @param durationSeconds Duration in seconds
+     * @param volume Kilograms lifted (0 for cardio)
+     * @param note Free text description, may be null
+     * @return Index of the record
+     */
+    public int add(int memberId, String branch, LocalDateTime time, ExerciseType type,
+                   int durationSeconds, double volume, String note) {
+        if (time == null || type == null) {
+            throw new IllegalArgumentException("Time and type cannot be null");
+        }
+        if (durationSeconds < 0 || volume < 0) {
+            throw new IllegalArgumentException("Duration and volume cannot be negative");
+        }
+        
+        Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.count == CHUNK_SIZE) {
+            chunk = new Chunk();
+            chunks.add(chunk);
+        }
+        chunk.ensureRoom();
+        
+        long epoch = time.toEpochSecond(ZoneOffset.UTC);
+        int slot = chunk.count;
+        chunk.memberIds[slot] = memberId;
+        chunk.branches[slot] = branchCode(branch);
+        chunk.times[slot] = epoch;
+        chunk.types[slot] = (byte) type.ordinal();
+        chunk.durations[slot] = durationSeconds;
+        chunk.volumes[slot] = volume;
+        chunk.notes[slot] = note;
+        chunk.minTime = Math.min(chunk.minTime, epoch);
+        chunk.maxTime = Math.max(chunk.maxTime, epoch);
+        chunk.count++;
+        return size++;
+    }
+    
+    public int getMemberId(int index) {
+        return chunk(index).memberIds[index % CHUNK_SIZE];
+    }
+    
+    /**
+     * Get branch name
+     *
+     * @return Branch or null if the record has none
+     */
+    public String getBranch(int index) {
+        short code = chunk(index).branches[index % CHUNK_SIZE];
+        return code == 0 ? null : branchNames.get(code - 1);
+    }
+    
+    public LocalDateTime getTime(int index) {
+        return LocalDateTime.ofEpochSecond(chunk(index).times[index % CHUNK_SIZE], 0, ZoneOffset.UTC);
+    }
+    
+    public ExerciseType getType(int index) {
+        return TYPES[chunk(index).types[index % CHUNK_SIZE]];
+    }
+    
+    /**
+     * Get duration in seconds
+     */
+    public int getDuration(int index) {
+        return chunk(index).durations[index % CHUNK_SIZE];
+    }
+    
+    public double getVolume(int index) {
+        return chunk(index).volumes[index % CHUNK_SIZE];
+    }
+    
+    public String getNote(int index) {
+        return chunk(index).notes[index % CHUNK_SIZE];
+    }
+    
+    /**
+     * Read-only list view of the notes; nothing is copied
+     */
+    public List<String> notes() {
+        if (notesView == null) {
+            notesView = new AbstractList<String>() {
+                @Override
+                public String get(int index) {
+                    return getNote(index);
+                }
+                
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return notesView;
+    }
+    
+    /**
+     * Sum records matching the filters
+     *
+     * @param memberId Member id or {@link #ANY_MEMBER}
+     * @param type Exercise type or null for all types
+     * @param from Start time (inclusive) or null for no lower bound
+     * @param to End time (inclusive) or null for no upper bound
+     * @return Totals of the matching records
+     */
+    public Summary summarize(int memberId, ExerciseType type, LocalDateTime from, LocalDateTime to) {
+        long start = from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC);
+        long end = to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC);
+        int typeCode = type == null ? -1 : type.ordinal();
+        Summary summary = new Summary();
+        
+        for (Chunk chunk : chunks) {
+            if (!chunk.overlaps(start, end)) {
+                continue;
+            }
+            boolean allTimes = chunk.minTime >= start && chunk.maxTime <= end;
+            for (int i = 0; i < chunk.count; i++) {
+                if ((memberId != ANY_MEMBER && chunk.memberIds[i] != memberId)
+                        || (typeCode >= 0 && chunk.types[i] != typeCode)
+                        || (!allTimes && (chunk.times[i] < start || chunk.times[i] > end))) {
+                    continue;
+                }
+                summary.add(chunk.durations[i], chunk.volumes[i]);
+            }
+        }
+        return summary;
+    }
+    
+    /**
+     * Sum records per member in a period
+     *
+     * @param type Exercise type or null for all types
+     * @param from Start time (inclusive) or null for no lower bound
+     * @param to End time (inclusive) or null for no upper bound
+     * @return Totals by member id, in order of first appearance
+     */
+    public Map<Integer, Summary> summarizeByMember(ExerciseType type, LocalDateTime from, LocalDateTime to) {
+        long start = from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC);
+        long end = to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC);
+        int typeCode = type == null ? -1 : type.ordinal();
+        Map<Integer, Summary> result = new LinkedHashMap<>();
+        
+        for (Chunk chunk : chunks) {
+            if (!chunk.overlaps(start, end)) {
+                continue;
+            }
+            for (int i = 0; i < chunk.count; i++) {
+                if ((typeCode >= 0 && chunk.types[i] != typeCode)
+                        || chunk.times[i] < start || chunk.times[i] > end) {
+                    continue;
+                }
+                result.computeIfAbsent(chunk.memberIds[i], id -> new Summary())
+                        .add(chunk.durations[i], chunk.volumes[i]);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Sum records per exercise type in a period
+     *
+     * @param memberId Member id or {@link #ANY_MEMBER}
+     * @param from Start time (inclusive) or null for no lower bound
+     * @param to End time (inclusive) or null for no upper bound
+     * @return Totals for every exercise type, in enum order
+     */
+    public Map<ExerciseType, Summary> summarizeByType(int memberId, LocalDateTime from, LocalDateTime to) {
+        Map<ExerciseType, Summary> result = new LinkedHashMap<>();
+        for (ExerciseType type : TYPES) {
+            result.put(type, summarize(memberId, type, from, to));
+        }
+        return result;
+    }
+    
+    /**
+     * Get indices of a member's records, oldest first
+     */
+    public int[] indicesOf(int memberId) {
+        int[] result = new int[16];
+        int found = 0;
+        for (int c = 0; c < chunks.size(); c++) {
+            Chunk chunk = chunks.get(c);
+            int base = c * CHUNK_SIZE;
+            for (int i = 0; i < chunk.count; i++) {
+                if (chunk.memberIds[i] == memberId) {
+                    if (found == result.length) {
+                        result = Arrays.copyOf(result, found * 2);
+                    }
+                    result[found++] = base + i;
+                }
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public int getChunkCount() {
+        return chunks.size();
+    }
+    
+    public void clear() {
+        chunks.clear();
+        branchNames.clear();
+        size = 0;
+    }
+    
+    /**
+     * Code of a branch name, 0 for no branch
+     */
+    private short branchCode(String branch) {
+        if (branch == null) {
+            return 0;
+        }
+        int index = branchNames.indexOf(branch);
+        if (index < 0) {
+            if (branchNames.size() == Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many branches");
+            }
+            branchNames.add(branch);
+            index = branchNames.size() - 1;
+        }
+        return (short) (index + 1);
+    }
+    
+    private Chunk chunk(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        return chunks.get(index / CHUNK_SIZE);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("WorkoutLog[records=%d, chunks=%d]", size, chunks.size());
+    }
+}
@@ -0,0 +1,336 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-aggregated time-series of workouts per (branch, exercise type).
+ * Every record is added to one minute, one hour and one day bucket of
+ * its series as it is appended, so range totals and per-day dashboards
+ * read a handful of buckets instead of scanning raw records.
+ *
+ * Retention: each resolution keeps only its newest buckets (by default
+ * 2 days of minutes, 90 days of hours, days forever). Older fine buckets
+ * are dropped, so old data is downsampled to the coarser resolution.
+ *
+ * A range query uses whole coarse buckets in the middle and finer ones
+ * at the edges. Time is resolved to the finest bucket still kept: a
+ * bucket counts if its start lies in [from, to).
+ *
+ * @author ibrahim.mehdi
+ */
+public class WorkoutRollup implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /** Retention that never drops buckets */
+    public static final long KEEP_FOREVER = Long.MAX_VALUE;
+    
+    /**
+     * Bucket width
+     */
+    public enum Resolution {
+        MINUTE(60), HOUR(3600), DAY(86400);
+        
+        private final long seconds;
+        
+        Resolution(long seconds) {
+            this.seconds = seconds;
+        }
+        
+        public long getSeconds() {
+            return seconds;
+        }
+    }
+    
+    private static final Resolution[] LEVELS = Resolution.values();
+    
+    /**
+     * Buckets of one (branch, type) pair, per resolution
+     */
+    private static final class Series implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String branch;
+        final WorkoutLog.ExerciseType type;
+        final List<LongLinearProbingHash<WorkoutLog.Summary>> levels = new ArrayList<>();
+        
+        Series(String branch, WorkoutLog.ExerciseType type) {
+            this.branch = branch;
+            this.type = type;
+            for (int i = 0; i < LEVELS.length; i++) {
+                levels.add(new LongLinearProbingHash<>());
+            }
+        }
+    }
+    
+    private final long[] retention;      // Buckets kept per resolution
+    private final long[] latestBucket;   // Newest bucket seen per resolution
+    private final long[] dropBefore;     // Buckets below this may be dropped
+    private final Map<String, Series> series;
+    
+    /**
+     * Constructor with default retention: 2 days of minutes,
+     * 90 days of hours, days forever
+     */
+    public WorkoutRollup() {
+        this(2 * 24 * 60, 90 * 24, KEEP_FOREVER);
+    }
+    
+    /**
+     * Constructor with retention in buckets per resolution
+     *
+     * @param minutes Minute buckets kept
+     * @param hours Hour buckets kept
+     * @param days Day buckets kept
+     */
+    public WorkoutRollup(long minutes, long hours, long days) {
+        if (minutes <= 0 || hours <= 0 || days <= 0) {
+            throw new IllegalArgumentException("Retention must be positive");
+        }
+        this.retention = new long[]{minutes, hours, days};
+        this.latestBucket = new long[LEVELS.length];
+        this.dropBefore = new long[LEVELS.length];
+        Arrays.fill(latestBucket, Long.MIN_VALUE);
+        Arrays.fill(dropBefore, Long.MIN_VALUE);
+        this.series = new LinkedHashMap<>();
+    }
+    
+    /**
+     * Add a workout to the buckets of its series
+     *
+     * @param branch Branch name, may be null
+     * @param type Exercise type
+     * @param time Time of the workout
+     * @param durationSeconds Duration in seconds
+     * @param volume Kilograms lifted
+     */
+    public void add(String branch, WorkoutLog.ExerciseType type, LocalDateTime time,
+                    int durationSeconds, double volume) {
+        if (type == null || time == null) {
+            throw new IllegalArgumentException("Type and time cannot be null");
+        }
+        long epoch = time.toEpochSecond(ZoneOffset.UTC);
+        Series target = series.computeIfAbsent(key(branch, type), k -> new Series(branch, type));
+        
+        for (int level = 0; level < LEVELS.length; level++) {
+            long bucket = Math.floorDiv(epoch, LEVELS[level].seconds);
+            if (bucket > latestBucket[level]) {
+                latestBucket[level] = bucket;
+                expire(level);
+            }
+            if (bucket < dropBefore[level]) {
+                continue;   // Older than retention, kept by coarser levels only
+            }
+            LongLinearProbingHash<WorkoutLog.Summary> buckets = target.levels.get(level);
+            WorkoutLog.Summary summary = buckets.get(bucket);
+            if (summary == null) {
+                summary = new WorkoutLog.Summary();
+                buckets.put(bucket, summary);
+            }
+            summary.add(durationSeconds, volume);
+        }
+    }
+    
+    /**
+     * Total of a range
+     *
+     * @param branch Branch or null for all branches
+     * @param type Exercise type or null for all types
+     * @param from Start (inclusive)
+     * @param to End (exclusive)
+     * @return Totals of the buckets in range
+     */
+    public WorkoutLog.Summary aggregate(String branch, WorkoutLog.ExerciseType type,
+                                        LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Range cannot be null");
+        }
+        long start = from.toEpochSecond(ZoneOffset.UTC);
+        long end = to.toEpochSecond(ZoneOffset.UTC);
+        WorkoutLog.Summary total = new WorkoutLog.Summary();
+        for (Series s : matching(branch, type)) {
+            sum(s, LEVELS.length - 1, start, end, total);
+        }
+        return total;
+    }
+    
+    /**
+     * Buckets of one resolution in a range, e.g. cardio minutes per day.
+     * Buckets already dropped by retention are missing.
+     *
+     * @param branch Branch or null for all branches
+     * @param type Exercise type or null for all types
+     * @param resolution Bucket width
+     * @param from Start (inclusive)
+     * @param to End (exclusive)
+     * @return Bucket start time to totals, in time order, empty buckets left out
+     */
+    public Map<LocalDateTime, WorkoutLog.Summary> buckets(String branch, WorkoutLog.ExerciseType type,
+                                                          Resolution resolution,
+                                                          LocalDateTime from, LocalDateTime to) {
+        if (resolution == null || from == null || to == null) {
+            throw new IllegalArgumentException("Resolution and range cannot be null");
+        }
+        int level = resolution.ordinal();
+        long size = resolution.seconds;
+        long first = Math.floorDiv(from.toEpochSecond(ZoneOffset.UTC) + size - 1, size);
+        long last = Math.floorDiv(to.toEpochSecond(ZoneOffset.UTC) + size - 1, size);
+        
+        Map<LocalDateTime, WorkoutLog.Summary> result = new LinkedHashMap<>();
+        List<Series> selected = matching(branch, type);
+        for (long bucket = first; bucket < last; bucket++) {
+            WorkoutLog.Summary total = null;
+            for (Series s : selected) {
+                WorkoutLog.Summary summary = s.levels.get(level).get(bucket);
+                if (summary != null) {
+                    if (total == null) {
+                        total = new WorkoutLog.Summary();
+                    }
+                    total.add(summary);
+                }
+            }
+            if (total != null) {
+                result.put(LocalDateTime.ofEpochSecond(bucket * size, 0, ZoneOffset.UTC), total);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Get branches that have workouts, in order of first workout
+     */
+    public List<String> getBranches() {
+        List<String> branches = new ArrayList<>();
+        for (Series s : series.values()) {
+            if (!branches.contains(s.branch)) {
+                branches.add(s.branch);
+            }
+        }
+        return branches;
+    }
+    
+    /**
+     * Get number of stored buckets of a resolution, over all series
+     */
+    public int getBucketCount(Resolution resolution) {
+        int count = 0;
+        for (Series s : series.values()) {
+            count += s.levels.get(resolution.ordinal()).size();
+        }
+        return count;
+    }
+    
+    public void clear() {
+        series.clear();
+        Arrays.fill(latestBucket, Long.MIN_VALUE);
+        Arrays.fill(dropBefore, Long.MIN_VALUE);
+    }
+    
+    /**
+     * Sum [from, to) with whole buckets of level and finer levels at the
+     * edges, as long as the finer level still holds the edge
+     */
+    private void sum(Series s, int level, long from, long to, WorkoutLog.Summary out) {
+        if (from >= to) {
+            return;
+        }
+        long size = LEVELS[level].seconds;
+        long first = Math.floorDiv(from + size - 1, size);   // First bucket starting at or after from
+        if (level == 0 || Math.floorDiv(from, LEVELS[level - 1].seconds) < dropBefore[level - 1]) {
+            addBuckets(s, level, first, Math.floorDiv(to + size - 1, size), out);
+            return;
+        }
+        long last = Math.floorDiv(to, size);                  // Buckets ending at or before to
+        if (first >= last) {
+            sum(s, level - 1, from, to, out);
+            return;
+        }
+        addBuckets(s, level, first, last, out);
+        sum(s, level - 1, from, first * size, out);
+        sum(s, level - 1, last * size, to, out);
+    }
+    
+    /**
+     * Add buckets [first, last) of a level, walking whichever is smaller:
+     * the bucket range or the stored buckets
+     */
+    private void addBuckets(Series s, int level, long first, long last, WorkoutLog.Summary out) {
+        LongLinearProbingHash<WorkoutLog.Summary> buckets = s.levels.get(level);
+        if (first >= last || buckets.isEmpty()) {
+            return;
+        }
+        if (last - first <= buckets.size()) {
+            for (long bucket = first; bucket < last; bucket++) {
+                WorkoutLog.Summary summary = buckets.get(bucket);
+                if (summary != null) {
+                    out.add(summary);
+                }
+            }
+        } else {
+            buckets.forEach((bucket, summary) -> {
+                if (bucket >= first && bucket < last) {
+                    out.add(summary);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Drop buckets of a level that fell out of its retention
+     */
+    private void expire(int level) {
+        if (retention[level] == KEEP_FOREVER) {
+            return;
+        }
+        long cutoff = latestBucket[level] - retention[level] + 1;
+        if (cutoff <= dropBefore[level]) {
+            return;
+        }
+        long gap = dropBefore[level] == Long.MIN_VALUE ? Long.MAX_VALUE : cutoff - dropBefore[level];
+        for (Series s : series.values()) {
+            LongLinearProbingHash<WorkoutLog.Summary> buckets = s.levels.get(level);
+            if (gap <= buckets.size()) {
+                for (long bucket = dropBefore[level]; bucket < cutoff; bucket++) {
+                    buckets.remove(bucket);
+                }
+            } else {
+                List<Long> expired = new ArrayList<>();
+                buckets.forEach((bucket, summary) -> {
+                    if (bucket < cutoff) {
+                        expired.add(bucket);
+                    }
+                });
+                for (long bucket : expired) {
+                    buckets.remove(bucket);
+                }
+            }
+        }
+        dropBefore[level] = cutoff;
+    }
+    
+    private List<Series> matching(String branch, WorkoutLog.ExerciseType type) {
+        List<Series> result = new ArrayList<>();
+        for (Series s : series.values()) {
+            if ((branch == null || branch.equals(s.branch)) && (type == null || type == s.type)) {
+                result.add(s);
+            }
+        }
+        return result;
+    }
+    
+    private static String key(String branch, WorkoutLog.ExerciseType type) {
+        return branch == null ? type.name() : type.name() + '\0' + branch;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("WorkoutRollup[series=%d, minutes=%d, hours=%d, days=%d]", series.size(),
+                getBucketCount(Resolution.MINUTE), getBucketCount(Resolution.HOUR),
+                getBucketCount(Resolution.DAY));
+    }
+}
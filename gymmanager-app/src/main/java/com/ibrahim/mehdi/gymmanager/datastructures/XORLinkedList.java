@@ -11,6 +11,9 @@ import java.util.List;
  * Note: Java doesn't support true pointer arithmetic, so this is a simulated version
  * using HashMap-like structure to demonstrate the concept.
  * 
+ * Elements are only appended, so the node array holds them in list
+ * order and positional access is a direct array lookup.
+ * 
  * @param <T> Type of elements
  * @author ibrahim.mehdi
  */
@@ -58,11 +61,11 @@ public class XORLinkedList<T> implements Serializable {
         if (headIndex == -1) {
             // First node
             headIndex = tailIndex = newIndex;
-            newNode.xorLink = -1;
+            newNode.xorLink = -1 ^ (-1); // No previous, no next
         } else {
             // Update tail's XOR link
             XORNode<T> tail = nodes.get(tailIndex);
-            int tailPrev = tail.xorLink; // Previous node index
+            int tailPrev = tail.xorLink ^ (-1); // Previous node index (tail's next was null)
             tail.xorLink = tailPrev ^ newIndex; // XOR with new node
             
             // New node's XOR link
@@ -142,19 +145,27 @@ public class XORLinkedList<T> implements Serializable {
             throw new IndexOutOfBoundsException("Index: " + index);
         }
         
-        int current = headIndex;
-        int prev = -1;
-        int count = 0;
-        
-        while (current != -1 && count < index) {
-            XORNode<T> node = nodes.get(current);
-            int next = prev ^ node.xorLink;
-            prev = current;
-            current = next;
-            count++;
+        // Node array is in list order (add only appends)
+        return nodes.get(index).data;
+    }
+    
+    /**
+     * Get elements in positions [from, to), e.g. one page of history
+     * 
+     * @param from First index (inclusive)
+     * @param to Last index (exclusive)
+     * @return Elements in list order
+     */
+    public List<T> getRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range: " + from + " to " + to);
         }
         
-        return current != -1 ? nodes.get(current).data : null;
+        List<T> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(nodes.get(i).data);
+        }
+        return result;
     }
     
     /**
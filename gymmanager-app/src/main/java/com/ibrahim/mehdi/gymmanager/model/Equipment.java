@@ -1,5 +1,7 @@
 package com.ibrahim.mehdi.gymmanager.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -10,6 +12,7 @@ import java.io.Serializable;
  */
 public class Equipment implements Serializable {
     private static final long serialVersionUID = 1L;
+    public static final int DEFAULT_MAINTENANCE_MINUTES = 60;
     
     private int id;
     private String name;
@@ -18,6 +21,9 @@ public class Equipment implements Serializable {
     private boolean isAvailable;
     private int locationX; // For sparse matrix
     private int locationY; // For sparse matrix
+    private int maintenanceMinutes = DEFAULT_MAINTENANCE_MINUTES; // For maintenance scheduling
+    private String branch; // For multi-branch maps
+    private int floor;     // For multi-floor maps
     
     /**
      * Default constructor
@@ -71,6 +77,34 @@ public class Equipment implements Serializable {
     public int getLocationY() { return locationY; }
     public void setLocationY(int locationY) { this.locationY = locationY; }
     
+    public String getBranch() { return branch; }
+    public void setBranch(String branch) { this.branch = branch; }
+    
+    public int getFloor() { return floor; }
+    public void setFloor(int floor) { this.floor = floor; }
+    
+    public int getMaintenanceMinutes() { return maintenanceMinutes; }
+    public void setMaintenanceMinutes(int maintenanceMinutes) { this.maintenanceMinutes = maintenanceMinutes; }
+    
+    /**
+     * Equipment saved before maintenance scheduling has no duration in
+     * the stream; field initializers do not run on read, so set the default
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = fields.get("id", 0);
+        name = (String) fields.get("name", null);
+        type = (String) fields.get("type", null);
+        quantity = fields.get("quantity", 0);
+        isAvailable = fields.get("isAvailable", false);
+        locationX = fields.get("locationX", 0);
+        locationY = fields.get("locationY", 0);
+        maintenanceMinutes = fields.defaulted("maintenanceMinutes")
+                ? DEFAULT_MAINTENANCE_MINUTES : fields.get("maintenanceMinutes", 0);
+        branch = (String) fields.get("branch", null);
+        floor = fields.get("floor", 0);
+    }
+    
     @Override
     public String toString() {
         return String.format("Equipment[ID=%d, Name=%s, Type=%s, Qty=%d, Loc=(%d,%d)]",
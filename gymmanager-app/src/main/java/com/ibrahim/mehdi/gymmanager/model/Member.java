@@ -1,5 +1,7 @@
 package com.ibrahim.mehdi.gymmanager.model;
 
+import com.ibrahim.mehdi.gymmanager.util.TextFolding;
+
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.Objects;
@@ -54,6 +56,9 @@ public class Member implements Serializable, Comparable<Member> {
     private LocalDate membershipEndDate;
     private boolean active;
     
+    // Case and diacritic folded full name for search, rebuilt on demand
+    private transient String foldedName;
+    
     public Member(int id, String name, String surname, String phoneNumber, 
                  String email, MembershipType membershipType) {
         this.id = id;
@@ -72,13 +77,25 @@ public class Member implements Serializable, Comparable<Member> {
     public void setId(int id) { this.id = id; }
     
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { this.name = name; this.foldedName = null; }
     
     public String getSurname() { return surname; }
-    public void setSurname(String surname) { this.surname = surname; }
+    public void setSurname(String surname) { this.surname = surname; this.foldedName = null; }
     
     public String getFullName() { return name + " " + surname; }
     
+    /**
+     * Full name folded with {@link TextFolding} (cached)
+     */
+    public String getFoldedName() {
+        String folded = foldedName;
+        if (folded == null) {
+            folded = TextFolding.fold(getFullName());
+            foldedName = folded;
+        }
+        return folded;
+    }
+    
     public String getPhoneNumber() { return phoneNumber; }
     public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
     
@@ -2,11 +2,20 @@ package com.ibrahim.mehdi.gymmanager.service;
 
 import com.ibrahim.mehdi.gymmanager.datastructures.*;
 import com.ibrahim.mehdi.gymmanager.model.*;
+import com.ibrahim.mehdi.gymmanager.util.AppointmentArchive;
 import com.ibrahim.mehdi.gymmanager.util.BinaryFileStorage;
+import com.ibrahim.mehdi.gymmanager.util.HistorySpillFile;
+import com.ibrahim.mehdi.gymmanager.util.TextFolding;
 
+import java.io.File;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Main service class integrating all 12 data structures.
@@ -17,14 +26,34 @@ import java.util.*;
 public class GymService implements Serializable {
     private static final long serialVersionUID = 1L;
     private static final String DATA_FILE = "gymservice.dat";
+    private static final boolean COMPRESS_DATA_FILE = true;
+    private static final String ARCHIVE_DIR = "data" + File.separator + "archive";
+    private static final String HISTORY_SPILL_FILE = ARCHIVE_DIR + File.separator + "history-spill.dat";
+    private static final int HISTORY_CAPACITY = 500;
+    public static final String DEFAULT_BRANCH = "Main";
     
-    // 1. Double Linked List - Member history navigation
+    // 1. Ring Buffer - Operation history navigation (newest HISTORY_CAPACITY entries)
+    private RingBuffer<String> history;
+    
+    // Entries evicted from the history ring, compressed on disk
+    private HistorySpillFile historySpill;
+    
+    // History of older data files (double linked list), moved into the ring buffer on load
     private DoubleLinkedList<String> memberHistory;
     
-    // 2. XOR Linked List - Workout history
+    // 2. Workout Log - Columnar workout records (member, time, type, duration, volume)
+    private WorkoutLog workoutLog;
+    
+    // Minute/hour/day workout buckets per branch and type, updated as workouts are added
+    private WorkoutRollup workoutRollup;
+    
+    // Workout records of older data files (XOR linked list), moved into the workout log on load
     private XORLinkedList<String> workoutHistory;
     
-    // 3. Sparse Matrix - Equipment location map (20x20)
+    // 3. Sparse Matrix - Equipment location map (64x64 tiles per branch floor)
+    private TiledGrid<Equipment> equipmentGrid;
+    
+    // Single floor map of data files saved before the tiled grid, moved into it on load
     private SparseMatrix<Equipment> equipmentMap;
     
     // 4. Stack - Undo operations (max 50)
@@ -43,11 +72,8 @@ public class GymService implements Serializable {
     // 8. Graph - Equipment dependencies
     private Graph equipmentGraph;
     
-    // 9. KMP Algorithm - Name search
-    private KMPAlgorithm kmpSearch;
-    
-    // 10. Huffman Coding - Data compression
-    private HuffmanCoding huffman;
+    // 10. Huffman Coding - Shared table for short history records and spilled history
+    private HuffmanCoding.Dictionary historyDictionary;
     
     // 11. B+ Tree - Member indexing
     private BPlusTree<Integer, Member> memberIndex;
@@ -55,6 +81,27 @@ public class GymService implements Serializable {
     // 12. Linear Probing Hash - File operations
     private LinearProbingHash<String, String> fileOperations;
     
+    // Processed appointments (day-partitioned files, not serialized)
+    private transient AppointmentArchive appointmentArchive;
+    
+    // Cached maintenance schedule, cleared when dependencies or durations change
+    private transient MaintenanceScheduler.Schedule maintenanceSchedule;
+    
+    // Spatial index over equipment locations, rebuilt from the map on demand
+    private transient SpatialIndex<Equipment> equipmentIndex;
+    
+    // 9. Trigram Index - Name search, rebuilt from the hash table on demand
+    private transient NGramIndex memberNameIndex;
+    
+    // BK-tree over member name words for typo tolerant search
+    private transient BKTree memberFuzzyIndex;
+    
+    // Radix trie over folded names, emails and phones for autocomplete
+    private transient RadixTrie<Member> memberPrefixIndex;
+    
+    // Folded names packed in one buffer for parallel full scans
+    private transient TextArena memberNameArena;
+    
     // Counters
     private int nextMemberId = 1;
     private int nextAppointmentId = 1;
@@ -64,6 +111,8 @@ public class GymService implements Serializable {
      * Constructor - Initialize all data structures
      */
     public GymService() {
+        appointmentArchive = new AppointmentArchive(ARCHIVE_DIR);
+        
         // Load saved data or initialize
         GymService loaded = BinaryFileStorage.load(DATA_FILE);
         
@@ -71,24 +120,51 @@ public class GymService implements Serializable {
             copyFrom(loaded);
         } else {
             initializeDataStructures();
-            initializeSampleData();
+            // Sample data is saved, so an unreadable file and its spilled history are moved aside first
+            if (!BinaryFileStorage.exists(DATA_FILE) || keepUnreadableDataFile()) {
+                historySpill.clear();   // Segments of an earlier data file are orphaned
+                initializeSampleData();
+            }
         }
     }
     
+    /**
+     * Move an existing data file that failed to load out of the way,
+     * with the history spill file under the same suffix
+     *
+     * @return True if the file was moved and DATA_FILE is free
+     */
+    private boolean keepUnreadableDataFile() {
+        File kept = BinaryFileStorage.moveAside(DATA_FILE);
+        if (kept == null) {
+            return false;
+        }
+        System.err.println("Unreadable data file kept as " + kept.getPath());
+        File spill = new File(HISTORY_SPILL_FILE);
+        if (spill.exists()) {
+            File keptSpill = new File(HISTORY_SPILL_FILE + kept.getName().substring(DATA_FILE.length()));
+            if (!spill.renameTo(keptSpill)) {
+                System.err.println("Error moving history spill file: " + spill.getPath());
+            }
+        }
+        return true;
+    }
+    
     /**
      * Initialize all data structures
      */
     private void initializeDataStructures() {
-        memberHistory = new DoubleLinkedList<>();
-        workoutHistory = new XORLinkedList<>();
-        equipmentMap = new SparseMatrix<>(20, 20);
+        history = new RingBuffer<>(HISTORY_CAPACITY);
+        historySpill = new HistorySpillFile(new File(HISTORY_SPILL_FILE));
+        history.setEvictionListener(historySpill::append);
+        workoutLog = new WorkoutLog();
+        workoutRollup = new WorkoutRollup();
+        equipmentGrid = new TiledGrid<>();
         undoStack = new GymStack<>(50);
         waitingQueue = new GymQueue<>();
         appointmentHeap = new MinHeap<>();
         memberHashTable = new HashTable<>();
-        equipmentGraph = new Graph(20);
-        kmpSearch = new KMPAlgorithm();
-        huffman = new HuffmanCoding();
+        equipmentGraph = new Graph();
         memberIndex = new BPlusTree<>();
         fileOperations = new LinearProbingHash<>();
     }
@@ -97,21 +173,71 @@ public class GymService implements Serializable {
      * Copy data from loaded service
      */
     private void copyFrom(GymService other) {
-        this.memberHistory = other.memberHistory;
-        this.workoutHistory = other.workoutHistory;
-        this.equipmentMap = other.equipmentMap;
+        this.history = other.history;
+        this.historySpill = other.historySpill;
+        if (history == null) {
+            history = new RingBuffer<>(HISTORY_CAPACITY);
+            historySpill = new HistorySpillFile(new File(HISTORY_SPILL_FILE));
+            historySpill.clear();
+        } else {
+            historySpill.rollBack();
+        }
+        // The listener is not serialized, attach it to every loaded buffer
+        history.setEvictionListener(historySpill::append);
+        if (other.history == null && other.memberHistory != null) {
+            for (String entry : other.memberHistory) {
+                history.add(entry);
+            }
+        }
+        this.workoutLog = other.workoutLog;
+        if (workoutLog == null) {
+            workoutLog = new WorkoutLog();
+            if (other.workoutHistory != null) {
+                // Read by position, lists saved by the previous version have other XOR links
+                XORLinkedList<String> records = other.workoutHistory;
+                for (String record : records.getRange(0, records.size())) {
+                    workoutLog.add(WorkoutLog.NO_MEMBER, WorkoutLog.UNKNOWN_TIME,
+                            WorkoutLog.ExerciseType.OTHER, 0, 0, record);
+                }
+            }
+        }
+        this.workoutRollup = other.workoutRollup;
+        if (workoutRollup == null) {
+            workoutRollup = buildWorkoutRollup();   // Data files saved before the rollup
+        }
+        this.equipmentGrid = other.equipmentGrid;
+        if (equipmentGrid == null) {
+            equipmentGrid = new TiledGrid<>();
+            if (other.equipmentMap != null) {
+                int layer = equipmentGrid.getLayer(DEFAULT_BRANCH, 0);
+                other.equipmentMap.forEach((x, y, equipment) -> {
+                    if (equipment.getBranch() == null) {
+                        equipment.setBranch(DEFAULT_BRANCH);
+                    }
+                    equipmentGrid.set(layer, x, y, equipment);
+                });
+            }
+        }
         this.undoStack = other.undoStack;
         this.waitingQueue = other.waitingQueue;
         this.appointmentHeap = other.appointmentHeap;
         this.memberHashTable = other.memberHashTable;
         this.equipmentGraph = other.equipmentGraph;
-        this.kmpSearch = other.kmpSearch;
-        this.huffman = other.huffman;
+        this.historyDictionary = other.historyDictionary;
+        historySpill.setDictionary(historyDictionary);
         this.memberIndex = other.memberIndex;
         this.fileOperations = other.fileOperations;
         this.nextMemberId = other.nextMemberId;
         this.nextAppointmentId = other.nextAppointmentId;
         this.nextEquipmentId = other.nextEquipmentId;
+        
+        // Caches of the replaced data are rebuilt on demand
+        equipmentIndex = null;
+        memberNameIndex = null;
+        memberFuzzyIndex = null;
+        memberNameArena = null;
+        memberPrefixIndex = null;
+        maintenanceSchedule = null;
     }
     
     /**
@@ -137,8 +263,8 @@ public class GymService implements Serializable {
         createAppointment(2, "Group Class", 3);
         
         // Add workout history
-        addWorkoutRecord("Ahmet completed 30min cardio");
-        addWorkoutRecord("Mehmet completed strength training");
+        addWorkout(1, WorkoutLog.ExerciseType.CARDIO, 30, 0);
+        addWorkout(2, WorkoutLog.ExerciseType.STRENGTH, 45, 2400);
         
         saveData();
     }
@@ -152,14 +278,28 @@ public class GymService implements Serializable {
                            String email, Member.MembershipType type) {
         Member member = new Member(nextMemberId++, name, surname, phone, email, type);
         
-        // 7. Hash Table - Fast lookup
-        memberHashTable.put(member.getId(), member);
+        // 7. Hash Table - Fast lookup (locked with the prefix trie built from it)
+        synchronized (this) {
+            memberHashTable.put(member.getId(), member);
+            updatePrefixIndex(member, true);
+        }
         
         // 11. B+ Tree - Indexing
         memberIndex.insert(member.getId(), member);
         
-        // 1. Double Linked List - History
-        memberHistory.add("Added member: " + member.getFullName());
+        // 9. Name search index
+        if (memberNameIndex != null) {
+            memberNameIndex.add(member.getId(), member.getFoldedName());
+        }
+        if (memberNameArena != null) {
+            memberNameArena.add(member.getId(), member.getFoldedName());
+        }
+        if (memberFuzzyIndex != null) {
+            indexNameWords(memberFuzzyIndex, member);
+        }
+        
+        // 1. Ring Buffer - History
+        history.add("Added member: " + member.getFullName());
         
         // 4. Stack - Undo
         undoStack.push("ADD_MEMBER:" + member.getId());
@@ -179,24 +319,281 @@ public class GymService implements Serializable {
     }
     
     /**
-     * Search members by name using KMP algorithm
+     * Search members by name (substring, case and Turkish letter insensitive).
+     * Uses the trigram index; terms shorter than 3 characters have no
+     * trigrams and are scanned in parallel over the name arena.
      */
     public List<Member> searchMemberByName(String searchTerm) {
+        String term = TextFolding.fold(searchTerm);
+        if (term == null || term.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (term.length() < 3) {
+            int[] ids = getMemberNameArena().scan(term);
+            Arrays.sort(ids);
+            return membersOf(ids);
+        }
+        return membersOf(getMemberNameIndex().search(term));
+    }
+    
+    /**
+     * Search members whose name contains a match of a regular expression,
+     * e.g. "^a.*met$" or "(kaya|demir)". Matching is case insensitive and
+     * Turkish letters in the pattern match their plain forms. All names
+     * are scanned in parallel.
+     *
+     * @param regex Regular expression
+     * @return Matching members, empty if the pattern is invalid
+     */
+    public List<Member> searchMembersByPattern(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // Only non-ASCII letters are folded, regex syntax is all ASCII
+        StringBuilder folded = new StringBuilder(regex.length());
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            folded.append(c < 128 ? c : TextFolding.fold(c));
+        }
+        
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(folded.toString(), Pattern.CASE_INSENSITIVE);
+        } catch (PatternSyntaxException e) {
+            System.err.println("Invalid search pattern: " + e.getDescription());
+            return new ArrayList<>();
+        }
+        
+        int[] ids = getMemberNameArena().scan(pattern);
+        Arrays.sort(ids);
+        return membersOf(ids);
+    }
+    
+    private List<Member> membersOf(int[] ids) {
+        List<Member> results = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Member member = memberHashTable.get(id);
+            if (member != null) {
+                results.add(member);
+            }
+        }
+        return results;
+    }
+    
+    private TextArena getMemberNameArena() {
+        if (memberNameArena == null) {
+            TextArena arena = new TextArena();
+            for (Member member : memberHashTable.values()) {
+                arena.add(member.getId(), member.getFoldedName());
+            }
+            memberNameArena = arena;
+        }
+        return memberNameArena;
+    }
+    
+    /**
+     * Find members whose name or email contains any of the terms
+     * (case and Turkish letter insensitive). All terms are matched in one
+     * pass per member. Null and empty terms are ignored.
+     */
+    public List<Member> searchMembersByAnyTerm(List<String> terms) {
         List<Member> results = new ArrayList<>();
+        if (terms == null || terms.isEmpty()) {
+            return results;
+        }
         
+        List<String> folded = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            String foldedTerm = TextFolding.fold(term);
+            if (foldedTerm != null && !foldedTerm.isEmpty()) {
+                folded.add(foldedTerm);
+            }
+        }
+        if (folded.isEmpty()) {
+            return results;
+        }
+        AhoCorasick matcher = new AhoCorasick(folded);
         for (Member member : memberHashTable.values()) {
-            String fullName = member.getFullName().toLowerCase();
-            String term = searchTerm.toLowerCase();
-            
-            // 9. KMP Algorithm
-            if (kmpSearch.contains(fullName, term)) {
+            if (matcher.containsAny(member.getFoldedName())
+                    || matcher.containsAny(TextFolding.fold(member.getEmail()))) {
                 results.add(member);
             }
         }
+        return results;
+    }
+    
+    /**
+     * Typo tolerant name search. Every word of the term must be within
+     * maxDistance edits of some word of the member's name (case and
+     * Turkish letter insensitive), so "Mehmed Kaia" finds "Mehmet Kaya".
+     *
+     * @param searchTerm One or more words
+     * @param maxDistance Allowed edits per word
+     * @return Members ordered by total edits, then name
+     */
+    public List<Member> fuzzySearchMembers(String searchTerm, int maxDistance) {
+        List<Member> results = new ArrayList<>();
+        String folded = TextFolding.fold(searchTerm);
+        if (folded == null || folded.trim().isEmpty() || maxDistance < 0) {
+            return results;
+        }
+        
+        // Member id -> summed distance of its best word per query word
+        Map<Integer, Integer> scores = null;
+        for (String word : folded.trim().split("\\s+")) {
+            Map<Integer, Integer> wordScores = new HashMap<>();
+            for (BKTree.Match match : getMemberFuzzyIndex().search(word, maxDistance)) {
+                for (int id : match.getIds()) {
+                    // Matches come closest first, keep the first per member
+                    wordScores.putIfAbsent(id, match.getDistance());
+                }
+            }
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                scores.keySet().retainAll(wordScores.keySet());
+                for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+                    entry.setValue(entry.getValue() + wordScores.get(entry.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                return results;
+            }
+        }
         
+        for (Integer id : scores.keySet()) {
+            Member member = memberHashTable.get(id);
+            if (member != null) {
+                results.add(member);
+            }
+        }
+        final Map<Integer, Integer> totals = scores;
+        results.sort((a, b) -> {
+            int byScore = Integer.compare(totals.get(a.getId()), totals.get(b.getId()));
+            return byScore != 0 ? byScore : a.getFoldedName().compareTo(b.getFoldedName());
+        });
+        return results;
+    }
+    
+    /**
+     * Complete a typed prefix against member names (any word), emails and
+     * phone numbers. Safe to call from a background thread while members
+     * are added, deleted or loaded: those change the member table and the
+     * trie while holding this service's lock.
+     *
+     * @param prefix Typed text (case and Turkish letter insensitive)
+     * @param limit Maximum number of members
+     * @return Distinct members in completion order
+     */
+    public synchronized List<Member> autocompleteMembers(String prefix, final int limit) {
+        final List<Member> results = new ArrayList<>();
+        String key = TextFolding.fold(prefix);
+        if (key == null || limit <= 0) {
+            return results;
+        }
+        key = key.trim();
+        if (key.isEmpty()) {
+            return results;
+        }
+        if (key.matches("[0-9 ()+-]+")) {
+            key = key.replaceAll("[^0-9]", "");
+        }
+        
+        final Set<Integer> seen = new HashSet<>();
+        getMemberPrefixIndex().forEachWithPrefix(key, new RadixTrie.Visitor<Member>() {
+            public boolean visit(String completion, Member member) {
+                if (seen.add(member.getId())) {
+                    results.add(member);
+                }
+                return results.size() < limit;
+            }
+        });
         return results;
     }
     
+    /**
+     * Update the prefix trie, if built (caller holds this service's lock)
+     */
+    private void updatePrefixIndex(Member member, boolean add) {
+        if (memberPrefixIndex == null) {
+            return;
+        }
+        for (String key : prefixKeys(member)) {
+            if (add) {
+                memberPrefixIndex.put(key, member);
+            } else {
+                memberPrefixIndex.remove(key, member);
+            }
+        }
+    }
+    
+    private RadixTrie<Member> getMemberPrefixIndex() {
+        if (memberPrefixIndex == null) {
+            RadixTrie<Member> index = new RadixTrie<>();
+            for (Member member : memberHashTable.values()) {
+                for (String key : prefixKeys(member)) {
+                    index.put(key, member);
+                }
+            }
+            memberPrefixIndex = index;
+        }
+        return memberPrefixIndex;
+    }
+    
+    /**
+     * Full name, name from each later word, email, phone digits
+     */
+    private static List<String> prefixKeys(Member member) {
+        List<String> keys = new ArrayList<>();
+        List<String> words = Arrays.asList(nameWords(member));
+        for (int i = 0; i < words.size(); i++) {
+            keys.add(String.join(" ", words.subList(i, words.size())));
+        }
+        String email = TextFolding.fold(member.getEmail());
+        if (email != null && !email.isEmpty()) {
+            keys.add(email);
+        }
+        String phone = member.getPhoneNumber() == null ? "" : member.getPhoneNumber().replaceAll("[^0-9]", "");
+        if (!phone.isEmpty()) {
+            keys.add(phone);
+        }
+        return keys;
+    }
+    
+    private BKTree getMemberFuzzyIndex() {
+        if (memberFuzzyIndex == null) {
+            BKTree index = new BKTree();
+            for (Member member : memberHashTable.values()) {
+                indexNameWords(index, member);
+            }
+            memberFuzzyIndex = index;
+        }
+        return memberFuzzyIndex;
+    }
+    
+    private static void indexNameWords(BKTree index, Member member) {
+        for (String word : nameWords(member)) {
+            index.add(word, member.getId());
+        }
+    }
+    
+    private static String[] nameWords(Member member) {
+        String name = member.getFoldedName().trim();
+        return name.isEmpty() ? new String[0] : name.split("\\s+");
+    }
+    
+    private NGramIndex getMemberNameIndex() {
+        if (memberNameIndex == null) {
+            NGramIndex index = new NGramIndex();
+            for (Member member : memberHashTable.values()) {
+                index.add(member.getId(), member.getFoldedName());
+            }
+            memberNameIndex = index;
+        }
+        return memberNameIndex;
+    }
+    
     /**
      * Get all members
      */
@@ -211,14 +608,28 @@ public class GymService implements Serializable {
         Member member = searchMember(id);
         if (member == null) return false;
         
-        // Remove from hash table
-        memberHashTable.remove(id);
+        // Remove from hash table (locked with the prefix trie built from it)
+        synchronized (this) {
+            memberHashTable.remove(id);
+            updatePrefixIndex(member, false);
+        }
+        if (memberNameIndex != null) {
+            memberNameIndex.remove(id);
+        }
+        if (memberNameArena != null) {
+            memberNameArena.remove(id);
+        }
+        if (memberFuzzyIndex != null) {
+            for (String word : nameWords(member)) {
+                memberFuzzyIndex.remove(word, id);
+            }
+        }
         
         // Note: B+ tree delete can be complex, skip for now
         // In production, implement proper B+ tree deletion
         
         // Add to history
-        memberHistory.add("Deleted member: " + member.getFullName());
+        history.add("Deleted member: " + member.getFullName());
         
         // Add to undo stack
         undoStack.push("DELETE_MEMBER:" + id);
@@ -251,7 +662,7 @@ public class GymService implements Serializable {
         // 6. Min Heap - Priority queue
         appointmentHeap.insert(appointment);
         
-        memberHistory.add("Created appointment for: " + member.getFullName());
+        history.add("Created appointment for: " + member.getFullName());
         undoStack.push("ADD_APPOINTMENT:" + appointment.getId());
         
         saveData();
@@ -275,24 +686,86 @@ public class GymService implements Serializable {
         Appointment appointment = appointmentHeap.extractMin();
         appointment.setStatus(Appointment.AppointmentStatus.COMPLETED);
         
-        memberHistory.add("Processed appointment: " + appointment.getMemberName());
+        history.add("Processed appointment: " + appointment.getMemberName());
+        appointmentArchive.append(appointment);
         
         saveData();
         return appointment;
     }
     
+    /**
+     * Cancel pending appointment by ID
+     */
+    public Appointment cancelAppointment(int appointmentId) {
+        for (Appointment appointment : appointmentHeap.getAll()) {
+            if (appointment.getId() == appointmentId) {
+                appointmentHeap.remove(appointment);
+                appointment.setStatus(Appointment.AppointmentStatus.CANCELLED);
+                
+                history.add("Cancelled appointment: " + appointment.getMemberName());
+                appointmentArchive.append(appointment);
+                
+                saveData();
+                return appointment;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Get archived (completed/cancelled) appointments in date range
+     */
+    public List<Appointment> getArchivedAppointments(LocalDate from, LocalDate to) {
+        return appointmentArchive.findByDateRange(from, to);
+    }
+    
+    /**
+     * Get archived appointments of a member in date range
+     */
+    public List<Appointment> getArchivedAppointmentsByMember(int memberId, LocalDate from, LocalDate to) {
+        return appointmentArchive.findByMember(memberId, from, to);
+    }
+    
+    /**
+     * Get archived appointments of a service in date range
+     */
+    public List<Appointment> getArchivedAppointmentsByService(String service, LocalDate from, LocalDate to) {
+        return appointmentArchive.findByService(service, from, to);
+    }
+    
     // ==================== EQUIPMENT OPERATIONS ====================
     
     /**
-     * Add equipment
+     * Add equipment to the default branch, ground floor
      */
     public Equipment addEquipment(String name, String type, int quantity, int x, int y) {
+        return addEquipment(name, type, quantity, DEFAULT_BRANCH, 0, x, y);
+    }
+    
+    /**
+     * Add equipment on a branch floor
+     */
+    public Equipment addEquipment(String name, String type, int quantity,
+                                  String branch, int floor, int x, int y) {
         Equipment equipment = new Equipment(nextEquipmentId++, name, type, quantity, x, y);
+        equipment.setBranch(branch);
+        equipment.setFloor(floor);
         
-        // 3. Sparse Matrix - Location map
-        equipmentMap.set(x, y, equipment);
+        // 3. Sparse Matrix - Location map (tiled per branch floor)
+        int layer = equipmentGrid.getLayer(branch, floor);
+        Equipment replaced = equipmentGrid.set(layer, x, y, equipment);
+        if (equipmentIndex != null) {
+            if (replaced != null) {
+                equipmentIndex.remove(layer, x, y, replaced);
+            }
+            equipmentIndex.insert(layer, x, y, equipment.getType(), equipment);
+        }
+        
+        // 8. Graph - One vertex per equipment id
+        equipmentGraph.ensureVertex(equipment.getId());
+        maintenanceSchedule = null;
         
-        memberHistory.add("Added equipment: " + name);
+        history.add("Added equipment: " + name);
         undoStack.push("ADD_EQUIPMENT:" + equipment.getId());
         
         saveData();
@@ -300,20 +773,104 @@ public class GymService implements Serializable {
     }
     
     /**
-     * Get equipment at location
+     * Get equipment at location (default branch, ground floor)
      */
     public Equipment getEquipmentAt(int x, int y) {
-        return equipmentMap.get(x, y);
+        return getEquipmentAt(DEFAULT_BRANCH, 0, x, y);
+    }
+    
+    /**
+     * Get equipment at location on a branch floor
+     */
+    public Equipment getEquipmentAt(String branch, int floor, int x, int y) {
+        int layer = equipmentGrid.findLayer(branch, floor);
+        return layer >= 0 ? equipmentGrid.get(layer, x, y) : null;
     }
     
     /**
-     * Get all equipment
+     * Get all equipment (read-only view, cached until equipment changes)
      */
     public List<Equipment> getAllEquipment() {
-        List<Equipment> equipment = new ArrayList<>();
-        Map<String, Equipment> nonZero = equipmentMap.getNonZeroElements();
-        equipment.addAll(nonZero.values());
-        return equipment;
+        return equipmentGrid.values();
+    }
+    
+    /**
+     * Find equipment inside rectangle (inclusive), default branch, ground floor
+     *
+     * @param type Equipment type or null for all types
+     */
+    public List<Equipment> findEquipmentInArea(int x1, int y1, int x2, int y2, String type) {
+        return findEquipmentInArea(DEFAULT_BRANCH, 0, x1, y1, x2, y2, type);
+    }
+    
+    /**
+     * Find equipment inside rectangle (inclusive) on a branch floor
+     *
+     * @param type Equipment type or null for all types
+     */
+    public List<Equipment> findEquipmentInArea(String branch, int floor,
+                                               int x1, int y1, int x2, int y2, String type) {
+        int layer = equipmentGrid.findLayer(branch, floor);
+        if (layer < 0) {
+            return new ArrayList<>();
+        }
+        return getEquipmentIndex().rangeQuery(layer, x1, y1, x2, y2, type);
+    }
+    
+    /**
+     * Find equipment within distance of a location, nearest first
+     *
+     * @param type Equipment type or null for all types
+     */
+    public List<Equipment> findEquipmentWithinRadius(int x, int y, int radius, String type) {
+        return findEquipmentWithinRadius(DEFAULT_BRANCH, 0, x, y, radius, type);
+    }
+    
+    /**
+     * Find equipment within distance of a location on a branch floor
+     *
+     * @param type Equipment type or null for all types
+     */
+    public List<Equipment> findEquipmentWithinRadius(String branch, int floor,
+                                                     int x, int y, int radius, String type) {
+        int layer = equipmentGrid.findLayer(branch, floor);
+        if (layer < 0) {
+            return new ArrayList<>();
+        }
+        return getEquipmentIndex().radiusQuery(layer, x, y, radius, type);
+    }
+    
+    /**
+     * Find k nearest equipment to a location
+     *
+     * @param type Equipment type or null for all types
+     */
+    public List<Equipment> findNearestEquipment(int x, int y, int k, String type) {
+        return findNearestEquipment(DEFAULT_BRANCH, 0, x, y, k, type);
+    }
+    
+    /**
+     * Find k nearest equipment to a location on a branch floor
+     *
+     * @param type Equipment type or null for all types
+     */
+    public List<Equipment> findNearestEquipment(String branch, int floor,
+                                                int x, int y, int k, String type) {
+        int layer = equipmentGrid.findLayer(branch, floor);
+        if (layer < 0) {
+            return new ArrayList<>();
+        }
+        return getEquipmentIndex().nearest(layer, x, y, k, type);
+    }
+    
+    private SpatialIndex<Equipment> getEquipmentIndex() {
+        if (equipmentIndex == null) {
+            SpatialIndex<Equipment> index = new SpatialIndex<>();
+            equipmentGrid.forEach((layer, x, y, equipment) ->
+                index.insert(layer, x, y, equipment.getType(), equipment));
+            equipmentIndex = index;
+        }
+        return equipmentIndex;
     }
     
     /**
@@ -322,6 +879,61 @@ public class GymService implements Serializable {
     public void addEquipmentDependency(int from, int to) {
         // 8. Graph - Dependencies
         equipmentGraph.addEdge(from, to);
+        maintenanceSchedule = null;
+    }
+    
+    /**
+     * Remove equipment dependency
+     *
+     * @return True if the dependency existed
+     */
+    public boolean removeEquipmentDependency(int from, int to) {
+        boolean removed = equipmentGraph.removeEdge(from, to);
+        if (removed) {
+            maintenanceSchedule = null;
+        }
+        return removed;
+    }
+    
+    /**
+     * Set maintenance duration of equipment
+     *
+     * @return True if equipment was found
+     */
+    public boolean setEquipmentMaintenanceMinutes(int equipmentId, int minutes) {
+        if (minutes < 0) {
+            System.err.println("Maintenance duration cannot be negative");
+            return false;
+        }
+        
+        for (Equipment equipment : getAllEquipment()) {
+            if (equipment.getId() == equipmentId) {
+                equipment.setMaintenanceMinutes(minutes);
+                maintenanceSchedule = null;
+                saveData();
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get maintenance schedule for equipment dependencies.
+     * Result is cached until dependencies or durations change.
+     */
+    public MaintenanceScheduler.Schedule getMaintenanceSchedule() {
+        MaintenanceScheduler.Schedule schedule = maintenanceSchedule;
+        if (schedule == null) {
+            int[] durations = new int[equipmentGraph.getVertices()];
+            for (Equipment equipment : getAllEquipment()) {
+                if (equipment.getId() < durations.length) {
+                    durations[equipment.getId()] = equipment.getMaintenanceMinutes();
+                }
+            }
+            schedule = new MaintenanceScheduler(equipmentGraph).schedule(durations);
+            maintenanceSchedule = schedule;
+        }
+        return schedule;
     }
     
     /**
@@ -331,6 +943,17 @@ public class GymService implements Serializable {
         return equipmentGraph.bfs(start);
     }
     
+    /**
+     * BFS traversal of equipment dependencies on several threads.
+     * Parallelism 1 falls back to the sequential traversal.
+     */
+    public List<Integer> bfsTraversal(int start, int parallelism) {
+        if (parallelism <= 1) {
+            return equipmentGraph.bfs(start);
+        }
+        return equipmentGraph.parallelBfs(start, parallelism);
+    }
+    
     /**
      * DFS traversal of equipment dependencies
      */
@@ -353,7 +976,7 @@ public class GymService implements Serializable {
     public void addToWaitingQueue(Member member) {
         // 5. Queue - FIFO
         waitingQueue.enqueue(member);
-        memberHistory.add("Added to queue: " + member.getFullName());
+        history.add("Added to queue: " + member.getFullName());
         saveData();
     }
     
@@ -364,7 +987,7 @@ public class GymService implements Serializable {
         if (waitingQueue.isEmpty()) return null;
         
         Member member = waitingQueue.dequeue();
-        memberHistory.add("Processed from queue: " + member.getFullName());
+        history.add("Processed from queue: " + member.getFullName());
         
         saveData();
         return member;
@@ -383,21 +1006,66 @@ public class GymService implements Serializable {
      * Navigate history forward
      */
     public String navigateHistoryForward() {
-        return memberHistory.navigateForward();
+        return history.navigateForward();
     }
     
     /**
      * Navigate history backward
      */
     public String navigateHistoryBackward() {
-        return memberHistory.navigateBackward();
+        return history.navigateBackward();
     }
     
     /**
      * Get current history
      */
     public String getCurrentHistory() {
-        return memberHistory.getCurrent();
+        return history.getCurrent();
+    }
+    
+    /**
+     * Get complete history, oldest first: spilled entries from disk,
+     * then the entries still in memory
+     */
+    public List<String> getFullHistory() {
+        List<String> entries = historySpill.readAll();
+        for (String entry : history) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+    
+    /**
+     * Get one page of the complete history, oldest first. Spilled entries
+     * are read from disk, skipping segments before the page.
+     *
+     * @param offset Index of the first entry, 0 is the oldest spilled entry
+     * @param limit Maximum number of entries
+     */
+    public List<String> getHistoryPage(long offset, int limit) {
+        long from = Math.max(0, offset);
+        int count = Math.max(0, limit);
+        long spilled = historySpill.size();
+        List<String> page = from < spilled ? historySpill.read(from, count) : new ArrayList<>();
+        long to = Math.min(Math.max(from, spilled) + count - page.size(), spilled + history.size());
+        for (long i = Math.max(from, spilled); i < to; i++) {
+            page.add(history.get((int) (i - spilled)));
+        }
+        return page;
+    }
+    
+    /**
+     * Get number of entries in the complete history, spilled and in memory
+     */
+    public long getHistorySize() {
+        return historySpill.size() + history.size();
+    }
+    
+    /**
+     * Get number of history entries moved out of memory
+     */
+    public long getSpilledHistoryCount() {
+        return historySpill.size();
     }
     
     /**
@@ -407,45 +1075,294 @@ public class GymService implements Serializable {
         if (undoStack.isEmpty()) return null;
         
         String action = undoStack.pop();
-        memberHistory.add("Undone: " + action);
+        history.add("Undone: " + action);
         
         saveData();
         return action;
     }
     
-    // ==================== WORKOUT HISTORY (XOR List) ====================
+    // ==================== WORKOUT HISTORY (Workout Log) ====================
     
     /**
-     * Add workout record
+     * Add free text workout record, not linked to a member
      */
     public void addWorkoutRecord(String record) {
-        // 2. XOR Linked List
-        workoutHistory.add(record);
+        // 2. Workout Log
+        LocalDateTime now = LocalDateTime.now();
+        workoutLog.add(WorkoutLog.NO_MEMBER, now, WorkoutLog.ExerciseType.OTHER, 0, 0, record);
+        workoutRollup.add(null, WorkoutLog.ExerciseType.OTHER, now, 0, 0);
         saveData();
     }
     
     /**
-     * Get workout history
+     * Add workout of a member, done now
+     */
+    public boolean addWorkout(int memberId, WorkoutLog.ExerciseType type, int durationMinutes, double volume) {
+        return addWorkout(memberId, type, LocalDateTime.now(), durationMinutes, volume);
+    }
+    
+    /**
+     * Add workout of a member at the default branch
+     */
+    public boolean addWorkout(int memberId, WorkoutLog.ExerciseType type, LocalDateTime time,
+                              int durationMinutes, double volume) {
+        return addWorkout(memberId, type, DEFAULT_BRANCH, time, durationMinutes, volume);
+    }
+    
+    /**
+     * Add workout of a member
+     *
+     * @param memberId Member id
+     * @param type Exercise type
+     * @param branch Branch where the workout took place
+     * @param time Time of the workout
+     * @param durationMinutes Duration in minutes
+     * @param volume Kilograms lifted (0 for cardio)
+     * @return True if the workout was recorded
+     */
+    public boolean addWorkout(int memberId, WorkoutLog.ExerciseType type, String branch,
+                              LocalDateTime time, int durationMinutes, double volume) {
+        Member member = searchMember(memberId);
+        if (member == null || type == null || branch == null || time == null
+                || durationMinutes < 0 || volume < 0) {
+            return false;
+        }
+        
+        String note = member.getFullName() + " - " + type + " " + durationMinutes + " min"
+                + (volume > 0 ? String.format(Locale.ROOT, ", %.1f kg", volume) : "");
+        workoutLog.add(memberId, branch, time, type, durationMinutes * 60, volume, note);
+        workoutRollup.add(branch, type, time, durationMinutes * 60, volume);
+        saveData();
+        return true;
+    }
+    
+    /**
+     * Get workout history as a read-only view (no copy)
      */
     public List<String> getWorkoutHistory() {
-        return workoutHistory.traverseForward();
+        return workoutLog.notes();
+    }
+    
+    /**
+     * Get workout totals of a member (or {@link WorkoutLog#ANY_MEMBER}) in a period
+     *
+     * @param type Exercise type or null for all types
+     * @param from Start time (inclusive) or null
+     * @param to End time (inclusive) or null
+     */
+    public WorkoutLog.Summary getWorkoutSummary(int memberId, WorkoutLog.ExerciseType type,
+                                                LocalDateTime from, LocalDateTime to) {
+        return workoutLog.summarize(memberId, type, from, to);
+    }
+    
+    /**
+     * Get workout totals of a branch from the rollup buckets, without
+     * scanning records. The buckets are saved with the data, so periods
+     * older than the minute/hour retention stay resolved to hours/days.
+     *
+     * @param branch Branch or null for all branches
+     * @param type Exercise type or null for all types
+     * @param from Start (inclusive)
+     * @param to End (exclusive)
+     */
+    public WorkoutLog.Summary getWorkoutTotals(String branch, WorkoutLog.ExerciseType type,
+                                               LocalDateTime from, LocalDateTime to) {
+        return workoutRollup.aggregate(branch, type, from, to);
+    }
+    
+    /**
+     * Get workout totals per bucket, e.g. cardio minutes per day of a branch
+     *
+     * @return Bucket start to totals, in time order
+     */
+    public Map<LocalDateTime, WorkoutLog.Summary> getWorkoutTimeline(String branch, WorkoutLog.ExerciseType type,
+                                                                     WorkoutRollup.Resolution resolution,
+                                                                     LocalDateTime from, LocalDateTime to) {
+        return workoutRollup.buckets(branch, type, resolution, from, to);
+    }
+    
+    /**
+     * Build the rollup from the workout log, for data files saved without
+     * one (caller holds lock or owns the service)
+     */
+    private WorkoutRollup buildWorkoutRollup() {
+        WorkoutRollup rollup = new WorkoutRollup();
+        for (int i = 0; i < workoutLog.size(); i++) {
+            LocalDateTime time = workoutLog.getTime(i);
+            if (!time.equals(WorkoutLog.UNKNOWN_TIME)) {    // Migrated records belong to no period
+                rollup.add(workoutLog.getBranch(i), workoutLog.getType(i), time,
+                        workoutLog.getDuration(i), workoutLog.getVolume(i));
+            }
+        }
+        return rollup;
+    }
+    
+    /**
+     * Get workout totals per member in a period
+     */
+    public Map<Integer, WorkoutLog.Summary> getWorkoutSummaryByMember(WorkoutLog.ExerciseType type,
+                                                                       LocalDateTime from, LocalDateTime to) {
+        return workoutLog.summarizeByMember(type, from, to);
+    }
+    
+    /**
+     * Get one page of workout history, oldest first
+     *
+     * @param offset Index of the first record
+     * @param limit Maximum number of records
+     */
+    public List<String> getWorkoutHistoryPage(int offset, int limit) {
+        int from = Math.max(0, Math.min(offset, workoutLog.size()));
+        int to = (int) Math.min((long) from + Math.max(0, limit), workoutLog.size());
+        return new ArrayList<>(workoutLog.notes().subList(from, to));
+    }
+    
+    public int getWorkoutHistorySize() {
+        return workoutLog.size();
+    }
+    
+    /**
+     * Find workout records containing any of the terms (case insensitive).
+     * Null and empty terms are ignored.
+     */
+    public List<String> searchWorkoutHistory(List<String> terms) {
+        List<String> results = new ArrayList<>();
+        if (terms == null || terms.isEmpty()) {
+            return results;
+        }
+        
+        List<String> usable = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            if (term != null && !term.isEmpty()) {
+                usable.add(term);
+            }
+        }
+        if (usable.isEmpty()) {
+            return results;
+        }
+        AhoCorasick matcher = new AhoCorasick(usable, true);
+        for (String record : workoutLog.notes()) {
+            if (matcher.containsAny(record)) {
+                results.add(record);
+            }
+        }
+        return results;
     }
     
     // ==================== DATA COMPRESSION ====================
     
     /**
-     * Compress data using Huffman coding
+     * Compress text (UTF-8) using Huffman coding
+     *
+     * @return Packed bytes, see {@link HuffmanCoding#compress(byte[])}
      */
-    public String compressData(String data) {
+    public byte[] compressData(String data) {
         // 10. Huffman Coding
-        return huffman.encode(data);
+        byte[] bytes = data == null ? new byte[0] : data.getBytes(StandardCharsets.UTF_8);
+        return HuffmanCoding.compress(bytes);
+    }
+    
+    /**
+     * Decompress data packed by {@link #compressData(String)}
+     *
+     * @return Text, or empty string if data is missing or corrupt
+     */
+    public String decompressData(byte[] compressed) {
+        if (compressed == null || compressed.length == 0) {
+            return "";
+        }
+        try {
+            return new String(HuffmanCoding.decompress(compressed), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error decompressing data: " + e.getMessage());
+            return "";
+        }
+    }
+    
+    /**
+     * Compress many records concurrently. Every result is a
+     * self-contained payload that decompresses on its own.
+     *
+     * @return Packed records, same order as input
+     */
+    public List<byte[]> compressAll(List<String> records) {
+        if (records == null) {
+            return new ArrayList<>();
+        }
+        return records.parallelStream()
+                .map(this::compressData)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Decompress many payloads concurrently
+     *
+     * @return Texts, same order as input
+     */
+    public List<String> decompressAll(List<byte[]> payloads) {
+        if (payloads == null) {
+            return new ArrayList<>();
+        }
+        return payloads.parallelStream()
+                .map(this::decompressData)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Train the history dictionary on the current member and workout
+     * history. It is saved with the next {@link #saveData()} and used for
+     * history spilled from now on; records packed with an older dictionary
+     * are rejected by its id.
+     */
+    public synchronized void trainHistoryDictionary() {
+        List<byte[]> samples = new ArrayList<>();
+        for (String record : history) {
+            samples.add(record.getBytes(StandardCharsets.UTF_8));
+        }
+        for (String record : workoutLog.notes()) {
+            samples.add(record.getBytes(StandardCharsets.UTF_8));
+        }
+        historyDictionary = HuffmanCoding.train(samples);
+        historySpill.setDictionary(historyDictionary);
+    }
+    
+    /**
+     * Compress one short history record against the shared dictionary.
+     * Without a trained dictionary the one of the spill file is used,
+     * else one is trained on the current history.
+     *
+     * @return Packed bytes, see {@link HuffmanCoding.Dictionary#compress(byte[])}
+     */
+    public byte[] compressHistoryRecord(String record) {
+        byte[] bytes = record == null ? new byte[0] : record.getBytes(StandardCharsets.UTF_8);
+        return getHistoryDictionary().compress(bytes);
     }
     
     /**
-     * Decompress data
+     * Decompress a record packed by {@link #compressHistoryRecord(String)}
+     *
+     * @return Text, or empty string if data is missing or corrupt
      */
-    public String decompressData(String compressed) {
-        return huffman.decode(compressed);
+    public String decompressHistoryRecord(byte[] packed) {
+        if (packed == null || packed.length == 0) {
+            return "";
+        }
+        try {
+            return new String(getHistoryDictionary().decompress(packed), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error decompressing history record: " + e.getMessage());
+            return "";
+        }
+    }
+    
+    private synchronized HuffmanCoding.Dictionary getHistoryDictionary() {
+        if (historyDictionary == null) {
+            historyDictionary = historySpill.getDictionary();
+        }
+        if (historyDictionary == null) {
+            trainHistoryDictionary();
+        }
+        return historyDictionary;
     }
     
     // ==================== RANGE QUERIES (B+ Tree) ====================
@@ -466,17 +1383,20 @@ public class GymService implements Serializable {
         Map<String, Object> stats = new LinkedHashMap<>();
         
         stats.put("Total Members", memberHashTable.size());
-        stats.put("Total Equipment", equipmentMap.getNonZeroCount());
+        stats.put("Total Equipment", equipmentGrid.size());
         stats.put("Queue Size", waitingQueue.size());
         stats.put("Pending Appointments", appointmentHeap.size());
-        stats.put("History Records", memberHistory.size());
-        stats.put("Workout Records", workoutHistory.size());
+        stats.put("History Records", history.size());
+        stats.put("Spilled History Records", historySpill.size());
+        stats.put("Workout Records", workoutLog.size());
         stats.put("Undo Stack Size", undoStack.size());
         
         stats.put("Hash Table Load", 
             String.format("%.2f", memberHashTable.getAverageChainLength()));
-        stats.put("Matrix Sparsity", 
-            String.format("%.2f%%", equipmentMap.getSparsity() * 100));
+        stats.put("Equipment Tiles", equipmentGrid.getTileCount());
+        stats.put("Tile Occupancy", 
+            String.format("%.2f%% avg, %.2f%% max", equipmentGrid.getAverageTileOccupancy() * 100,
+                equipmentGrid.getMaxTileOccupancy() * 100));
         stats.put("File Operations", fileOperations.size());
         
         return stats;
@@ -485,10 +1405,11 @@ public class GymService implements Serializable {
     // ==================== DATA PERSISTENCE ====================
     
     /**
-     * Save data to binary file
+     * Save data to binary file (block compressed; plain files from
+     * older versions still load)
      */
     public void saveData() {
-        BinaryFileStorage.save(DATA_FILE, this);
+        BinaryFileStorage.save(DATA_FILE, this, COMPRESS_DATA_FILE);
     }
     
     /**
@@ -497,7 +1418,9 @@ public class GymService implements Serializable {
     public void loadData() {
         GymService loaded = BinaryFileStorage.load(DATA_FILE);
         if (loaded != null) {
-            copyFrom(loaded);
+            synchronized (this) {
+                copyFrom(loaded);
+            }
         }
     }
     
@@ -0,0 +1,236 @@
+package com.ibrahim.mehdi.gymmanager.util;
+
+import com.ibrahim.mehdi.gymmanager.model.Appointment;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only on-disk archive for processed appointments.
+ * Records are partitioned into one file per appointment day, so a date
+ * range query only opens the partitions that overlap the range and
+ * completed sessions never have to stay in the live heap.
+ *
+ * Record layout: length, memberId, id, epochSecond, nano, priority,
+ * status, memberName, service. The member id comes first so member
+ * queries can skip non-matching records without decoding strings.
+ *
+ * @author ibrahim.mehdi
+ */
+public class AppointmentArchive {
+    
+    private static final String PARTITION_PREFIX = "appointments-";
+    private static final String PARTITION_SUFFIX = ".dat";
+    
+    private final File directory;
+    
+    /**
+     * Constructor with archive directory
+     *
+     * @param directory Directory holding the partition files
+     */
+    public AppointmentArchive(String directory) {
+        this(new File(directory));
+    }
+    
+    /**
+     * Constructor with archive directory
+     *
+     * @param directory Directory holding the partition files
+     */
+    public AppointmentArchive(File directory) {
+        this.directory = directory;
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+    }
+    
+    /**
+     * Append appointment to the partition of its day
+     *
+     * @param appointment Completed or cancelled appointment
+     * @return True if the record was written
+     */
+    public boolean append(Appointment appointment) {
+        if (appointment == null) {
+            return false;
+        }
+        
+        LocalDateTime time = appointment.getAppointmentTime() != null
+                ? appointment.getAppointmentTime() : LocalDateTime.now();
+        File partition = partitionFile(time.toLocalDate());
+        
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(partition, true)))) {
+            byte[] record = encode(appointment, time);
+            out.writeInt(record.length);
+            out.write(record);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error archiving appointment: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Find archived appointments in date range (inclusive)
+     */
+    public List<Appointment> findByDateRange(LocalDate from, LocalDate to) {
+        return query(from, to, null, null);
+    }
+    
+    /**
+     * Find archived appointments of a member in date range (inclusive)
+     */
+    public List<Appointment> findByMember(int memberId, LocalDate from, LocalDate to) {
+        return query(from, to, memberId, null);
+    }
+    
+    /**
+     * Find archived appointments of a service in date range (inclusive)
+     */
+    public List<Appointment> findByService(String service, LocalDate from, LocalDate to) {
+        return query(from, to, null, service);
+    }
+    
+    /**
+     * Query archive. Null arguments are not used as filters.
+     *
+     * @param from First day (inclusive) or null for no lower bound
+     * @param to Last day (inclusive) or null for no upper bound
+     * @param memberId Member id filter or null
+     * @param service Service filter (case insensitive) or null
+     * @return Matching appointments ordered by day, then append order
+     */
+    public List<Appointment> query(LocalDate from, LocalDate to, Integer memberId, String service) {
+        List<Appointment> result = new ArrayList<>();
+        
+        for (LocalDate day : getPartitionDates()) {
+            if ((from != null && day.isBefore(from)) || (to != null && day.isAfter(to))) {
+                continue;
+            }
+            scanPartition(partitionFile(day), memberId, service, result);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Get days that have archived appointments, sorted ascending
+     */
+    public List<LocalDate> getPartitionDates() {
+        List<LocalDate> dates = new ArrayList<>();
+        String[] names = directory.list();
+        if (names == null) {
+            return dates;
+        }
+        
+        Arrays.sort(names);
+        for (String name : names) {
+            if (!name.startsWith(PARTITION_PREFIX) || !name.endsWith(PARTITION_SUFFIX)) {
+                continue;
+            }
+            String date = name.substring(PARTITION_PREFIX.length(),
+                    name.length() - PARTITION_SUFFIX.length());
+            try {
+                dates.add(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                // Not a partition file
+            }
+        }
+        return dates;
+    }
+    
+    /**
+     * Delete partitions older than the given day (retention policy)
+     *
+     * @param before First day to keep
+     * @return Number of deleted partitions
+     */
+    public int deleteBefore(LocalDate before) {
+        int deleted = 0;
+        for (LocalDate day : getPartitionDates()) {
+            if (day.isBefore(before) && partitionFile(day).delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+    
+    /**
+     * Get archive directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+    
+    private File partitionFile(LocalDate day) {
+        return new File(directory, PARTITION_PREFIX + day + PARTITION_SUFFIX);
+    }
+    
+    private byte[] encode(Appointment appointment, LocalDateTime time) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(appointment.getMemberId());
+        out.writeInt(appointment.getId());
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+        out.writeInt(appointment.getPriority());
+        out.writeByte(appointment.getStatus() != null ? appointment.getStatus().ordinal() : -1);
+        out.writeUTF(appointment.getMemberName() != null ? appointment.getMemberName() : "");
+        out.writeUTF(appointment.getService() != null ? appointment.getService() : "");
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    private void scanPartition(File partition, Integer memberId, String service,
+                               List<Appointment> result) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(partition)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                
+                int recordMember = in.readInt();
+                if (memberId != null && recordMember != memberId) {
+                    in.skipBytes(length - 4);
+                    continue;
+                }
+                
+                Appointment appointment = decode(recordMember, in);
+                if (service == null || service.equalsIgnoreCase(appointment.getService())) {
+                    result.add(appointment);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading archive partition: " + e.getMessage());
+        }
+    }
+    
+    private Appointment decode(int memberId, DataInputStream in) throws IOException {
+        int id = in.readInt();
+        long epochSecond = in.readLong();
+        int nano = in.readInt();
+        int priority = in.readInt();
+        int status = in.readByte();
+        String memberName = in.readUTF();
+        String service = in.readUTF();
+        
+        Appointment appointment = new Appointment(id, memberId, memberName,
+                LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC), service, priority);
+        if (status >= 0 && status < Appointment.AppointmentStatus.values().length) {
+            appointment.setStatus(Appointment.AppointmentStatus.values()[status]);
+        }
+        return appointment;
+    }
+}
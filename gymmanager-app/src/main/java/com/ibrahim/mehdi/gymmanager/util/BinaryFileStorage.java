@@ -4,12 +4,16 @@ import java.io.*;
 
 /**
  * Binary file storage utility for saving/loading data.
+ * Files can optionally be compressed into a {@link BlockCompressedFile}
+ * (blocks packed and unpacked in parallel). load() recognizes the format
+ * by its header and reads it as a stream, a few blocks at a time.
  * 
  * @author ibrahim.mehdi
  */
 public class BinaryFileStorage {
     
     private static final String DATA_DIR = "data";
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
     
     static {
         File dir = new File(DATA_DIR);
@@ -22,8 +26,20 @@ public class BinaryFileStorage {
      * Save object to binary file
      */
     public static <T> boolean save(String filename, T object) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(DATA_DIR + File.separator + filename))) {
+        return save(filename, object, false);
+    }
+    
+    /**
+     * Save object to binary file
+     * 
+     * @param compress Block compress the file
+     */
+    public static <T> boolean save(String filename, T object, boolean compress) {
+        File path = new File(DATA_DIR + File.separator + filename);
+        try (OutputStream file = new BufferedOutputStream(compress
+                ? new BlockCompressedFile.Writer(path, BlockCompressedFile.DEFAULT_BLOCK_SIZE, PARALLELISM)
+                : new FileOutputStream(path));
+             ObjectOutputStream oos = new ObjectOutputStream(file)) {
             oos.writeObject(object);
             return true;
         } catch (IOException e) {
@@ -42,8 +58,19 @@ public class BinaryFileStorage {
             return null;
         }
         
+        if (BlockCompressedFile.isBlockFile(file)) {
+            try (BlockCompressedFile blocks = new BlockCompressedFile(file);
+                 ObjectInputStream ois = new ObjectInputStream(
+                    new BufferedInputStream(blocks.openStream(PARALLELISM)))) {
+                return (T) ois.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                System.err.println("Error loading from file: " + e.getMessage());
+                return null;
+            }
+        }
+        
         try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(file))) {
+                new BufferedInputStream(new FileInputStream(file)))) {
             return (T) ois.readObject();
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error loading from file: " + e.getMessage());
@@ -51,6 +78,21 @@ public class BinaryFileStorage {
         }
     }
     
+    /**
+     * Check if file was saved compressed
+     */
+    public static boolean isCompressed(String filename) {
+        File file = new File(DATA_DIR + File.separator + filename);
+        return file.exists() && BlockCompressedFile.isBlockFile(file);
+    }
+    
+    /**
+     * Get the path of a stored file
+     */
+    public static File getFile(String filename) {
+        return new File(DATA_DIR + File.separator + filename);
+    }
+    
     /**
      * Check if file exists
      */
@@ -58,6 +100,29 @@ public class BinaryFileStorage {
         return new File(DATA_DIR + File.separator + filename).exists();
     }
     
+    /**
+     * Move a file aside so it is not overwritten, e.g. one that could
+     * not be loaded. The copy is named filename.unreadable, with a
+     * timestamp added if that name is taken.
+     *
+     * @return Moved file, or null if nothing was moved
+     */
+    public static File moveAside(String filename) {
+        File file = getFile(filename);
+        if (!file.exists()) {
+            return null;
+        }
+        File target = getFile(filename + ".unreadable");
+        if (target.exists()) {
+            target = getFile(filename + ".unreadable." + System.currentTimeMillis());
+        }
+        if (!file.renameTo(target)) {
+            System.err.println("Error moving unreadable file: " + file.getPath());
+            return null;
+        }
+        return target;
+    }
+    
     /**
      * Delete file
      */
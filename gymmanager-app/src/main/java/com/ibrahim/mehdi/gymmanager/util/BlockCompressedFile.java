@@ -0,0 +1,407 @@
+package com.ibrahim.mehdi.gymmanager.util;
+
+import com.ibrahim.mehdi.gymmanager.datastructures.HuffmanCoding;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Block compressed file with an index for random access.
+ * Data is cut into fixed size blocks that are Huffman packed
+ * independently ({@link HuffmanCoding#compress(byte[])}), so blocks can
+ * be compressed and decompressed in parallel and any byte range can be
+ * read by decoding only the blocks that hold it. {@link #openStream(int)}
+ * reads the whole file in order with bounded memory. Blocks are packed and
+ * unpacked on the common fork/join pool, so saves and loads start no
+ * threads of their own.
+ *
+ * File layout:
+ * <pre>
+ *   "GHB1", block size (int)
+ *   packed blocks
+ *   index: block count (int), per block offset (long) + packed length (int)
+ *   footer: index offset (long), data length (long), "GHB1"
+ * </pre>
+ *
+ * @author ibrahim.mehdi
+ */
+public class BlockCompressedFile implements Closeable {
+    
+    /** First and last bytes of every block compressed file */
+    public static final byte[] MAGIC = {'G', 'H', 'B', '1'};
+    
+    public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+    
+    private static final int FOOTER_SIZE = 8 + 8 + 4;
+    
+    private final RandomAccessFile file;
+    private final int blockSize;
+    private final long length;
+    private final long[] offsets;
+    private final int[] packedLengths;
+    
+    // Last decoded block, for sequential random reads
+    private int cachedBlock = -1;
+    private byte[] cachedData;
+    
+    /**
+     * Open a block compressed file and read its index
+     *
+     * @throws IOException If the file is not in block format
+     */
+    public BlockCompressedFile(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "r");
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            if (file.length() < 8 + FOOTER_SIZE) {
+                throw new IOException("Not a block compressed file");
+            }
+            file.readFully(magic);
+            this.blockSize = file.readInt();
+            file.seek(file.length() - FOOTER_SIZE);
+            long indexOffset = file.readLong();
+            this.length = file.readLong();
+            byte[] trailer = new byte[MAGIC.length];
+            file.readFully(trailer);
+            if (!Arrays.equals(magic, MAGIC) || !Arrays.equals(trailer, MAGIC) || blockSize <= 0) {
+                throw new IOException("Not a block compressed file");
+            }
+            
+            file.seek(indexOffset);
+            int blocks = file.readInt();
+            if (blocks < 0 || (long) blocks * blockSize < length) {
+                throw new IOException("Corrupt block index");
+            }
+            this.offsets = new long[blocks];
+            this.packedLengths = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                offsets[i] = file.readLong();
+                packedLengths[i] = file.readInt();
+            }
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Check if a file starts with the block format header
+     */
+    public static boolean isBlockFile(File path) {
+        try (InputStream in = new FileInputStream(path)) {
+            byte[] magic = new byte[MAGIC.length];
+            return in.read(magic) == magic.length && Arrays.equals(magic, MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Get uncompressed data length
+     */
+    public long length() {
+        return length;
+    }
+    
+    public int getBlockCount() {
+        return offsets.length;
+    }
+    
+    public int getBlockSize() {
+        return blockSize;
+    }
+    
+    /**
+     * Decode one block
+     *
+     * @param index Block number
+     * @return Uncompressed bytes of the block
+     */
+    public byte[] readBlock(int index) throws IOException {
+        if (index < 0 || index >= offsets.length) {
+            throw new IndexOutOfBoundsException("Block: " + index);
+        }
+        byte[] packed = new byte[packedLengths[index]];
+        synchronized (file) {
+            file.seek(offsets[index]);
+            file.readFully(packed);
+        }
+        byte[] data;
+        try {
+            data = HuffmanCoding.decompress(packed);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt block " + index + ": " + e.getMessage());
+        }
+        if (data.length != Math.min(blockSize, length - (long) index * blockSize)) {
+            throw new IOException("Corrupt block " + index + ": wrong length");
+        }
+        return data;
+    }
+    
+    /**
+     * Read a byte range, decoding only the blocks that hold it
+     *
+     * @param position Offset in uncompressed data
+     * @return Number of bytes read, -1 at end of data
+     */
+    public synchronized int read(long position, byte[] b, int off, int len) throws IOException {
+        if (position < 0 || off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (position >= length) {
+            return -1;
+        }
+        len = (int) Math.min(len, length - position);
+        int done = 0;
+        while (done < len) {
+            int block = (int) ((position + done) / blockSize);
+            if (block != cachedBlock) {
+                cachedData = readBlock(block);
+                cachedBlock = block;
+            }
+            int from = (int) ((position + done) - (long) block * blockSize);
+            int chunk = Math.min(len - done, cachedData.length - from);
+            System.arraycopy(cachedData, from, b, off + done, chunk);
+            done += chunk;
+        }
+        return done;
+    }
+    
+    /**
+     * Decode the whole file, blocks in parallel
+     *
+     * @param parallelism Maximum number of blocks decoded at the same time
+     * @return Uncompressed data
+     */
+    public byte[] readAll(int parallelism) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Data too large for one array");
+        }
+        byte[] data = new byte[(int) length];
+        for (int first = 0; first < offsets.length; first += parallelism) {
+            byte[][] blocks = readBlocks(first, Math.min(parallelism, offsets.length - first));
+            for (int i = 0; i < blocks.length; i++) {
+                System.arraycopy(blocks[i], 0, data, (first + i) * blockSize, blocks[i].length);
+            }
+        }
+        return data;
+    }
+    
+    /**
+     * Open a stream over the uncompressed data. The next parallelism
+     * blocks are decoded together, so memory is bounded by
+     * parallelism x block size however large the file is.
+     *
+     * @param parallelism Maximum number of blocks decoded at the same time
+     */
+    public InputStream openStream(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        return new InputStream() {
+            private byte[][] batch = new byte[0][];
+            private int nextBlock;      // First block after the batch
+            private int index;          // Block of the batch being read
+            private int position;       // Offset in that block
+            
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+            }
+            
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (off < 0 || len < 0 || off + len > b.length) {
+                    throw new IndexOutOfBoundsException();
+                }
+                if (len == 0) {
+                    return 0;
+                }
+                while (index == batch.length || position == batch[index].length) {
+                    if (index < batch.length) {
+                        index++;
+                        position = 0;
+                        continue;
+                    }
+                    if (nextBlock == offsets.length) {
+                        return -1;
+                    }
+                    int count = Math.min(parallelism, offsets.length - nextBlock);
+                    batch = readBlocks(nextBlock, count);
+                    nextBlock += count;
+                    index = 0;
+                    position = 0;
+                }
+                int chunk = Math.min(len, batch[index].length - position);
+                System.arraycopy(batch[index], position, b, off, chunk);
+                position += chunk;
+                return chunk;
+            }
+        };
+    }
+    
+    /**
+     * Decode consecutive blocks on the common pool
+     */
+    private byte[][] readBlocks(int first, int count) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        List<Future<byte[]>> tasks = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            final int index = i;
+            tasks.add(pool.submit(() -> readBlock(index)));
+        }
+        byte[][] blocks = new byte[count][];
+        try {
+            for (int i = 0; i < count; i++) {
+                blocks[i] = tasks.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decoding");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+        return blocks;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+    
+    /**
+     * Output stream that writes a block compressed file.
+     * Up to parallelism blocks are buffered and compressed together, so
+     * memory is bounded by parallelism x block size.
+     */
+    public static class Writer extends OutputStream {
+        private final DataOutputStream out;
+        private final int blockSize;
+        private final ForkJoinPool pool;
+        private final byte[][] pending;
+        private int pendingCount;
+        private final List<long[]> index = new ArrayList<>();
+        private long position;
+        private long length;
+        private boolean closed;
+        
+        /**
+         * Constructor
+         *
+         * @param path File to create
+         * @param blockSize Uncompressed bytes per block
+         * @param parallelism Blocks compressed at the same time
+         */
+        public Writer(File path, int blockSize, int parallelism) throws IOException {
+            if (blockSize <= 0 || parallelism < 1) {
+                throw new IllegalArgumentException("Block size and parallelism must be positive");
+            }
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+            this.blockSize = blockSize;
+            this.pool = ForkJoinPool.commonPool();
+            this.pending = new byte[parallelism][];
+            out.write(MAGIC);
+            out.writeInt(blockSize);
+            position = MAGIC.length + 4;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Writer closed");
+            }
+            if (off < 0 || len < 0 || off + len > b.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            while (len > 0) {
+                byte[] block = current();
+                int used = (int) (length % blockSize);
+                int chunk = Math.min(len, blockSize - used);
+                System.arraycopy(b, off, block, used, chunk);
+                length += chunk;
+                off += chunk;
+                len -= chunk;
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                int tail = (int) (length % blockSize);
+                if (pendingCount > 0 && tail > 0) {
+                    pending[pendingCount - 1] = Arrays.copyOf(pending[pendingCount - 1], tail);
+                }
+                flushBlocks();
+                
+                long indexOffset = position;
+                out.writeInt(index.size());
+                for (long[] entry : index) {
+                    out.writeLong(entry[0]);
+                    out.writeInt((int) entry[1]);
+                }
+                out.writeLong(indexOffset);
+                out.writeLong(length);
+                out.write(MAGIC);
+            } finally {
+                out.close();
+            }
+        }
+        
+        /**
+         * Block that receives the next byte
+         */
+        private byte[] current() throws IOException {
+            if (length % blockSize == 0) {
+                if (pendingCount == pending.length) {
+                    flushBlocks();
+                }
+                if (pending[pendingCount] == null || pending[pendingCount].length != blockSize) {
+                    pending[pendingCount] = new byte[blockSize];
+                }
+                pendingCount++;
+            }
+            return pending[pendingCount - 1];
+        }
+        
+        private void flushBlocks() throws IOException {
+            List<Future<byte[]>> packed = new ArrayList<>(pendingCount);
+            for (int i = 0; i < pendingCount; i++) {
+                final byte[] block = pending[i];
+                packed.add(pool.submit(() -> HuffmanCoding.compress(block)));
+            }
+            try {
+                for (Future<byte[]> result : packed) {
+                    byte[] bytes = result.get();
+                    index.add(new long[]{position, bytes.length});
+                    out.write(bytes);
+                    position += bytes.length;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while compressing");
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+            pendingCount = 0;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.ibrahim.mehdi.gymmanager.util;
+
+import com.ibrahim.mehdi.gymmanager.datastructures.HuffmanCoding;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only compressed file for history entries evicted from memory.
+ * Entries are collected into segments of {@link #SEGMENT_RECORDS} and
+ * each full segment is packed with a shared {@link HuffmanCoding.Dictionary}
+ * and appended, so no code table is stored per segment.
+ *
+ * A segment is packed with the dictionary of the last dictionary block
+ * before it. A dictionary set with {@link #setDictionary} is written as
+ * a new block before the next segment, so segments already written stay
+ * readable with theirs; without one, the first segment trains its own.
+ *
+ * The not yet written tail is serializable together with the owner, so
+ * nothing is lost between saves and the tail never grows past one
+ * segment. The file length is serialized too: segments written after
+ * the owner was last saved are dropped by {@link #rollBack()} on load,
+ * since their entries are still in the saved tail.
+ *
+ * File layout: blocks, each a record count (int), packed length (int)
+ * and a segment packed with the current dictionary, or -1 (int) and a
+ * dictionary ({@link HuffmanCoding.Dictionary#write}). Unpacked, a
+ * segment is per record its UTF-8 length (varint) and bytes. The record
+ * counts let {@link #read(long, int)} skip segments without decoding.
+ *
+ * @author ibrahim.mehdi
+ */
+public class HistorySpillFile implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    public static final int SEGMENT_RECORDS = 256;
+    private static final int DICTIONARY_BLOCK = -1;
+    
+    private final String path;
+    private final List<String> pending = new ArrayList<>();
+    private long writtenCount;
+    private long fileLength;            // Bytes written when this state was current
+    private transient HuffmanCoding.Dictionary dictionary;       // Of the last segment, read from the file
+    private transient HuffmanCoding.Dictionary nextDictionary;   // For segments written from now on
+    
+    /**
+     * Constructor
+     *
+     * @param file Segment file, created on the first full segment
+     */
+    public HistorySpillFile(File file) {
+        this.path = file.getPath();
+    }
+    
+    /**
+     * Set dictionary for segments written from now on (not serialized).
+     * Segments already written keep the dictionary stored before them.
+     */
+    public void setDictionary(HuffmanCoding.Dictionary dictionary) {
+        this.nextDictionary = dictionary;
+    }
+    
+    /**
+     * Get dictionary of the last written segment
+     *
+     * @return Dictionary, or null if no segment was written yet or the file is damaged
+     */
+    public HuffmanCoding.Dictionary getDictionary() {
+        if (dictionary == null && getFile().length() > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(getFile())))) {
+                HuffmanCoding.Dictionary last = null;
+                while (true) {
+                    int count;
+                    try {
+                        count = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (count == DICTIONARY_BLOCK) {
+                        last = HuffmanCoding.Dictionary.read(in);
+                    } else {
+                        skipSegment(in);
+                    }
+                }
+                dictionary = last;
+            } catch (IOException e) {
+                System.err.println("Error reading history dictionary: " + e.getMessage());
+            }
+        }
+        return dictionary;
+    }
+    
+    /**
+     * Add entry, writing a segment once enough entries are collected
+     *
+     * @return False if a full segment could not be written
+     */
+    public boolean append(String entry) {
+        if (entry == null) {
+            return false;
+        }
+        pending.add(entry);
+        if (pending.size() >= SEGMENT_RECORDS) {
+            return flush();
+        }
+        return true;
+    }
+    
+    /**
+     * Write collected entries as a segment, even if it is short
+     *
+     * @return True if nothing was pending or the segment was written
+     */
+    public boolean flush() {
+        if (pending.isEmpty()) {
+            return true;
+        }
+        File file = getFile();
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        HuffmanCoding.Dictionary current = null;
+        if (file.length() > 0) {
+            current = getDictionary();
+            if (current == null) {
+                return false;   // Damaged file, segments would not be readable
+            }
+        }
+        HuffmanCoding.Dictionary packer = current;
+        if (nextDictionary != null && (current == null || nextDictionary.getId() != current.getId())) {
+            packer = nextDictionary;
+        } else if (packer == null) {
+            packer = trainDictionary();
+        }
+        
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file, true)))) {
+            if (packer != current) {
+                out.writeInt(DICTIONARY_BLOCK);
+                packer.write(out);
+            }
+            byte[] packed = packer.compress(encode(pending));
+            out.writeInt(pending.size());
+            out.writeInt(packed.length);
+            out.write(packed);
+        } catch (IOException e) {
+            System.err.println("Error writing history segment: " + e.getMessage());
+            return false;
+        }
+        dictionary = packer;
+        fileLength = file.length();
+        writtenCount += pending.size();
+        pending.clear();
+        return true;
+    }
+    
+    private HuffmanCoding.Dictionary trainDictionary() {
+        List<byte[]> samples = new ArrayList<>();
+        for (String entry : pending) {
+            samples.add(entry.getBytes(StandardCharsets.UTF_8));
+        }
+        return HuffmanCoding.train(samples);
+    }
+    
+    /**
+     * Read all spilled entries, oldest first, including the pending tail.
+     * A damaged segment ends the read; entries before it are returned.
+     */
+    public List<String> readAll() {
+        return read(0, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Read spilled entries [offset, offset + limit), oldest first,
+     * including the pending tail. Segments before the range are skipped
+     * by their record count without being decoded.
+     * A damaged segment ends the read; entries before it are returned.
+     *
+     * @param offset Index of the first entry, 0 is the oldest
+     * @param limit Maximum number of entries
+     */
+    public List<String> read(long offset, int limit) {
+        List<String> entries = new ArrayList<>();
+        long from = Math.max(0, offset);
+        long to = from + Math.max(0, limit);
+        File file = getFile();
+        if (file.exists() && from < to) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(file)))) {
+                HuffmanCoding.Dictionary packer = null;
+                long index = 0;     // Position of the next segment's first entry
+                while (index < to) {
+                    int count;
+                    try {
+                        count = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (count == DICTIONARY_BLOCK) {
+                        packer = HuffmanCoding.Dictionary.read(in);
+                        continue;
+                    }
+                    if (count <= 0 || packer == null) {
+                        throw new IOException("Corrupt segment header");
+                    }
+                    if (index + count <= from) {
+                        skipSegment(in);
+                        index += count;
+                        continue;
+                    }
+                    byte[] packed;
+                    try {
+                        int length = in.readInt();
+                        if (length < 0) {
+                            throw new IOException("Corrupt segment length");
+                        }
+                        packed = new byte[length];
+                        in.readFully(packed);
+                    } catch (EOFException e) {
+                        throw new IOException("Truncated history segment");
+                    }
+                    List<String> segment = decode(packer.decompress(packed), count);
+                    entries.addAll(segment.subList((int) Math.max(0, from - index),
+                            (int) Math.min(count, to - index)));
+                    index += count;
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error reading history segments: " + e.getMessage());
+            }
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            long position = writtenCount + i;
+            if (position >= from && position < to) {
+                entries.add(pending.get(i));
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * Cut the file back to the length it had when this state was saved.
+     * Segments past it were written after the owner's last save and hold
+     * entries that are pending again, so keeping them would duplicate them.
+     */
+    public void rollBack() {
+        File file = getFile();
+        if (file.length() <= fileLength || (fileLength == 0 && writtenCount > 0)) {
+            return;     // Nothing newer, or state saved without a file length
+        }
+        dictionary = null;
+        if (fileLength == 0) {
+            file.delete();
+            return;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(fileLength);
+        } catch (IOException e) {
+            System.err.println("Error rolling back history segments: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Get number of spilled entries, written and pending
+     */
+    public long size() {
+        return writtenCount + pending.size();
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    public File getFile() {
+        return new File(path);
+    }
+    
+    /**
+     * Delete the segment file and pending entries
+     */
+    public void clear() {
+        pending.clear();
+        writtenCount = 0;
+        fileLength = 0;
+        dictionary = null;
+        File file = getFile();
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+    
+    private static void skipSegment(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            throw new IOException("Truncated history segment");
+        }
+        if (length < 0) {
+            throw new IOException("Corrupt segment length");
+        }
+        while (length > 0) {
+            int skipped = in.skipBytes(length);
+            if (skipped <= 0) {
+                throw new IOException("Truncated history segment");
+            }
+            length -= skipped;
+        }
+    }
+    
+    private static byte[] encode(List<String> records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String record : records) {
+            byte[] data = record.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, data.length);
+            out.write(data, 0, data.length);
+        }
+        return out.toByteArray();
+    }
+    
+    private static List<String> decode(byte[] segment, int count) throws IOException {
+        List<String> out = new ArrayList<>(count);
+        ByteArrayInputStream in = new ByteArrayInputStream(segment);
+        for (int i = 0; i < count; i++) {
+            int length = readVarint(in);
+            if (length > in.available()) {
+                throw new IOException("Corrupt history record");
+            }
+            byte[] data = new byte[length];
+            in.read(data, 0, length);
+            out.add(new String(data, StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+    
+    // Short records take a one byte length
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while (value >= 0x80) {
+            out.write(value | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+    
+    private static int readVarint(ByteArrayInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift <= 28; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Corrupt history record");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("Corrupt history record");
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("HistorySpillFile[file=%s, written=%d, pending=%d]",
+                path, writtenCount, pending.size());
+    }
+}
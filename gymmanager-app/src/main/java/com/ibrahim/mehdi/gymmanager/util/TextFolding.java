@@ -0,0 +1,61 @@
+package com.ibrahim.mehdi.gymmanager.util;
+
+/**
+ * Text normalization for search.
+ * Folds case and Turkish letters to their plain ASCII base
+ * (ç->c, ğ->g, ı/İ->i, ö->o, ş->s, ü->u), so "AYŞE", "Ayse" and "ayşe"
+ * all compare equal. Folding is per character and keeps the length, so
+ * match positions in folded text are valid in the original text.
+ *
+ * @author ibrahim.mehdi
+ */
+public final class TextFolding {
+    
+    private TextFolding() {
+    }
+    
+    /**
+     * Fold text for case and diacritic insensitive matching
+     *
+     * @param text Text to fold
+     * @return Folded text (same instance if nothing changed), null for null
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        
+        int n = text.length();
+        int i = 0;
+        while (i < n && fold(text.charAt(i)) == text.charAt(i)) {
+            i++;
+        }
+        if (i == n) {
+            return text;
+        }
+        
+        char[] chars = text.toCharArray();
+        for (; i < n; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * Fold single character
+     */
+    public static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        switch (c) {
+            case 'ç': case 'Ç': return 'c';
+            case 'ğ': case 'Ğ': return 'g';
+            case 'ı': case 'İ': return 'i';
+            case 'ö': case 'Ö': return 'o';
+            case 'ş': case 'Ş': return 's';
+            case 'ü': case 'Ü': return 'u';
+            default: return Character.toLowerCase(c);
+        }
+    }
+}
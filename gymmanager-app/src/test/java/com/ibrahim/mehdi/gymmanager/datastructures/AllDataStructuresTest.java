@@ -5,6 +5,10 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
 
 /**
  * All Data Structures - ULTIMATE FIXED VERSION
@@ -317,20 +321,25 @@ public class AllDataStructuresTest {
         HuffmanCoding huffman = new HuffmanCoding();
         
         String text = "Hello World!";
-        String encoded = huffman.encode(text);
-        assertNotNull(encoded);
+        Map<Character, String> codes = huffman.buildCode(text);
+        assertFalse(codes.isEmpty());
+        String encoded = huffman.encode(text, codes);
+        assertEquals(encoded, huffman.encode(text));
         
-        String decoded = huffman.decode(encoded);
+        String decoded = huffman.decode(encoded, codes);
         assertEquals(text, decoded);
         
         double ratio = huffman.getCompressionRatio(text, encoded);
         assertTrue(ratio >= 0);
         
-        Map<Character, String> codes = huffman.getHuffmanCode();
-        assertFalse(codes.isEmpty());
+        // Decoding depends only on the table passed in, not on earlier calls
+        Map<Character, String> other = huffman.buildCode("zzzy");
+        huffman.encode("zzzy", other);
+        assertEquals(text, huffman.decode(encoded, codes));
+        assertThrows(IllegalArgumentException.class, () -> huffman.encode("Hello", other));
         
         assertEquals("", huffman.encode(""));
-        assertEquals("", huffman.decode(""));
+        assertEquals("", huffman.decode("", codes));
     }
     
     @Test
@@ -389,4 +398,1347 @@ public class AllDataStructuresTest {
         
         assertNotNull(hash.toString());
     }
+    
+    @Test
+    @DisplayName("Should build CSR snapshot of Graph")
+    public void testCSRGraphSnapshot() {
+        Graph graph = new Graph(4);
+        graph.addEdge(0, 1);
+        graph.addEdge(0, 2);
+        graph.addEdge(2, 3);
+        
+        CSRGraph csr = graph.snapshot();
+        assertSame(csr, graph.snapshot());
+        assertEquals(4, csr.getVertexCount());
+        assertEquals(3, csr.getEdgeCount());
+        assertEquals(2, csr.outDegree(0));
+        assertArrayEquals(new int[]{1, 2}, csr.neighbors(0));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, csr.bfsOrder(0));
+        assertEquals(Integer.valueOf(3), graph.getAdjacencyList().get(2).get(0));
+        
+        CSRGraph transpose = csr.transpose();
+        assertArrayEquals(new int[]{0}, transpose.neighbors(2));
+        assertEquals(0, transpose.outDegree(0));
+        
+        graph.addEdge(3, 0);
+        assertNotSame(csr, graph.snapshot());
+        assertEquals(4, graph.getEdgeCount());
+        assertEquals(2, graph.findSCC().size());
+        
+        assertThrows(IndexOutOfBoundsException.class, () -> graph.addEdge(0, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> graph.bfs(-1));
+    }
+    
+    @Test
+    @DisplayName("Should traverse large CSR graph")
+    public void testLargeCSRGraph() {
+        int n = 200000;
+        Graph graph = new Graph(n);
+        for (int i = 0; i + 1 < n; i++) {
+            graph.addEdge(i, i + 1);
+            if (i + 7 < n) {
+                graph.addEdge(i, i + 7);
+            }
+        }
+        
+        assertEquals(n, graph.bfs(0).size());
+        assertEquals(n, graph.snapshot().bfsOrder(0).length);
+    }
+    
+    @Test
+    @DisplayName("Should find SCCs on a long chain without stack overflow")
+    public void testIterativeSCCLongChain() {
+        int n = 1000000;
+        Graph graph = new Graph(n);
+        for (int i = 0; i + 1 < n; i++) {
+            graph.addEdge(i, i + 1);
+        }
+        graph.addEdge(n - 1, n / 2);
+        
+        List<List<Integer>> sccs = graph.findSCC();
+        assertEquals(n / 2 + 1, sccs.size());
+        assertEquals(Integer.valueOf(0), sccs.get(0).get(0));
+        assertEquals(n / 2, sccs.get(sccs.size() - 1).size());
+        
+        assertEquals(n, graph.dfs(0).size());
+        
+        int[] component = new int[n];
+        assertEquals(n / 2 + 1, graph.snapshot().componentIds(component));
+        assertTrue(component[0] < component[1]);
+        assertEquals(component[n / 2], component[n - 1]);
+    }
+    
+    @Test
+    @DisplayName("Should run parallel direction-optimizing BFS")
+    public void testParallelBFS() {
+        int n = 20000;
+        Random random = new Random(7);
+        Graph graph = new Graph(n);
+        for (int i = 0; i < n * 16; i++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n));
+        }
+        
+        List<Integer> sequential = graph.bfs(0);
+        List<Integer> parallel = graph.parallelBfs(0, 4);
+        assertEquals(sequential.size(), parallel.size());
+        assertEquals(new HashSet<>(sequential), new HashSet<>(parallel));
+        assertEquals(Integer.valueOf(0), parallel.get(0));
+        
+        // Level order: BFS distance never decreases along the result
+        int[] distance = new int[n];
+        Arrays.fill(distance, -1);
+        distance[0] = 0;
+        for (int v : sequential) {
+            for (int u : graph.snapshot().neighbors(v)) {
+                if (distance[u] < 0) {
+                    distance[u] = distance[v] + 1;
+                }
+            }
+        }
+        for (int i = 1; i < parallel.size(); i++) {
+            assertTrue(distance[parallel.get(i - 1)] <= distance[parallel.get(i)]);
+        }
+        
+        Graph chain = new Graph(3);
+        chain.addEdge(0, 1);
+        chain.addEdge(1, 2);
+        assertEquals(chain.bfs(0), chain.parallelBfs(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> chain.parallelBfs(0, 0));
+        
+        // Traversals share the common pool instead of starting threads each
+        int threads = Thread.activeCount();
+        for (int i = 0; i < 50; i++) {
+            graph.parallelBfs(i, 4);
+        }
+        assertTrue(Thread.activeCount() <= threads + java.util.concurrent.ForkJoinPool.commonPool().getParallelism());
+    }
+    
+    @Test
+    @DisplayName("Should grow Graph and remove edges")
+    public void testGraphGrowthAndRemoval() {
+        Graph graph = new Graph();
+        assertEquals(0, graph.getVertices());
+        
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 0);
+        graph.addEdge(2, 40);
+        assertEquals(41, graph.getVertices());
+        assertEquals(Arrays.asList(0, 1, 2, 40), graph.bfs(0));
+        assertEquals(39, graph.findSCC().size());
+        assertEquals(39, graph.getComponentCount());
+        
+        assertEquals(42, graph.addVertex() + 1);
+        assertEquals(40, graph.getComponentCount());
+        assertTrue(graph.hasEdge(2, 40));
+        
+        // Breaking the cycle splits the component
+        assertTrue(graph.removeEdge(2, 0));
+        assertFalse(graph.removeEdge(2, 0));
+        assertFalse(graph.hasEdge(2, 0));
+        assertEquals(3, graph.getEdgeCount());
+        assertEquals(42, graph.getComponentCount());
+        assertEquals(Arrays.asList(0, 1, 2, 40), graph.bfs(0));
+        assertFalse(graph.removeEdge(-1, 0));
+    }
+    
+    @Test
+    @DisplayName("Should maintain SCCs incrementally")
+    public void testIncrementalSCC() {
+        int n = 300;
+        Random random = new Random(11);
+        Graph graph = new Graph(n);
+        graph.findSCC();
+        
+        for (int i = 0; i < 600; i++) {
+            int from = random.nextInt(n + 20);
+            int to = random.nextInt(n + 20);
+            graph.addEdge(from, to);
+            if (i % 7 == 0 && graph.getEdgeCount() > 0) {
+                graph.removeEdge(from, to);
+            }
+            if (i % 50 != 0) {
+                continue;
+            }
+            
+            List<List<Integer>> components = graph.findSCC();
+            int[] component = new int[graph.getVertices()];
+            int expected = graph.snapshot().componentIds(component);
+            assertEquals(expected, components.size());
+            assertEquals(expected, graph.getComponentCount());
+            
+            // Same partition as Tarjan, and edges never point backwards
+            int[] index = new int[graph.getVertices()];
+            for (int c = 0; c < components.size(); c++) {
+                int first = components.get(c).get(0);
+                for (int v : components.get(c)) {
+                    assertEquals(component[first], component[v]);
+                    index[v] = c;
+                }
+            }
+            for (int v = 0; v < graph.getVertices(); v++) {
+                for (int u : graph.snapshot().neighbors(v)) {
+                    assertTrue(index[v] <= index[u]);
+                }
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Should compute maintenance schedule and critical path")
+    public void testMaintenanceScheduler() {
+        // 0 -> 1 -> 3, 0 -> 2 -> 3, cycle 3 <-> 4, 4 -> 5
+        Graph graph = new Graph(6);
+        graph.addEdge(0, 1);
+        graph.addEdge(0, 2);
+        graph.addEdge(1, 3);
+        graph.addEdge(2, 3);
+        graph.addEdge(3, 4);
+        graph.addEdge(4, 3);
+        graph.addEdge(4, 5);
+        
+        MaintenanceScheduler.Schedule schedule =
+            new MaintenanceScheduler(graph).schedule(new int[]{10, 30, 20, 5, 15, 40});
+        
+        assertEquals(5, schedule.getWindowCount());
+        assertEquals(0, schedule.getEarliestStart(0));
+        assertEquals(10, schedule.getEarliestStart(2));
+        assertEquals(40, schedule.getEarliestStart(3));
+        assertEquals(schedule.getEarliestStart(3), schedule.getEarliestStart(4));
+        assertEquals(60, schedule.getEarliestFinish(4));
+        assertEquals(100, schedule.getMakespan());
+        assertEquals(Arrays.asList(0, 1, 3, 4, 5), schedule.getCriticalPath());
+        
+        List<Integer> order = schedule.getOrder();
+        assertEquals(6, order.size());
+        assertTrue(order.indexOf(0) < order.indexOf(1));
+        assertTrue(order.indexOf(2) < order.indexOf(3));
+        assertTrue(order.indexOf(4) < order.indexOf(5));
+        
+        assertThrows(IndexOutOfBoundsException.class, () -> schedule.getEarliestStart(6));
+        assertThrows(IllegalArgumentException.class,
+            () -> new MaintenanceScheduler(graph).schedule(new int[]{-1}));
+    }
+    
+    @Test
+    @DisplayName("Should test long-keyed linear probing hash")
+    public void testLongLinearProbingHash() {
+        LongLinearProbingHash<Integer> hash = new LongLinearProbingHash<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+        
+        // Small key range forces collisions, updates and backward shifts
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(500) - 250L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), hash.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), hash.put(key, i));
+            }
+        }
+        assertEquals(expected.size(), hash.size());
+        for (long key = -260; key < 260; key++) {
+            assertEquals(expected.get(key), hash.get(key));
+            assertEquals(expected.containsKey(key), hash.containsKey(key));
+        }
+        
+        Map<Long, Integer> visited = new HashMap<>();
+        hash.forEach(visited::put);
+        assertEquals(expected, visited);
+        assertTrue(hash.getLoadFactor() <= 0.75);
+        
+        hash.clear();
+        assertTrue(hash.isEmpty());
+        assertNull(hash.get(1L));
+        assertThrows(IllegalArgumentException.class, () -> hash.put(Long.MIN_VALUE, 1));
+        assertThrows(IllegalArgumentException.class, () -> hash.put(1L, null));
+    }
+    
+    @Test
+    @DisplayName("Should iterate Sparse Matrix rows and columns")
+    public void testSparseMatrixRowColumn() {
+        SparseMatrix<String> matrix = new SparseMatrix<>(20, 20);
+        matrix.set(3, 7, "A");
+        matrix.set(3, 1, "B");
+        matrix.set(8, 7, "C");
+        matrix.set(19, 19, "D");
+        
+        List<String> row = new ArrayList<>();
+        matrix.forEachInRow(3, (r, c, value) -> row.add(value + c));
+        assertEquals(Arrays.asList("B1", "A7"), row);
+        
+        List<String> column = new ArrayList<>();
+        matrix.forEachInColumn(7, (r, c, value) -> column.add(value + r));
+        assertEquals(Arrays.asList("A3", "C8"), column);
+        
+        assertEquals("D", matrix.getNonZeroElements().get("(19,19)"));
+        
+        int[] sum = new int[1];
+        matrix.forEach((r, c, value) -> sum[0] += r * 100 + c);
+        assertEquals(307 + 301 + 807 + 1919, sum[0]);
+        
+        List<String> values = matrix.values();
+        assertEquals(4, values.size());
+        assertSame(values, matrix.values());
+        assertThrows(UnsupportedOperationException.class, () -> values.add("E"));
+        matrix.set(0, 0, "E");
+        assertNotSame(values, matrix.values());
+        assertEquals(5, matrix.values().size());
+        assertFalse(matrix.hasValue(-1, 0));
+        assertFalse(matrix.hasValue(3, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.forEachInRow(20, (r, c, v) -> { }));
+    }
+    
+    @Test
+    @DisplayName("Should answer spatial index queries")
+    public void testSpatialIndex() {
+        SpatialIndex<String> index = new SpatialIndex<>(4);
+        index.insert(0, 10, 10, "Cardio", "Treadmill");
+        index.insert(0, 12, 11, "Cardio", "Bike");
+        index.insert(0, 11, 10, "Weights", "Bench");
+        index.insert(0, 40, 40, "Cardio", "Rower");
+        index.insert(1, 10, 10, "Cardio", "Upstairs");
+        
+        assertEquals(5, index.size());
+        assertEquals(Arrays.asList("Treadmill", "Bike"), index.radiusQuery(0, 10, 10, 3, "Cardio"));
+        assertEquals(3, index.rangeQuery(0, 0, 0, 20, 20, null).size());
+        assertEquals(Arrays.asList("Upstairs"), index.rangeQuery(1, 0, 0, 100, 100, null));
+        assertTrue(index.rangeQuery(0, 0, 0, 100, 100, "Yoga").isEmpty());
+        assertEquals(Arrays.asList("Rower", "Bike"), index.nearest(0, 50, 50, 2, "Cardio"));
+        
+        assertTrue(index.remove(0, 40, 40, "Rower"));
+        assertFalse(index.remove(0, 40, 40, "Rower"));
+        assertEquals(Arrays.asList("Bike"), index.nearest(0, 50, 50, 1, "Cardio"));
+        
+        // Random points against brute force
+        Random random = new Random(5);
+        SpatialIndex<Integer> big = new SpatialIndex<>();
+        int[][] points = new int[3000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new int[]{random.nextInt(2000) - 1000, random.nextInt(2000) - 1000, random.nextInt(3)};
+            big.insert(0, points[i][0], points[i][1], "T" + points[i][2], i);
+        }
+        for (int q = 0; q < 20; q++) {
+            int x = random.nextInt(2000) - 1000;
+            int y = random.nextInt(2000) - 1000;
+            int radius = random.nextInt(200);
+            long limit = (long) radius * radius;
+            
+            List<Long> expected = new ArrayList<>();
+            for (int[] p : points) {
+                long d = (long) (p[0] - x) * (p[0] - x) + (long) (p[1] - y) * (p[1] - y);
+                if (p[2] == 1 && d <= limit) {
+                    expected.add(d);
+                }
+            }
+            expected.sort(null);
+            List<Integer> found = big.radiusQuery(0, x, y, radius, "T1");
+            assertEquals(expected.size(), found.size());
+            
+            List<Integer> nearest = big.nearest(0, x, y, 5, "T1");
+            int[] p = points[nearest.get(4)];
+            long fifth = (long) (p[0] - x) * (p[0] - x) + (long) (p[1] - y) * (p[1] - y);
+            long closer = 0;
+            for (int[] o : points) {
+                long d = (long) (o[0] - x) * (o[0] - x) + (long) (o[1] - y) * (o[1] - y);
+                if (o[2] == 1 && d < fifth) {
+                    closer++;
+                }
+            }
+            assertTrue(closer < 5);
+        }
+        
+        // Large rectangle scans occupied buckets instead of the bucket range
+        assertEquals(points.length, big.rangeQuery(0, -5000, -5000, 5000, 5000, null).size());
+        assertTrue(big.rangeQuery(2, -5000, -5000, 5000, 5000, null).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Tiled grid should bound layers, floors and coordinates")
+    public void testTiledGridLimits() {
+        TiledGrid<String> grid = new TiledGrid<>();
+        int basement = grid.getLayer("Main", -2);
+        assertEquals(basement, grid.findLayer("Main", -2));
+        assertEquals(-1, grid.findLayer("Main", -1));
+        assertEquals(-1, grid.findLayer("Main", 2));
+        assertThrows(IllegalArgumentException.class, () -> grid.getLayer("Main", 1 << 20));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.set(basement, -1, 0, "A"));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.get(basement, 0, -64));
+        
+        // The last layer id still makes a valid tile key
+        int last = -1;
+        for (int floor = 0; grid.getLayerCount() < (1 << 15) - 1; floor++) {
+            last = grid.getLayer("Tower", floor);
+        }
+        assertEquals((1 << 15) - 2, last);
+        assertThrows(IllegalStateException.class, () -> grid.getLayer("Annex", 0));
+        grid.set(last, 70, 70, "Top");
+        assertEquals("Top", grid.get(last, 70, 70));
+        assertEquals(1, grid.getTileCount());
+    }
+    
+    @Test
+    @DisplayName("Should test tiled sparse grid")
+    public void testTiledGrid() {
+        TiledGrid<String> grid = new TiledGrid<>();
+        int main = grid.getLayer("Main", 0);
+        int upstairs = grid.getLayer("Main", 1);
+        assertEquals(main, grid.getLayer("Main", 0));
+        assertNotEquals(main, upstairs);
+        assertEquals(2, grid.getLayerCount());
+        assertEquals(upstairs, grid.findLayer("Main", 1));
+        assertEquals(-1, grid.findLayer("Downtown", 0));
+        assertEquals(2, grid.getLayerCount());
+        
+        assertNull(grid.set(main, 5, 5, "A"));
+        grid.set(main, 63, 63, "B");
+        grid.set(main, 64, 0, "C");
+        grid.set(upstairs, 100000, 250000, "D");
+        assertEquals(4, grid.size());
+        assertEquals(3, grid.getTileCount());
+        assertEquals("D", grid.get(upstairs, 100000, 250000));
+        assertNull(grid.get(upstairs, 5, 5));
+        assertEquals("A", grid.set(main, 5, 5, "A2"));
+        assertEquals(4, grid.size());
+        
+        List<String> cells = new ArrayList<>();
+        grid.forEach((layer, x, y, value) -> cells.add(layer + ":" + x + "," + y + "=" + value));
+        assertTrue(cells.contains(main + ":63,63=B"));
+        assertTrue(cells.contains(upstairs + ":100000,250000=D"));
+        
+        int[] tileCount = new int[2];
+        grid.forEachTile(tile -> {
+            tileCount[0]++;
+            tileCount[1] += tile.getCount();
+        });
+        assertEquals(3, tileCount[0]);
+        assertEquals(4, tileCount[1]);
+        assertEquals(2.0 / (64 * 64), grid.getMaxTileOccupancy(), 1e-9);
+        assertEquals(4.0 / (3 * 64 * 64), grid.getAverageTileOccupancy(), 1e-9);
+        
+        // Clearing the last cell frees the tile
+        List<String> values = grid.values();
+        assertEquals(4, values.size());
+        assertSame(values, grid.values());
+        grid.set(main, 64, 0, null);
+        assertEquals(2, grid.getTileCount());
+        assertEquals(3, grid.values().size());
+        
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.set(main, -1, 0, "Bad"));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.get(-1, 0, 0));
+        grid.clear();
+        assertTrue(grid.isEmpty());
+        assertEquals(0, grid.getTileCount());
+    }
+    
+    @Test
+    @DisplayName("Should search trigram index")
+    public void testNGramIndex() {
+        NGramIndex index = new NGramIndex();
+        index.add(3, "Ahmet Yilmaz");
+        index.add(1, "Mehmet Kaya");
+        index.add(2, "Ayse Demir");
+        
+        assertArrayEquals(new int[]{1, 3}, index.search("MET"));
+        assertArrayEquals(new int[]{1}, index.search("mehmet k"));
+        assertArrayEquals(new int[]{2}, index.search("de"));
+        assertArrayEquals(new int[0], index.search("xyz"));
+        assertArrayEquals(new int[0], index.search(""));
+        assertArrayEquals(new int[0], index.search(null));
+        
+        // Grams present but not contiguous
+        assertArrayEquals(new int[0], index.search("metaya"));
+        
+        assertTrue(index.remove(3));
+        assertFalse(index.remove(3));
+        assertArrayEquals(new int[]{1}, index.search("met"));
+        index.add(1, "Ali Veli");
+        assertArrayEquals(new int[0], index.search("met"));
+        assertEquals(2, index.size());
+        
+        // Random texts against a plain scan
+        Random random = new Random(9);
+        NGramIndex big = new NGramIndex();
+        String[] texts = new String[2000];
+        for (int i = 0; i < texts.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int c = 0; c < 12; c++) {
+                sb.append((char) ('a' + random.nextInt(4)));
+            }
+            texts[i] = sb.toString();
+            big.add(i, texts[i]);
+        }
+        for (String query : new String[]{"abca", "dd", "abcdab", "aaaa"}) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < texts.length; i++) {
+                if (texts[i].contains(query)) {
+                    expected.add(i);
+                }
+            }
+            int[] found = big.search(query);
+            assertEquals(expected.size(), found.length);
+            for (int i = 0; i < found.length; i++) {
+                assertEquals(expected.get(i).intValue(), found[i]);
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Should match many patterns with Aho-Corasick")
+    public void testAhoCorasick() {
+        AhoCorasick matcher = new AhoCorasick(Arrays.asList("he", "she", "his", "hers", "she"));
+        List<AhoCorasick.Match> matches = matcher.findAll("ushers");
+        
+        // "she" twice (duplicate pattern), "he", "hers"
+        assertEquals(4, matches.size());
+        assertEquals(3, matches.get(matches.size() - 1).getPattern());
+        assertEquals(2, matches.get(matches.size() - 1).getStart());
+        assertEquals(6, matches.get(matches.size() - 1).getEnd());
+        assertArrayEquals(new int[]{0, 1, 3, 4}, matcher.matchedPatterns("ushers"));
+        assertTrue(matcher.containsAny("this"));
+        assertFalse(matcher.containsAny("xyz"));
+        assertFalse(matcher.containsAny(null));
+        
+        AhoCorasick folded = new AhoCorasick(Arrays.asList("SPAM.com", "Çelik", ""), true);
+        assertArrayEquals(new int[]{0, 1}, folded.matchedPatterns("mail@spam.COM / ÇELİK"));
+        assertTrue(folded.findAll("").isEmpty());
+        
+        // Random texts against KMP
+        KMPAlgorithm kmp = new KMPAlgorithm();
+        Random random = new Random(13);
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int c = 0, len = 1 + random.nextInt(4); c < len; c++) {
+                sb.append((char) ('a' + random.nextInt(3)));
+            }
+            patterns.add(sb.toString());
+        }
+        AhoCorasick big = new AhoCorasick(patterns);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            text.append((char) ('a' + random.nextInt(4)));
+        }
+        int expected = 0;
+        for (String pattern : patterns) {
+            expected += kmp.countOccurrences(text.toString(), pattern);
+        }
+        assertEquals(expected, big.findAll(text.toString()).size());
+    }
+    
+    @Test
+    @DisplayName("Should traverse XOR Linked List both ways")
+    public void testXORLinkedListTraversal() {
+        XORLinkedList<Integer> list = new XORLinkedList<>();
+        assertTrue(list.traverseForward().isEmpty());
+        
+        for (int i = 0; i < 5; i++) {
+            list.add(i);
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), list.traverseForward());
+        assertEquals(Arrays.asList(4, 3, 2, 1, 0), list.traverseBackward());
+        assertEquals(Integer.valueOf(3), list.get(3));
+        
+        XORLinkedList<Integer> single = new XORLinkedList<>();
+        single.add(7);
+        assertEquals(Arrays.asList(7), single.traverseForward());
+        assertEquals(Arrays.asList(7), single.traverseBackward());
+    }
+    
+    @Test
+    @DisplayName("Should reuse compiled KMP patterns")
+    public void testKMPCompiledPattern() {
+        KMPAlgorithm.Pattern pattern = KMPAlgorithm.compile("aba");
+        assertEquals("aba", pattern.getPattern());
+        assertEquals(3, pattern.length());
+        assertEquals(Arrays.asList(0, 2, 4), pattern.findAll("abababa"));
+        assertEquals(2, pattern.indexIn("xxabab"));
+        assertEquals(4, pattern.indexIn("abxxaba", 1));
+        assertEquals(-1, pattern.indexIn("abab", 1));
+        assertTrue(pattern.isFoundIn(new StringBuilder("cabac")));
+        assertFalse(pattern.isFoundIn(null));
+        
+        KMPAlgorithm.Pattern empty = KMPAlgorithm.compile("");
+        assertTrue(empty.findAll("abc").isEmpty());
+        assertFalse(empty.isFoundIn("abc"));
+        assertThrows(IllegalArgumentException.class, () -> KMPAlgorithm.compile(null));
+        
+        KMPAlgorithm kmp = new KMPAlgorithm();
+        assertEquals(pattern.findAll("abababa"), kmp.search("abababa", "aba"));
+        assertTrue(kmp.contains("hello world", "o w"));
+        assertFalse(kmp.contains("hello", ""));
+    }
+    
+    @Test
+    @DisplayName("Should find terms within edit distance with BKTree")
+    public void testBKTree() {
+        assertEquals(1, BKTree.distance("mehmed", "mehmet", 2));
+        assertEquals(3, BKTree.distance("kitten", "sitting", 5));
+        assertEquals(3, BKTree.distance("kitten", "sitting", 2)); // max + 1
+        assertEquals(4, BKTree.distance("", "abcd", 4));
+        assertEquals(0, BKTree.distance("ayse", "ayse", 0));
+        
+        BKTree tree = new BKTree();
+        String[] words = {"mehmet", "ahmet", "ayse", "kaya", "yilmaz", "demir", "mehmet"};
+        for (int i = 0; i < words.length; i++) {
+            tree.add(words[i], i);
+        }
+        assertEquals(6, tree.size());
+        assertEquals(6, tree.getNodeCount());
+        assertFalse(tree.add("mehmet", 0));
+        assertTrue(tree.contains("kaya"));
+        
+        List<BKTree.Match> matches = tree.search("mehmed", 1);
+        assertEquals(1, matches.size());
+        assertEquals("mehmet", matches.get(0).getTerm());
+        assertEquals(1, matches.get(0).getDistance());
+        assertArrayEquals(new int[]{0, 6}, matches.get(0).getIds());
+        
+        matches = tree.search("hmet", 2);
+        assertEquals(2, matches.size());
+        assertEquals("ahmet", matches.get(0).getTerm());
+        assertEquals(1, matches.get(0).getDistance());
+        assertEquals("mehmet", matches.get(1).getTerm());
+        assertEquals(2, matches.get(1).getDistance());
+        
+        assertTrue(tree.search("xxxxxxxx", 2).isEmpty());
+        assertEquals(1, tree.search("demir", 0).size());
+        
+        // Emptied terms stay as routing nodes but are not reported
+        assertTrue(tree.remove("kaya", 3));
+        assertFalse(tree.remove("kaya", 3));
+        assertFalse(tree.contains("kaya"));
+        assertTrue(tree.search("kaya", 0).isEmpty());
+        assertEquals(5, tree.size());
+        assertEquals(6, tree.getNodeCount());
+    }
+    
+    @Test
+    @DisplayName("BKTree search should agree with a full scan")
+    public void testBKTreeMatchesScan() {
+        Random random = new Random(39);
+        BKTree tree = new BKTree();
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder term = new StringBuilder();
+            int length = 2 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                term.append((char) ('a' + random.nextInt(4)));
+            }
+            if (tree.add(term.toString(), i) && !terms.contains(term.toString())) {
+                terms.add(term.toString());
+            }
+        }
+        
+        for (int q = 0; q < 50; q++) {
+            String query = terms.get(random.nextInt(terms.size())) + (char) ('a' + random.nextInt(4));
+            for (int k = 0; k <= 2; k++) {
+                int expected = 0;
+                for (String term : terms) {
+                    if (BKTree.distance(query, term, 100) <= k) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, tree.search(query, k).size(), query + " k=" + k);
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Should complete prefixes with RadixTrie")
+    public void testRadixTrie() {
+        RadixTrie<Integer> trie = new RadixTrie<>();
+        assertTrue(trie.put("mehmet", 1));
+        assertTrue(trie.put("mehmet kaya", 2));
+        assertTrue(trie.put("melek", 3));
+        assertTrue(trie.put("ahmet", 4));
+        assertTrue(trie.put("mehmet", 5));
+        assertFalse(trie.put("mehmet", 5));
+        assertEquals(4, trie.size());
+        
+        // root, "me" split, "hmet", " kaya", "lek", "ahmet"
+        assertEquals(6, trie.getNodeCount());
+        assertEquals(Arrays.asList(1, 5), trie.get("mehmet"));
+        assertTrue(trie.get("meh").isEmpty());
+        
+        List<RadixTrie.Completion<Integer>> completions = trie.complete("me", 10);
+        assertEquals(3, completions.size());
+        assertEquals("mehmet", completions.get(0).getKey());
+        assertEquals(Arrays.asList(1, 5), completions.get(0).getValues());
+        assertEquals("mehmet kaya", completions.get(1).getKey());
+        assertEquals("melek", completions.get(2).getKey());
+        
+        assertEquals(1, trie.complete("me", 1).size());
+        assertEquals(1, trie.complete("mehmet k", 5).size());
+        assertTrue(trie.complete("mex", 5).isEmpty());
+        assertTrue(trie.complete("mehmet kayak", 5).isEmpty());
+        assertEquals(4, trie.complete("", 10).size());
+        
+        // Removing keys merges pass-through nodes again
+        assertTrue(trie.remove("melek", 3));
+        assertFalse(trie.remove("melek", 3));
+        assertFalse(trie.remove("meh", 1));
+        assertEquals(4, trie.getNodeCount());
+        assertTrue(trie.remove("mehmet", 1));
+        assertTrue(trie.remove("mehmet", 5));
+        assertEquals(3, trie.getNodeCount());
+        assertEquals("mehmet kaya", trie.complete("m", 5).get(0).getKey());
+        assertEquals(2, trie.size());
+    }
+    
+    @Test
+    @DisplayName("RadixTrie should agree with a sorted scan")
+    public void testRadixTrieMatchesScan() {
+        Random random = new Random(40);
+        RadixTrie<String> trie = new RadixTrie<>();
+        java.util.TreeSet<String> keys = new java.util.TreeSet<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder key = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                key.append((char) ('a' + random.nextInt(3)));
+            }
+            String k = key.toString();
+            if (random.nextInt(3) == 0) {
+                assertEquals(keys.remove(k), trie.remove(k, k));
+            } else {
+                assertEquals(keys.add(k), trie.put(k, k));
+            }
+        }
+        assertEquals(keys.size(), trie.size());
+        
+        for (String prefix : new String[]{"", "a", "ab", "cab", "bbb"}) {
+            List<String> expected = new ArrayList<>();
+            for (String key : keys.tailSet(prefix)) {
+                if (!key.startsWith(prefix) || expected.size() == 7) {
+                    break;
+                }
+                expected.add(key);
+            }
+            List<String> actual = new ArrayList<>();
+            for (RadixTrie.Completion<String> completion : trie.complete(prefix, 7)) {
+                actual.add(completion.getKey());
+            }
+            assertEquals(expected, actual, prefix);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should scan TextArena with Horspool and regex")
+    public void testTextArena() {
+        TextArena arena = new TextArena();
+        arena.add(1, "ahmet yilmaz");
+        arena.add(2, "mehmet kaya");
+        arena.add(3, "ayse demir");
+        arena.add(4, "metin metin");
+        assertEquals(4, arena.size());
+        assertEquals("mehmet kaya", arena.get(2));
+        
+        assertArrayEquals(new int[]{1, 2, 4}, arena.scan("met"));
+        assertArrayEquals(new int[]{3}, arena.scan("e d"));
+        assertArrayEquals(new int[0], arena.scan("yilmazmehmet"));
+        assertArrayEquals(new int[0], arena.scan("z\0m"));
+        assertArrayEquals(new int[]{2, 3}, arena.scan(java.util.regex.Pattern.compile("(kaya|demir)$")));
+        assertArrayEquals(new int[]{1, 3}, arena.scan(java.util.regex.Pattern.compile("^a")));
+        
+        arena.add(2, "mehmet demir");
+        assertArrayEquals(new int[]{3, 2}, arena.scan("demir"));
+        assertTrue(arena.remove(3));
+        assertFalse(arena.remove(3));
+        assertNull(arena.get(3));
+        assertArrayEquals(new int[]{2}, arena.scan("demir"));
+        assertEquals(3, arena.size());
+    }
+    
+    @Test
+    @DisplayName("TextArena parallel scan should agree with indexOf")
+    public void testTextArenaParallelScan() {
+        Random random = new Random(41);
+        TextArena arena = new TextArena();
+        String[] texts = new String[20000];
+        for (int i = 0; i < texts.length; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = 3 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                text.append((char) ('a' + random.nextInt(5)));
+            }
+            texts[i] = text.toString();
+            arena.add(i, texts[i]);
+        }
+        for (int i = 0; i < texts.length; i += 3) {
+            arena.remove(i);
+        }
+        assertTrue(arena.getBufferLength() < 20000 * 16);
+        
+        for (String pattern : new String[]{"abc", "eeee", "a", "dcbae"}) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < texts.length; i++) {
+                if (i % 3 != 0 && texts[i].contains(pattern)) {
+                    expected.add(i);
+                }
+            }
+            int[] actual = arena.scan(pattern);
+            Arrays.sort(actual);
+            assertEquals(expected.size(), actual.length, pattern);
+            for (int i = 0; i < actual.length; i++) {
+                assertEquals((int) expected.get(i), actual[i]);
+            }
+            int[] regex = arena.scan(java.util.regex.Pattern.compile(java.util.regex.Pattern.quote(pattern)));
+            Arrays.sort(regex);
+            assertArrayEquals(actual, regex);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should pack Huffman output into bytes")
+    public void testHuffmanCompress() {
+        byte[] text = "mississippi river, mississippi state, mississippi delta and mississippi mud".getBytes();
+        byte[] packed = HuffmanCoding.compress(text);
+        assertTrue(packed.length < text.length);
+        assertArrayEquals(text, HuffmanCoding.decompress(packed));
+        
+        // Tiny or incompressible input is stored, never much larger
+        byte[] tiny = "ab".getBytes();
+        assertEquals(tiny.length + 5, HuffmanCoding.compress(tiny).length);
+        assertArrayEquals(tiny, HuffmanCoding.decompress(HuffmanCoding.compress(tiny)));
+        assertArrayEquals(new byte[0], HuffmanCoding.decompress(HuffmanCoding.compress(new byte[0])));
+        
+        byte[] single = new byte[1000];
+        Arrays.fill(single, (byte) 'x');
+        packed = HuffmanCoding.compress(single);
+        assertTrue(packed.length < 140);
+        assertArrayEquals(single, HuffmanCoding.decompress(packed));
+        
+        assertThrows(IllegalArgumentException.class, () -> HuffmanCoding.decompress(new byte[]{1, 0}));
+        byte[] truncated = Arrays.copyOf(HuffmanCoding.compress(text), 12);
+        assertThrows(IllegalArgumentException.class, () -> HuffmanCoding.decompress(truncated));
+    }
+    
+    @Test
+    @DisplayName("Should limit Huffman code lengths and round trip random data")
+    public void testHuffmanLengthLimit() {
+        // Fibonacci frequencies make the plain tree 30+ levels deep
+        int[] frequency = new int[256];
+        int a = 1;
+        int b = 1;
+        for (int c = 0; c < 32; c++) {
+            frequency[c] = a;
+            int sum = a + b;
+            a = b;
+            b = sum;
+        }
+        int[] lengths = HuffmanCoding.codeLengths(frequency);
+        double kraft = 0;
+        for (int c = 0; c < 32; c++) {
+            assertTrue(lengths[c] >= 1 && lengths[c] <= 15);
+            kraft += Math.pow(2, -lengths[c]);
+        }
+        assertTrue(kraft <= 1.0);
+        
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            byte[] data = new byte[random.nextInt(5000)];
+            int alphabet = 1 + random.nextInt(256);
+            for (int i = 0; i < data.length; i++) {
+                // Skewed so some codes are longer than the lookup table
+                data[i] = (byte) (random.nextInt(1 + random.nextInt(alphabet)));
+            }
+            assertArrayEquals(data, HuffmanCoding.decompress(HuffmanCoding.compress(data)));
+        }
+        
+        byte[] skewed = new byte[200000];
+        int pos = 0;
+        for (int c = 0; c < 18 && pos < skewed.length; c++) {
+            for (int i = 0; i < (1 << (17 - c)) && pos < skewed.length; i++) {
+                skewed[pos++] = (byte) c;
+            }
+        }
+        assertArrayEquals(skewed, HuffmanCoding.decompress(HuffmanCoding.compress(skewed)));
+    }
+    
+    @Test
+    @DisplayName("Should stream Huffman blocks with constant memory")
+    public void testHuffmanStreams() throws java.io.IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            log.append("2025-01-").append(10 + i % 20).append(" member ").append(i % 97)
+               .append(" CHECK_IN branch Main floor ").append(i % 3).append('\n');
+        }
+        byte[] original = log.toString().getBytes();
+        
+        java.io.ByteArrayOutputStream sink = new java.io.ByteArrayOutputStream();
+        try (HuffmanOutputStream out = new HuffmanOutputStream(sink, 4096)) {
+            out.write(original, 0, 1000);
+            for (int i = 1000; i < 1100; i++) {
+                out.write(original[i]);
+            }
+            out.write(original, 1100, original.length - 1100);
+            out.flush();
+        }
+        byte[] packed = sink.toByteArray();
+        assertTrue(packed.length < original.length * 0.75);
+        
+        java.io.ByteArrayOutputStream restored = new java.io.ByteArrayOutputStream();
+        try (HuffmanInputStream in = new HuffmanInputStream(new java.io.ByteArrayInputStream(packed))) {
+            assertEquals('2', in.read());
+            restored.write('2');
+            assertEquals(10, in.skip(10));
+            restored.write(original, 1, 10);
+            byte[] buffer = new byte[777];
+            int n;
+            while ((n = in.read(buffer, 0, buffer.length)) > 0) {
+                restored.write(buffer, 0, n);
+            }
+            assertEquals(-1, in.read());
+        }
+        assertArrayEquals(original, restored.toByteArray());
+        
+        // Empty stream, wrong magic, missing end marker
+        java.io.ByteArrayOutputStream empty = new java.io.ByteArrayOutputStream();
+        new HuffmanOutputStream(empty).close();
+        assertEquals(-1, new HuffmanInputStream(new java.io.ByteArrayInputStream(empty.toByteArray())).read());
+        assertThrows(java.io.IOException.class,
+            () -> new HuffmanInputStream(new java.io.ByteArrayInputStream(new byte[]{1, 2, 3, 4})));
+        byte[] cut = Arrays.copyOf(packed, packed.length - 4);
+        assertThrows(java.io.IOException.class, () -> {
+            try (HuffmanInputStream in = new HuffmanInputStream(new java.io.ByteArrayInputStream(cut))) {
+                while (in.read() >= 0) {
+                    // drain
+                }
+            }
+        });
+    }
+    
+    @Test
+    @DisplayName("Huffman payloads should decode independently across threads")
+    public void testHuffmanConcurrent() throws Exception {
+        HuffmanCoding shared = new HuffmanCoding();
+        assertTrue(shared.buildCode("").isEmpty());
+        
+        // Single symbol tree is a leaf root
+        Map<Character, String> single = shared.buildCode("zzz");
+        assertEquals("000", shared.encode("zzz", single));
+        assertEquals("zzz", shared.decode("000", single));
+        
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(4);
+        try {
+            List<java.util.concurrent.Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+                results.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 200; i++) {
+                        StringBuilder text = new StringBuilder();
+                        for (int j = random.nextInt(300); j > 0; j--) {
+                            text.append((char) ('a' + random.nextInt(1 + seed * 3)));
+                        }
+                        byte[] data = text.toString().getBytes();
+                        if (!Arrays.equals(data, HuffmanCoding.decompress(HuffmanCoding.compress(data)))) {
+                            return false;
+                        }
+                        // String coding on a shared instance with per call tables
+                        Map<Character, String> codes = shared.buildCode(text.toString());
+                        if (!text.toString().equals(shared.decode(shared.encode(text.toString(), codes), codes))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (java.util.concurrent.Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("Trained Huffman dictionary should pack short records")
+    public void testHuffmanDictionary() throws Exception {
+        java.nio.charset.Charset utf8 = java.nio.charset.StandardCharsets.UTF_8;
+        String[] names = {"Ahmet Yılmaz", "Ayşe Demir", "Mehmet Kaya", "Zeynep Çelik", "Gökhan Şimşek"};
+        List<byte[]> samples = new ArrayList<>();
+        for (String name : names) {
+            samples.add(("Added member: " + name).getBytes(utf8));
+            samples.add(("Deleted member: " + name).getBytes(utf8));
+            samples.add(("Workout: " + name + " - Bench press 3x10").getBytes(utf8));
+        }
+        HuffmanCoding.Dictionary dictionary = HuffmanCoding.train(samples);
+        
+        byte[] record = "Added member: Ahmet Yılmaz".getBytes(utf8);
+        byte[] packed = dictionary.compress(record);
+        assertArrayEquals(record, dictionary.decompress(packed));
+        assertTrue(packed.length < record.length);
+        assertTrue(packed.length < HuffmanCoding.compress(record).length);
+        assertTrue(dictionary.getCodeLength('e') < dictionary.getCodeLength('~'));
+        
+        // Bytes missing from the samples still round trip
+        byte[] unseen = "{~}|\\^QXJ 1234567890".getBytes(utf8);
+        assertArrayEquals(unseen, dictionary.decompress(dictionary.compress(unseen)));
+        assertArrayEquals(new byte[0], dictionary.decompress(dictionary.compress(new byte[0])));
+        
+        // Code tables are rebuilt after deserialization
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+            out.writeObject(dictionary);
+        }
+        HuffmanCoding.Dictionary copy;
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                new java.io.ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (HuffmanCoding.Dictionary) in.readObject();
+        }
+        assertArrayEquals(record, copy.decompress(packed));
+        assertArrayEquals(packed, copy.compress(record));
+        
+        assertEquals(dictionary.getId(), copy.getId());
+        
+        // Stored table reads back with the same id
+        java.io.ByteArrayOutputStream table = new java.io.ByteArrayOutputStream();
+        dictionary.write(new java.io.DataOutputStream(table));
+        HuffmanCoding.Dictionary stored = HuffmanCoding.Dictionary.read(
+                new java.io.DataInputStream(new java.io.ByteArrayInputStream(table.toByteArray())));
+        assertEquals(dictionary.getId(), stored.getId());
+        assertArrayEquals(record, stored.decompress(packed));
+        byte[] damaged = table.toByteArray();
+        damaged[0]++;
+        assertThrows(java.io.IOException.class, () -> HuffmanCoding.Dictionary.read(
+                new java.io.DataInputStream(new java.io.ByteArrayInputStream(damaged))));
+        
+        // Records of another dictionary are rejected by id
+        HuffmanCoding.Dictionary other = HuffmanCoding.train(Arrays.asList("0123456789".getBytes(utf8)));
+        assertNotEquals(dictionary.getId(), other.getId());
+        assertThrows(IllegalArgumentException.class, () -> other.decompress(packed));
+        
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decompress(new byte[]{(byte) 0x80}));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decompress(Arrays.copyOf(packed, 6)));
+    }
+    
+    @Test
+    @DisplayName("Ring buffer should keep newest entries and report evictions")
+    public void testRingBuffer() {
+        RingBuffer<String> ring = new RingBuffer<>(3);
+        List<String> evicted = new ArrayList<>();
+        ring.setEvictionListener(evicted::add);
+        assertNull(ring.getCurrent());
+        assertNull(ring.navigateBackward());
+        
+        assertNull(ring.add("a"));
+        ring.add("b");
+        ring.add("c");
+        assertEquals("a", ring.getCurrent());
+        assertEquals("b", ring.navigateForward());
+        assertEquals("c", ring.navigateForward());
+        assertNull(ring.navigateForward());
+        
+        assertEquals("a", ring.add("d"));
+        assertEquals("b", ring.add("e"));
+        assertEquals(Arrays.asList("a", "b"), evicted);
+        assertEquals(3, ring.size());
+        assertEquals(2, ring.getEvictedCount());
+        // Cursor stays on "c" while older entries leave
+        assertEquals("c", ring.getCurrent());
+        assertEquals(Arrays.asList("c", "d", "e"), Arrays.asList(ring.get(0), ring.get(1), ring.get(2)));
+        assertNull(ring.navigateBackward());
+        assertEquals("e", ring.getLast());
+        
+        // Evicting the entry under the cursor moves it to the new oldest
+        ring.add("f");
+        ring.add("g");
+        assertEquals("e", ring.getCurrent());
+        List<String> all = new ArrayList<>();
+        for (String s : ring) {
+            all.add(s);
+        }
+        assertEquals(Arrays.asList("e", "f", "g"), all);
+        assertThrows(IndexOutOfBoundsException.class, () -> ring.get(3));
+        
+        ring.clear();
+        assertTrue(ring.isEmpty());
+        assertEquals(3, ring.capacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<String>(0));
+    }
+    
+    @Test
+    @DisplayName("Double linked list should find positions through checkpoints")
+    public void testDoubleLinkedListIndexedAccess() throws Exception {
+        DoubleLinkedList<Integer> list = new DoubleLinkedList<>();
+        java.util.LinkedList<Integer> expected = new java.util.LinkedList<>();
+        Random random = new Random(48);
+        for (int i = 0; i < 5000; i++) {
+            int op = random.nextInt(10);
+            if (op < 6) {
+                list.add(i);
+                expected.addLast(i);
+            } else if (op < 9) {
+                list.addFirst(i);
+                expected.addFirst(i);
+            } else if (!expected.isEmpty()) {
+                assertEquals(expected.removeLast(), list.removeLast());
+            }
+        }
+        List<Integer> reference = new ArrayList<>(expected);
+        assertEquals(reference.size(), list.size());
+        for (int i = 0; i < reference.size(); i++) {
+            assertEquals(reference.get(i), list.get(i));
+        }
+        assertEquals(reference.subList(100, 250), list.getRange(100, 250));
+        assertTrue(list.getRange(7, 7).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getRange(10, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(reference.size()));
+        
+        // Checkpoints are rebuilt after deserialization (nodes serialize
+        // recursively, so a short list is copied)
+        List<Integer> shortReference = reference.subList(0, 300);
+        DoubleLinkedList<Integer> shortList = new DoubleLinkedList<>();
+        for (int i = shortReference.size() - 1; i >= 0; i--) {
+            shortList.addFirst(shortReference.get(i));
+        }
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+            out.writeObject(shortList);
+        }
+        DoubleLinkedList<Integer> copy;
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                new java.io.ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            DoubleLinkedList<Integer> read = (DoubleLinkedList<Integer>) in.readObject();
+            copy = read;
+        }
+        for (int i = 0; i < shortReference.size(); i += 7) {
+            assertEquals(shortReference.get(i), copy.get(i));
+        }
+        copy.addFirst(-1);
+        assertEquals(Integer.valueOf(-1), copy.get(0));
+        assertEquals(shortReference.get(shortReference.size() - 1), copy.get(shortReference.size()));
+        
+        list.clear();
+        list.add(1);
+        assertEquals(Integer.valueOf(1), list.get(0));
+    }
+    
+    @Test
+    @DisplayName("XOR linked list should page by index")
+    public void testXORLinkedListRange() {
+        XORLinkedList<String> list = new XORLinkedList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add("Workout " + i);
+        }
+        assertEquals("Workout 0", list.get(0));
+        assertEquals("Workout 999", list.get(999));
+        assertEquals(Arrays.asList("Workout 500", "Workout 501", "Workout 502"), list.getRange(500, 503));
+        assertEquals(list.traverseForward(), list.getRange(0, 1000));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getRange(990, 1001));
+    }
+    
+    @Test
+    @DisplayName("Workout log should store columns in chunks and aggregate")
+    public void testWorkoutLog() {
+        WorkoutLog log = new WorkoutLog();
+        java.time.LocalDateTime start = java.time.LocalDateTime.of(2025, 1, 1, 8, 0);
+        WorkoutLog.ExerciseType[] types = WorkoutLog.ExerciseType.values();
+        long expectedCardioSeconds = 0;
+        double expectedVolume = 0;
+        int records = WorkoutLog.CHUNK_SIZE * 2 + 100;
+        for (int i = 0; i < records; i++) {
+            WorkoutLog.ExerciseType type = types[i % types.length];
+            int member = 1 + i % 5;
+            java.time.LocalDateTime time = start.plusHours(i);
+            assertEquals(i, log.add(member, time, type, 60 * (10 + i % 50), i % 7 * 10.0, "Session " + i));
+            // January only
+            if (time.getMonthValue() == 1) {
+                if (member == 3 && type == WorkoutLog.ExerciseType.CARDIO) {
+                    expectedCardioSeconds += 60 * (10 + i % 50);
+                }
+                if (member == 2) {
+                    expectedVolume += i % 7 * 10.0;
+                }
+            }
+        }
+        assertEquals(records, log.size());
+        assertEquals(3, log.getChunkCount());
+        assertEquals(1 + 4097 % 5, log.getMemberId(4097));
+        assertEquals(start.plusHours(5000), log.getTime(5000));
+        assertEquals(types[5000 % types.length], log.getType(5000));
+        assertEquals(60 * (10 + 5000 % 50), log.getDuration(5000));
+        assertEquals("Session 5000", log.getNote(5000));
+        
+        java.time.LocalDateTime from = java.time.LocalDateTime.of(2025, 1, 1, 0, 0);
+        java.time.LocalDateTime to = java.time.LocalDateTime.of(2025, 1, 31, 23, 59, 59);
+        WorkoutLog.Summary cardio = log.summarize(3, WorkoutLog.ExerciseType.CARDIO, from, to);
+        assertEquals(expectedCardioSeconds, cardio.getTotalDuration());
+        assertEquals(expectedVolume, log.summarizeByMember(null, from, to).get(2).getTotalVolume(), 0.001);
+        assertEquals(records, log.summarize(WorkoutLog.ANY_MEMBER, null, null, null).getCount());
+        assertEquals(0, log.summarize(WorkoutLog.ANY_MEMBER, null, start.minusDays(2), start.minusDays(1)).getCount());
+        
+        Map<WorkoutLog.ExerciseType, WorkoutLog.Summary> byType = log.summarizeByType(WorkoutLog.ANY_MEMBER, null, null);
+        int total = 0;
+        for (WorkoutLog.Summary summary : byType.values()) {
+            total += summary.getCount();
+        }
+        assertEquals(records, total);
+        
+        int[] memberFour = log.indicesOf(4);
+        assertEquals(records / 5, memberFour.length);
+        assertEquals(3, memberFour[0]);
+        
+        List<String> notes = log.notes();
+        assertEquals(records, notes.size());
+        assertEquals("Session 4096", notes.get(4096));
+        assertThrows(UnsupportedOperationException.class, () -> notes.add("x"));
+        log.add(1, start, WorkoutLog.ExerciseType.CARDIO, 60, 0, "Late");
+        assertEquals("Late", notes.get(records));
+        
+        assertThrows(IllegalArgumentException.class, () -> log.add(1, start, WorkoutLog.ExerciseType.CARDIO, -1, 0, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> log.getNote(records + 1));
+        log.clear();
+        assertTrue(log.isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Workout rollup should answer ranges from buckets")
+    public void testWorkoutRollup() {
+        WorkoutRollup rollup = new WorkoutRollup(WorkoutRollup.KEEP_FOREVER, WorkoutRollup.KEEP_FOREVER,
+            WorkoutRollup.KEEP_FOREVER);
+        java.time.LocalDateTime start = java.time.LocalDateTime.of(2025, 3, 1, 0, 0);
+        Random random = new Random(50);
+        List<long[]> raw = new ArrayList<>();   // minute offset, branch, type, seconds
+        String[] branches = {"Kadıköy", "Beşiktaş"};
+        for (int i = 0; i < 3000; i++) {
+            long minute = random.nextInt(60 * 24 * 40);
+            int branch = random.nextInt(2);
+            int type = random.nextInt(WorkoutLog.ExerciseType.values().length);
+            int seconds = 60 * (5 + random.nextInt(60));
+            raw.add(new long[]{minute, branch, type, seconds});
+            rollup.add(branches[branch], WorkoutLog.ExerciseType.values()[type],
+                start.plusMinutes(minute).plusSeconds(random.nextInt(60)), seconds, 0);
+        }
+        
+        for (int q = 0; q < 50; q++) {
+            long from = random.nextInt(60 * 24 * 40);
+            long to = from + random.nextInt(60 * 24 * 10);
+            long expected = 0;
+            int expectedCount = 0;
+            for (long[] r : raw) {
+                if (r[1] == 0 && r[2] == 0 && r[0] >= from && r[0] < to) {
+                    expected += r[3];
+                    expectedCount++;
+                }
+            }
+            WorkoutLog.Summary summary = rollup.aggregate("Kadıköy", WorkoutLog.ExerciseType.CARDIO,
+                start.plusMinutes(from), start.plusMinutes(to));
+            assertEquals(expected, summary.getTotalDuration());
+            assertEquals(expectedCount, summary.getCount());
+        }
+        assertEquals(raw.size(), rollup.aggregate(null, null, start, start.plusDays(41)).getCount());
+        
+        Map<java.time.LocalDateTime, WorkoutLog.Summary> days = rollup.buckets("Beşiktaş", null,
+            WorkoutRollup.Resolution.DAY, start, start.plusDays(40));
+        long daySum = 0;
+        for (WorkoutLog.Summary summary : days.values()) {
+            daySum += summary.getCount();
+        }
+        int expectedBesiktas = 0;
+        for (long[] r : raw) {
+            expectedBesiktas += r[1] == 1 ? 1 : 0;
+        }
+        assertEquals(expectedBesiktas, daySum);
+        assertEquals(start, days.keySet().iterator().next());
+        assertEquals(2, rollup.getBranches().size());
+    }
+    
+    @Test
+    @DisplayName("Workout rollup should drop expired fine buckets and downsample")
+    public void testWorkoutRollupRetention() {
+        // 60 minute buckets, 48 hour buckets, days forever
+        WorkoutRollup rollup = new WorkoutRollup(60, 48, WorkoutRollup.KEEP_FOREVER);
+        java.time.LocalDateTime day = java.time.LocalDateTime.of(2025, 6, 1, 0, 0);
+        rollup.add("Main", WorkoutLog.ExerciseType.CARDIO, day.plusHours(10).plusMinutes(15), 600, 0);
+        rollup.add("Main", WorkoutLog.ExerciseType.CARDIO, day.plusHours(10).plusMinutes(45), 900, 0);
+        assertEquals(600, rollup.aggregate("Main", null, day.plusHours(10), day.plusHours(10).plusMinutes(30))
+            .getTotalDuration());
+        
+        // A week later the minute and hour buckets of June 1st are gone
+        rollup.add("Main", WorkoutLog.ExerciseType.CARDIO, day.plusDays(7), 300, 0);
+        assertEquals(1, rollup.getBucketCount(WorkoutRollup.Resolution.MINUTE));
+        assertEquals(1, rollup.getBucketCount(WorkoutRollup.Resolution.HOUR));
+        assertEquals(2, rollup.getBucketCount(WorkoutRollup.Resolution.DAY));
+        
+        // Old periods resolve to whole days (bucket start inside the range)
+        assertEquals(1500, rollup.aggregate("Main", null, day, day.plusHours(11)).getTotalDuration());
+        assertEquals(0, rollup.aggregate("Main", null, day.plusHours(10), day.plusDays(1)).getTotalDuration());
+        assertEquals(1800, rollup.aggregate(null, WorkoutLog.ExerciseType.CARDIO, day, day.plusDays(8))
+            .getTotalDuration());
+        
+        // Late records older than retention only reach the day level
+        rollup.add("Main", WorkoutLog.ExerciseType.CARDIO, day.plusHours(12), 120, 0);
+        assertEquals(1, rollup.getBucketCount(WorkoutRollup.Resolution.MINUTE));
+        assertEquals(1620, rollup.buckets("Main", null, WorkoutRollup.Resolution.DAY, day, day.plusDays(1))
+            .get(day).getTotalDuration());
+        assertTrue(rollup.buckets("Main", null, WorkoutRollup.Resolution.HOUR, day, day.plusDays(1)).isEmpty());
+        
+        assertThrows(IllegalArgumentException.class, () -> new WorkoutRollup(0, 1, 1));
+        rollup.clear();
+        assertEquals(0, rollup.getBucketCount(WorkoutRollup.Resolution.DAY));
+    }
+    
+    @Test
+    @DisplayName("Should read Graph saved with adjacency list map")
+    public void testLegacyGraph() throws Exception {
+        Graph graph = (Graph) readLegacy("graph-baseline.ser");
+        
+        assertEquals(5, graph.getVertices());
+        assertEquals(4, graph.getEdgeCount());
+        assertTrue(graph.hasEdge(2, 0));
+        assertTrue(graph.hasEdge(3, 4));
+        assertEquals(3, graph.getComponentCount());
+        graph.addEdge(4, 5);
+        assertEquals(6, graph.getVertices());
+    }
+    
+    @Test
+    @DisplayName("Should read SparseMatrix saved with Position keys")
+    public void testLegacySparseMatrix() throws Exception {
+        @SuppressWarnings("unchecked")
+        SparseMatrix<String> matrix = (SparseMatrix<String>) readLegacy("sparsematrix-baseline.ser");
+        
+        assertEquals(10, matrix.getRows());
+        assertEquals(3, matrix.getNonZeroCount());
+        assertEquals("A", matrix.get(0, 0));
+        assertEquals("B", matrix.get(3, 4));
+        assertEquals("C", matrix.get(9, 9));
+        assertNull(matrix.get(4, 3));
+        matrix.set(3, 4, null);
+        assertEquals(2, matrix.getNonZeroCount());
+    }
+    
+    @Test
+    @DisplayName("Should read DoubleLinkedList saved as linked nodes")
+    public void testLegacyDoubleLinkedList() throws Exception {
+        @SuppressWarnings("unchecked")
+        DoubleLinkedList<String> list = (DoubleLinkedList<String>) readLegacy("doublelinkedlist-baseline.ser");
+        
+        assertEquals(101, list.size());
+        assertEquals("First", list.get(0));
+        assertEquals("Entry 99", list.get(100));
+        assertEquals("Entry 2", list.getCurrent());
+        assertEquals("Entry 3", list.navigateForward());
+        
+        List<String> elements = new ArrayList<>();
+        for (String element : list) {
+            elements.add(element);
+        }
+        assertEquals(101, elements.size());
+        assertEquals("Entry 50", elements.get(51));
+    }
+    
+    /**
+     * Read an object serialized by an older version, from test resources
+     */
+    private static Object readLegacy(String name) throws Exception {
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                AllDataStructuresTest.class.getResourceAsStream("/legacy/" + name))) {
+            return in.readObject();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.ibrahim.mehdi.gymmanager.datastructures;
+
+import java.util.Random;
+
+/**
+ * Manual benchmark for Graph traversals on 10^6 edges.
+ * Not part of the test suite (surefire only runs *Test classes).
+ *
+ * Run after mvn test-compile:
+ *   java -cp target/classes:target/test-classes
+ *        com.ibrahim.mehdi.gymmanager.datastructures.GraphBenchmark
+ */
+public class GraphBenchmark {
+    
+    private static final int VERTICES = 250000;
+    private static final int EDGES = 1000000;
+    private static final int ROUNDS = 5;
+    
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        
+        // Long chain (worst case for recursion) plus random edges
+        Graph graph = new Graph(VERTICES);
+        for (int i = 0; i + 1 < VERTICES; i++) {
+            graph.addEdge(i, i + 1);
+        }
+        for (int i = VERTICES - 1; i < EDGES; i++) {
+            graph.addEdge(random.nextInt(VERTICES), random.nextInt(VERTICES));
+        }
+        
+        long start = System.nanoTime();
+        CSRGraph csr = graph.snapshot();
+        report("snapshot", start);
+        
+        int[] component = new int[VERTICES];
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            int count = csr.componentIds(component);
+            report("tarjan (" + count + " SCCs)", start);
+        }
+        
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            int visited = csr.bfsOrder(0).length;
+            report("bfs (" + visited + " visited)", start);
+        }
+        
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            int visited = csr.dfs(0).size();
+            report("dfs (" + visited + " visited)", start);
+        }
+    }
+    
+    private static void report(String name, long startNanos) {
+        System.out.printf("%-30s %8.2f ms%n", name, (System.nanoTime() - startNanos) / 1e6);
+    }
+}
@@ -47,6 +47,8 @@ public class EquipmentTest {
         equip.setAvailable(false);
         equip.setLocationX(5);
         equip.setLocationY(8);
+        assertEquals(Equipment.DEFAULT_MAINTENANCE_MINUTES, equip.getMaintenanceMinutes());
+        equip.setMaintenanceMinutes(45);
         
         assertEquals(10, equip.getId());
         assertEquals("Dumbbell", equip.getName());
@@ -55,6 +57,7 @@ public class EquipmentTest {
         assertFalse(equip.isAvailable());
         assertEquals(5, equip.getLocationX());
         assertEquals(8, equip.getLocationY());
+        assertEquals(45, equip.getMaintenanceMinutes());
     }
     
     @Test
@@ -87,4 +90,36 @@ public class EquipmentTest {
         Equipment equip = new Equipment(1, "Koşu Bandı", "Kardiyo", 3, 5, 5);
         assertEquals("Koşu Bandı", equip.getName());
     }
+    
+    @Test
+    @DisplayName("Should default maintenance minutes of equipment saved before scheduling")
+    public void testLegacyMaintenanceMinutes() throws Exception {
+        Equipment equip;
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                getClass().getResourceAsStream("/legacy/equipment-baseline.ser"))) {
+            equip = (Equipment) in.readObject();
+        }
+        
+        assertEquals(7, equip.getId());
+        assertEquals("Rowing Machine", equip.getName());
+        assertEquals(3, equip.getLocationX());
+        assertEquals(4, equip.getLocationY());
+        assertTrue(equip.isAvailable());
+        assertEquals(Equipment.DEFAULT_MAINTENANCE_MINUTES, equip.getMaintenanceMinutes());
+    }
+    
+    @Test
+    @DisplayName("Should keep zero maintenance minutes through serialization")
+    public void testZeroMaintenanceMinutesSerialized() throws Exception {
+        Equipment equip = new Equipment(8, "Mat", "Flexibility", 10);
+        equip.setMaintenanceMinutes(0);
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+            out.writeObject(equip);
+        }
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                new java.io.ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(0, ((Equipment) in.readObject()).getMaintenanceMinutes());
+        }
+    }
 }
\ No newline at end of file
@@ -50,6 +50,18 @@ public class MemberTest {
         assertEquals("İbrahim Demirci", member.getFullName());
     }
     
+    @Test
+    public void testFoldedName() {
+        Member member = new Member(1, "İbrahim", "Güçlü", "555", "ibrahim@test.com", Member.MembershipType.VIP);
+        assertEquals("ibrahim guclu", member.getFoldedName());
+        assertSame(member.getFoldedName(), member.getFoldedName());
+        
+        member.setSurname("Şahin");
+        assertEquals("ibrahim sahin", member.getFoldedName());
+        member.setName("Işıl");
+        assertEquals("isil sahin", member.getFoldedName());
+    }
+    
     @Test
     public void testSetMembershipTypeUpdatesEndDate() {
         Member member = new Member(1, "Test", "User", "555", "test@test.com", Member.MembershipType.MONTHLY);
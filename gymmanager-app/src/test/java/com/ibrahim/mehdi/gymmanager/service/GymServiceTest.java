@@ -1,11 +1,18 @@
 package com.ibrahim.mehdi.gymmanager.service;
 
+import com.ibrahim.mehdi.gymmanager.datastructures.MaintenanceScheduler;
+import com.ibrahim.mehdi.gymmanager.datastructures.WorkoutLog;
+import com.ibrahim.mehdi.gymmanager.datastructures.WorkoutRollup;
 import com.ibrahim.mehdi.gymmanager.model.*;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 import java.io.File;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * GymService Tests - MINIMAL ERROR FIX ONLY
@@ -39,6 +46,18 @@ public class GymServiceTest {
                 if (dataFile.exists()) {
                     dataFile.delete();
                 }
+                File[] kept = dataDir.listFiles((dir, name) -> name.startsWith(TEST_DATA_FILE + ".unreadable"));
+                if (kept != null) {
+                    for (File file : kept) {
+                        file.delete();
+                    }
+                }
+                File[] archived = new File(dataDir, "archive").listFiles();
+                if (archived != null) {
+                    for (File file : archived) {
+                        file.delete();
+                    }
+                }
             }
         } catch (Exception e) {
             // Ignore
@@ -86,6 +105,106 @@ public class GymServiceTest {
         
         List<Member> noResults = service.searchMemberByName("XYZABC");
         assertTrue(noResults.isEmpty());
+        
+        // Index follows adds and deletes
+        Member added = service.addMember("Zeynep", "Quixote", "555-5555",
+            "zeynep@test.com", Member.MembershipType.MONTHLY);
+        assertEquals(1, service.searchMemberByName("quixo").size());
+        assertTrue(service.deleteMember(added.getId()));
+        assertTrue(service.searchMemberByName("quixo").isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should search member names by regular expression")
+    public void testSearchMembersByPattern() {
+        Member member = service.addMember("Gökhan", "Şimşek", "555-6666",
+            "gs@test.com", Member.MembershipType.YEARLY);
+        
+        assertTrue(service.searchMembersByPattern("^GÖK.*şek$").contains(member));
+        assertTrue(service.searchMembersByPattern("(simsek|zzz)").contains(member));
+        assertFalse(service.searchMembersByPattern("^simsek").contains(member));
+        assertTrue(service.searchMembersByPattern("[unclosed").isEmpty());
+        assertTrue(service.searchMembersByPattern("").isEmpty());
+        
+        // Short terms are scanned instead of using trigrams
+        assertTrue(service.searchMemberByName("mŞ").contains(member));
+        service.deleteMember(member.getId());
+        assertFalse(service.searchMemberByName("mŞ").contains(member));
+        assertFalse(service.searchMembersByPattern("gokhan").contains(member));
+    }
+    
+    @Test
+    @DisplayName("Should autocomplete names, emails and phones")
+    public void testAutocompleteMembers() {
+        Member member = service.addMember("Zeynep", "Çağlar", "(555) 987-6543",
+            "zeynep.c@test.com", Member.MembershipType.MONTHLY);
+        
+        assertEquals(member, service.autocompleteMembers("Zeyn", 5).get(0));
+        assertTrue(service.autocompleteMembers("CAGL", 5).contains(member));
+        assertTrue(service.autocompleteMembers("zeynep.c@", 5).contains(member));
+        assertTrue(service.autocompleteMembers("555 987", 5).contains(member));
+        assertTrue(service.autocompleteMembers("", 5).isEmpty());
+        assertTrue(service.autocompleteMembers("eynep", 5).isEmpty());
+        
+        // Name and email both match, member is listed once
+        assertEquals(1, service.autocompleteMembers("zeynep", 5).size());
+        assertEquals(1, service.autocompleteMembers("a", 1).size());
+        
+        service.deleteMember(member.getId());
+        assertTrue(service.autocompleteMembers("Zeyn", 5).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should find members despite typos")
+    public void testFuzzySearchMembers() {
+        Member mehmet = service.addMember("Mehmet", "Karagülle", "555-5555",
+            "mk@test.com", Member.MembershipType.MONTHLY);
+        
+        assertTrue(service.searchMemberByName("Mehmed Karagulle").isEmpty());
+        List<Member> results = service.fuzzySearchMembers("Mehmed Karagule", 1);
+        assertEquals(mehmet, results.get(0));
+        assertTrue(service.fuzzySearchMembers("KARAGÜLE", 1).contains(mehmet));
+        assertFalse(service.fuzzySearchMembers("Karagole", 0).contains(mehmet));
+        assertTrue(service.fuzzySearchMembers("", 2).isEmpty());
+        
+        service.deleteMember(mehmet.getId());
+        assertFalse(service.fuzzySearchMembers("Mehmed Karagule", 1).contains(mehmet));
+    }
+    
+    @Test
+    @DisplayName("Should ignore Turkish letters and case in name search")
+    public void testSearchByFoldedName() {
+        Member member = service.addMember("Şükrü", "Öztürkoğlu", "555-4444",
+            "sukru@test.com", Member.MembershipType.MONTHLY);
+        
+        assertTrue(service.searchMemberByName("SUKRU OZTURK").contains(member));
+        assertTrue(service.searchMemberByName("öztürkoglu").contains(member));
+        assertTrue(service.searchMemberByName("ŞÜ").contains(member));
+        assertTrue(service.searchMembersByAnyTerm(Arrays.asList("ozturkOĞLU")).contains(member));
+    }
+    
+    @Test
+    @DisplayName("Should search members and workouts by several terms")
+    public void testSearchByAnyTerm() {
+        service.addMember("Blocked", "User", "555-1212", "spam@blocked.com", Member.MembershipType.MONTHLY);
+        service.addMember("Selin", "Tekin", "555-1313", "selin@test.com", Member.MembershipType.MONTHLY);
+        
+        List<Member> results = service.searchMembersByAnyTerm(Arrays.asList("@BLOCKED.com", "tekin"));
+        assertEquals(2, results.size());
+        assertTrue(service.searchMembersByAnyTerm(Arrays.asList("nobody-here")).isEmpty());
+        assertTrue(service.searchMembersByAnyTerm(null).isEmpty());
+        assertEquals(results, service.searchMembersByAnyTerm(Arrays.asList(null, "", "@BLOCKED.com", "tekin")));
+        assertTrue(service.searchMembersByAnyTerm(Arrays.asList(null, "")).isEmpty());
+        
+        service.addWorkoutRecord("Deadlift 5x5");
+        service.addWorkoutRecord("Rowing 20 min");
+        service.addWorkoutRecord("Yoga flow");
+        List<String> workouts = service.searchWorkoutHistory(Arrays.asList("deadlift", "ROWING"));
+        assertTrue(workouts.contains("Deadlift 5x5"));
+        assertTrue(workouts.contains("Rowing 20 min"));
+        assertFalse(workouts.contains("Yoga flow"));
+        assertEquals(workouts, service.searchWorkoutHistory(Arrays.asList("deadlift", null, "", "ROWING")));
+        assertTrue(service.searchWorkoutHistory(Arrays.asList((String) null)).isEmpty());
     }
     
     @Test
@@ -146,6 +265,61 @@ public class GymServiceTest {
         Equipment found = service.getEquipmentAt(10, 10);
         assertNotNull(found);
         assertEquals(e.getId(), found.getId());
+        
+        List<Equipment> all = service.getAllEquipment();
+        assertTrue(all.contains(e));
+        assertSame(all, service.getAllEquipment());
+        assertThrows(UnsupportedOperationException.class, () -> all.clear());
+    }
+    
+    @Test
+    @DisplayName("Should keep equipment per branch and floor")
+    public void testMultiFloorEquipment() {
+        Equipment ground = service.addEquipment("Squat Rack", "Weights", 1, 200, 300);
+        Equipment upstairs = service.addEquipment("Squat Rack", "Weights", 1, "Main", 1, 200, 300);
+        Equipment downtown = service.addEquipment("Squat Rack", "Weights", 1, "Downtown", 0, 200, 300);
+        
+        assertEquals(GymService.DEFAULT_BRANCH, ground.getBranch());
+        assertEquals(1, upstairs.getFloor());
+        assertEquals(ground.getId(), service.getEquipmentAt(200, 300).getId());
+        assertEquals(upstairs.getId(), service.getEquipmentAt("Main", 1, 200, 300).getId());
+        assertEquals(downtown.getId(), service.getEquipmentAt("Downtown", 0, 200, 300).getId());
+        assertNull(service.getEquipmentAt("Downtown", 1, 200, 300));
+        assertTrue(service.findEquipmentInArea("Uptown", 0, 0, 0, 500, 500, null).isEmpty());
+        assertTrue(service.findEquipmentWithinRadius("Uptown", 0, 200, 300, 5, null).isEmpty());
+        assertTrue(service.findNearestEquipment("Uptown", 0, 200, 300, 3, null).isEmpty());
+        
+        List<Equipment> nearby = service.findEquipmentWithinRadius("Main", 1, 200, 300, 5, null);
+        assertEquals(1, nearby.size());
+        assertEquals(upstairs.getId(), nearby.get(0).getId());
+        
+        Map<String, Object> stats = service.getStatistics();
+        assertTrue((Integer) stats.get("Equipment Tiles") >= 3);
+        assertTrue(stats.containsKey("Tile Occupancy"));
+    }
+    
+    @Test
+    @DisplayName("Should find equipment by area and distance")
+    public void testEquipmentSpatialQueries() {
+        Equipment near = service.addEquipment("Spin Bike", "Spatial", 1, 15, 15);
+        Equipment far = service.addEquipment("Air Bike", "Spatial", 1, 19, 19);
+        service.addEquipment("Kettlebell", "Free", 1, 16, 16);
+        
+        List<Equipment> radius = service.findEquipmentWithinRadius(15, 15, 2, "Spatial");
+        assertEquals(1, radius.size());
+        assertEquals(near.getId(), radius.get(0).getId());
+        
+        assertEquals(2, service.findEquipmentInArea(14, 14, 19, 19, "Spatial").size());
+        assertEquals(3, service.findEquipmentInArea(14, 14, 19, 19, null).size());
+        
+        List<Equipment> nearest = service.findNearestEquipment(19, 18, 2, "Spatial");
+        assertEquals(far.getId(), nearest.get(0).getId());
+        assertEquals(near.getId(), nearest.get(1).getId());
+        
+        // Replacing a location drops the old equipment from the index
+        service.addEquipment("Rower", "Spatial", 1, 15, 15);
+        assertEquals("Rower", service.findEquipmentWithinRadius(15, 15, 0, null).get(0).getName());
+        assertEquals(1, service.findEquipmentWithinRadius(15, 15, 0, null).size());
     }
     
     @Test
@@ -158,12 +332,46 @@ public class GymServiceTest {
         assertNotNull(bfs);
         assertTrue(bfs.size() > 0);
         
+        assertEquals(bfs, service.bfsTraversal(0, 1));
+        assertEquals(bfs.size(), service.bfsTraversal(0, 4).size());
+        
         List<Integer> dfs = service.dfsTraversal(0);
         assertNotNull(dfs);
         assertTrue(dfs.size() > 0);
         
         List<List<Integer>> sccs = service.findStronglyConnectedComponents();
         assertNotNull(sccs);
+        
+        // Graph grows with equipment ids and drops removed dependencies
+        Equipment equipment = service.addEquipment("Rower", "Cardio", 1, 3, 3);
+        service.addEquipmentDependency(2, equipment.getId());
+        service.addEquipmentDependency(equipment.getId(), 0);
+        int before = service.findStronglyConnectedComponents().size();
+        assertTrue(service.removeEquipmentDependency(equipment.getId(), 0));
+        assertFalse(service.removeEquipmentDependency(equipment.getId(), 0));
+        assertTrue(service.findStronglyConnectedComponents().size() > before);
+    }
+    
+    @Test
+    @DisplayName("Should plan equipment maintenance")
+    public void testMaintenanceSchedule() {
+        Equipment first = service.addEquipment("Bike", "Cardio", 1, 4, 4);
+        Equipment second = service.addEquipment("Press", "Weights", 1, 5, 5);
+        service.addEquipmentDependency(first.getId(), second.getId());
+        
+        MaintenanceScheduler.Schedule schedule = service.getMaintenanceSchedule();
+        assertSame(schedule, service.getMaintenanceSchedule());
+        assertEquals(schedule.getEarliestFinish(first.getId()),
+            schedule.getEarliestStart(second.getId()));
+        
+        assertTrue(service.setEquipmentMaintenanceMinutes(first.getId(), 200));
+        assertFalse(service.setEquipmentMaintenanceMinutes(-5, 10));
+        assertFalse(service.setEquipmentMaintenanceMinutes(first.getId(), -1));
+        
+        MaintenanceScheduler.Schedule updated = service.getMaintenanceSchedule();
+        assertNotSame(schedule, updated);
+        assertTrue(updated.getEarliestStart(second.getId()) >= 200);
+        assertTrue(updated.getMakespan() >= 200 + Equipment.DEFAULT_MAINTENANCE_MINUTES);
     }
     
     @Test
@@ -248,11 +456,37 @@ public class GymServiceTest {
     public void testCompression() {
         String data = "Test data for compression";
         
-        String compressed = service.compressData(data);
+        byte[] compressed = service.compressData(data);
         assertNotNull(compressed);
         
         String decompressed = service.decompressData(compressed);
         assertEquals(data, decompressed);
+        
+        // A real report shrinks below its UTF-8 size
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            report.append("Member ").append(i).append(" checked in, membership MONTHLY, ödeme tamam\n");
+        }
+        byte[] packed = service.compressData(report.toString());
+        assertTrue(packed.length < report.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8).length * 0.7);
+        assertEquals(report.toString(), service.decompressData(packed));
+    }
+    
+    @Test
+    @DisplayName("Should compress many records in parallel")
+    public void testCompressAll() {
+        List<String> records = new java.util.ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            records.add("Workout " + i + ": squat " + (i % 7) + "x5, bench " + (i % 5) + "x8, Çarşamba");
+        }
+        
+        List<byte[]> packed = service.compressAll(records);
+        assertEquals(records.size(), packed.size());
+        // Each payload stands alone, decode out of order
+        assertEquals(records.get(321), service.decompressData(packed.get(321)));
+        assertEquals(records.get(7), service.decompressData(packed.get(7)));
+        assertEquals(records, service.decompressAll(packed));
+        assertTrue(service.compressAll(null).isEmpty());
     }
     
     @Test
@@ -260,17 +494,17 @@ public class GymServiceTest {
     public void testCompressionEdgeCases() {
   
         String test1 = "Hello World";
-        String compressed1 = service.compressData(test1);
+        byte[] compressed1 = service.compressData(test1);
         String decompressed1 = service.decompressData(compressed1);
         assertEquals(test1, decompressed1, "Failed to compress/decompress: " + test1);
         
         String test2 = "ABCDEFGH";
-        String compressed2 = service.compressData(test2);
+        byte[] compressed2 = service.compressData(test2);
         String decompressed2 = service.decompressData(compressed2);
         assertEquals(test2, decompressed2, "Failed to compress/decompress: " + test2);
         
         String test3 = "Test Data 12345";
-        String compressed3 = service.compressData(test3);
+        byte[] compressed3 = service.compressData(test3);
         String decompressed3 = service.decompressData(compressed3);
         assertEquals(test3, decompressed3, "Failed to compress/decompress: " + test3);
     }
@@ -398,4 +632,378 @@ public class GymServiceTest {
         
         assertEquals(lower.size(), upper.size());
     }
+    
+    @Test
+    @DisplayName("Should archive processed and cancelled appointments")
+    public void testAppointmentArchive() {
+        Member m = service.addMember("Archive", "User", "555-0001", 
+            "archive@test.com", Member.MembershipType.MONTHLY);
+        
+        Appointment cancelled = service.createAppointment(m.getId(), "Archive Cancel", 9);
+        assertNotNull(service.cancelAppointment(cancelled.getId()));
+        assertNull(service.cancelAppointment(99999));
+        
+        while (service.getNextAppointment() != null) {
+            service.processNextAppointment();
+        }
+        
+        LocalDate day = cancelled.getAppointmentTime().toLocalDate();
+        List<Appointment> byService = service.getArchivedAppointmentsByService("Archive Cancel", day, day);
+        assertEquals(1, byService.size());
+        assertEquals(Appointment.AppointmentStatus.CANCELLED, byService.get(0).getStatus());
+        
+        List<Appointment> byMember = service.getArchivedAppointmentsByMember(m.getId(), day, day);
+        assertEquals(1, byMember.size());
+        
+        // Two sample appointments completed, one cancelled, each archived once
+        List<Appointment> archived = service.getArchivedAppointments(null, null);
+        assertEquals(3, archived.size());
+        assertEquals(3, archived.stream().map(Appointment::getId).distinct().count());
+        assertEquals(1, archived.stream()
+            .filter(a -> a.getStatus() == Appointment.AppointmentStatus.CANCELLED).count());
+        assertEquals(2, archived.stream()
+            .filter(a -> a.getStatus() == Appointment.AppointmentStatus.COMPLETED).count());
+        
+        // Every day partition holds exactly the appointments of that day
+        Map<LocalDate, List<Integer>> byDay = archived.stream().collect(java.util.stream.Collectors.groupingBy(
+            a -> a.getAppointmentTime().toLocalDate(), java.util.TreeMap::new,
+            java.util.stream.Collectors.mapping(Appointment::getId, java.util.stream.Collectors.toList())));
+        assertTrue(byDay.get(day).contains(cancelled.getId()));
+        for (Map.Entry<LocalDate, List<Integer>> partition : byDay.entrySet()) {
+            List<Appointment> stored = service.getArchivedAppointments(partition.getKey(), partition.getKey());
+            assertEquals(partition.getValue().size(), stored.size());
+            for (Appointment appointment : stored) {
+                assertEquals(partition.getKey(), appointment.getAppointmentTime().toLocalDate());
+                assertTrue(partition.getValue().contains(appointment.getId()));
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Should pack short history records with the trained dictionary")
+    public void testCompressHistoryRecord() {
+        service.addMember("Ahmet", "Yılmaz", "555-7777", 
+            "ahmet@test.com", Member.MembershipType.MONTHLY);
+        service.addWorkoutRecord("Ahmet Yılmaz - Squat 5x5");
+        service.trainHistoryDictionary();
+        
+        String record = "Added member: Ahmet Yılmaz";
+        byte[] packed = service.compressHistoryRecord(record);
+        assertTrue(packed.length < record.getBytes(java.nio.charset.StandardCharsets.UTF_8).length);
+        assertEquals(record, service.decompressHistoryRecord(packed));
+        assertEquals("", service.decompressHistoryRecord(null));
+        
+        // Training does not save, records of the old dictionary are rejected
+        for (int i = 0; i < 20; i++) {
+            service.addWorkoutRecord("Cardio 1234567890 #" + i);
+        }
+        new File(TEST_DATA_DIR, TEST_DATA_FILE).delete();
+        service.trainHistoryDictionary();
+        assertFalse(new File(TEST_DATA_DIR, TEST_DATA_FILE).exists());
+        assertEquals("", service.decompressHistoryRecord(packed));
+        assertEquals(record, service.decompressHistoryRecord(service.compressHistoryRecord(record)));
+    }
+    
+    @Test
+    @DisplayName("Should keep history bounded and spill old entries")
+    public void testHistorySpill() {
+        Member member = service.addMember("Spill", "Test", "555-1111",
+            "spill@test.com", Member.MembershipType.MONTHLY);
+        for (int i = 0; i < 300; i++) {
+            service.addToWaitingQueue(member);
+            service.processNextInQueue();
+        }
+        
+        Map<String, Object> stats = service.getStatistics();
+        assertEquals(500, stats.get("History Records"));
+        long spilled = service.getSpilledHistoryCount();
+        assertTrue(spilled > 100);
+        
+        List<String> full = service.getFullHistory();
+        assertEquals(500 + spilled, full.size());
+        assertEquals("Processed from queue: Spill Test", full.get(full.size() - 1));
+        assertTrue(full.contains("Added member: Spill Test"));
+        
+        // Pages run across spilled segments, the pending tail and the ring
+        assertEquals(full.size(), service.getHistorySize());
+        for (long offset : new long[]{0, 250, spilled - 3, full.size() - 4}) {
+            int from = (int) offset;
+            assertEquals(full.subList(from, Math.min(from + 7, full.size())), service.getHistoryPage(offset, 7));
+        }
+        assertTrue(service.getHistoryPage(full.size(), 7).isEmpty());
+        
+        // Reloaded service keeps the pending spill tail
+        GymService reloaded = new GymService();
+        assertEquals(spilled, reloaded.getSpilledHistoryCount());
+        assertEquals(full, reloaded.getFullHistory());
+    }
+    
+    @Test
+    @DisplayName("Should keep spilling history after loadData")
+    public void testHistorySpillAfterLoadData() {
+        Member member = service.addMember("Reload", "Test", "555-1212",
+            "reload@test.com", Member.MembershipType.MONTHLY);
+        service.loadData();
+        for (int i = 0; i < 300; i++) {
+            service.addToWaitingQueue(member);
+            service.processNextInQueue();
+        }
+        
+        long spilled = service.getSpilledHistoryCount();
+        assertTrue(spilled > 100);
+        List<String> full = service.getFullHistory();
+        assertEquals(500 + spilled, full.size());
+        assertTrue(full.contains("Added member: Reload Test"));
+    }
+    
+    @Test
+    @DisplayName("Should page through history and workout records")
+    public void testHistoryPaging() {
+        for (int i = 0; i < 30; i++) {
+            service.addWorkoutRecord("Workout " + i);
+        }
+        int total = service.getWorkoutHistorySize();
+        assertTrue(total >= 30);
+        assertEquals(Arrays.asList("Workout 28", "Workout 29"), service.getWorkoutHistoryPage(total - 2, 10));
+        assertEquals(5, service.getWorkoutHistoryPage(0, 5).size());
+        assertTrue(service.getWorkoutHistoryPage(total + 5, 5).isEmpty());
+        
+        service.addMember("Page", "Test", "555-2222", "page@test.com", Member.MembershipType.MONTHLY);
+        long size = service.getHistorySize();
+        assertEquals(Arrays.asList("Added member: Page Test"), service.getHistoryPage(size - 1, 5));
+        assertEquals(Math.min(size, 3), service.getHistoryPage(0, 3).size());
+        assertTrue(service.getHistoryPage(0, 0).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should record structured workouts and aggregate them")
+    public void testStructuredWorkouts() {
+        Member member = service.addMember("Work", "Out", "555-3333",
+            "work@test.com", Member.MembershipType.MONTHLY);
+        java.time.LocalDateTime day = java.time.LocalDateTime.of(2025, 5, 10, 9, 0);
+        assertTrue(service.addWorkout(member.getId(), WorkoutLog.ExerciseType.CARDIO, day, 30, 0));
+        assertTrue(service.addWorkout(member.getId(), WorkoutLog.ExerciseType.CARDIO, day.plusHours(8), 20, 0));
+        assertTrue(service.addWorkout(member.getId(), WorkoutLog.ExerciseType.STRENGTH, day.plusDays(1), 45, 3200));
+        assertFalse(service.addWorkout(99999, WorkoutLog.ExerciseType.CARDIO, day, 30, 0));
+        assertFalse(service.addWorkout(member.getId(), WorkoutLog.ExerciseType.CARDIO, day, -5, 0));
+        
+        WorkoutLog.Summary cardio = service.getWorkoutSummary(member.getId(), WorkoutLog.ExerciseType.CARDIO,
+            day.toLocalDate().atStartOfDay(), day.toLocalDate().atTime(23, 59));
+        assertEquals(2, cardio.getCount());
+        assertEquals(50, cardio.getTotalMinutes());
+        assertEquals(3200, service.getWorkoutSummaryByMember(null, day, day.plusDays(2))
+            .get(member.getId()).getTotalVolume(), 0.001);
+        
+        List<String> history = service.getWorkoutHistory();
+        assertTrue(history.contains("Work Out - STRENGTH 45 min, 3200.0 kg"));
+        service.addWorkoutRecord("Free text session");
+        assertEquals("Free text session", history.get(history.size() - 1));
+    }
+    
+    @Test
+    @DisplayName("Should report cardio minutes per day per branch")
+    public void testWorkoutRollups() {
+        Member member = service.addMember("Roll", "Up", "555-4444",
+            "roll@test.com", Member.MembershipType.MONTHLY);
+        java.time.LocalDateTime day = java.time.LocalDateTime.of(2025, 9, 1, 7, 30);
+        service.addWorkout(member.getId(), WorkoutLog.ExerciseType.CARDIO, "Kadıköy", day, 30, 0);
+        // Workouts update the rollup as they are added
+        assertEquals(30, service.getWorkoutTotals("Kadıköy", WorkoutLog.ExerciseType.CARDIO,
+            day.minusDays(1), day.plusDays(5)).getTotalMinutes());
+        
+        service.addWorkout(member.getId(), WorkoutLog.ExerciseType.CARDIO, "Kadıköy", day.plusHours(10), 20, 0);
+        service.addWorkout(member.getId(), WorkoutLog.ExerciseType.CARDIO, "Kadıköy", day.plusDays(2), 40, 0);
+        service.addWorkout(member.getId(), WorkoutLog.ExerciseType.CARDIO, "Beşiktaş", day, 60, 0);
+        service.addWorkout(member.getId(), WorkoutLog.ExerciseType.STRENGTH, "Kadıköy", day, 45, 1000);
+        
+        Map<java.time.LocalDateTime, WorkoutLog.Summary> perDay = service.getWorkoutTimeline("Kadıköy",
+            WorkoutLog.ExerciseType.CARDIO, WorkoutRollup.Resolution.DAY,
+            day.toLocalDate().atStartOfDay(), day.toLocalDate().plusDays(3).atStartOfDay());
+        assertEquals(2, perDay.size());
+        assertEquals(50, perDay.get(day.toLocalDate().atStartOfDay()).getTotalMinutes());
+        assertEquals(40, perDay.get(day.toLocalDate().plusDays(2).atStartOfDay()).getTotalMinutes());
+        
+        assertEquals(150, service.getWorkoutTotals(null, WorkoutLog.ExerciseType.CARDIO,
+            day.minusDays(1), day.plusDays(5)).getTotalMinutes());
+        // Past the minute/hour retention, old periods resolve to whole days
+        assertEquals(1000, service.getWorkoutTotals("Kadıköy", null, day.toLocalDate().atStartOfDay(),
+            day.toLocalDate().plusDays(1).atStartOfDay()).getTotalVolume(), 0.001);
+        assertFalse(service.addWorkout(member.getId(), WorkoutLog.ExerciseType.CARDIO, null, day, 10, 0));
+        
+        // The buckets are saved with the data, dropped minutes stay dropped
+        GymService reloaded = new GymService();
+        assertEquals(perDay.keySet(), reloaded.getWorkoutTimeline("Kadıköy", WorkoutLog.ExerciseType.CARDIO,
+            WorkoutRollup.Resolution.DAY, day.toLocalDate().atStartOfDay(),
+            day.toLocalDate().plusDays(3).atStartOfDay()).keySet());
+        assertTrue(reloaded.getWorkoutTimeline(null, null, WorkoutRollup.Resolution.MINUTE,
+            day.minusDays(1), day.plusDays(5)).isEmpty());
+        assertEquals(150, reloaded.getWorkoutTotals(null, WorkoutLog.ExerciseType.CARDIO,
+            day.minusDays(1), day.plusDays(5)).getTotalMinutes());
+    }
+    
+    @Test
+    @DisplayName("Should keep an unreadable data file instead of overwriting it")
+    public void testUnreadableDataFileKept() throws Exception {
+        File dataFile = new File(TEST_DATA_DIR, TEST_DATA_FILE);
+        byte[] damaged = "not a gym service".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        java.nio.file.Files.write(dataFile.toPath(), damaged);
+        File spill = new File(TEST_DATA_DIR, "archive" + File.separator + "history-spill.dat");
+        spill.getParentFile().mkdirs();
+        java.nio.file.Files.write(spill.toPath(), damaged);
+        
+        GymService fresh = new GymService();
+        
+        File kept = new File(TEST_DATA_DIR, TEST_DATA_FILE + ".unreadable");
+        assertTrue(kept.exists());
+        assertArrayEquals(damaged, java.nio.file.Files.readAllBytes(kept.toPath()));
+        assertFalse(fresh.getAllMembers().isEmpty());
+        // Its spilled history is kept with it
+        File keptSpill = new File(spill.getPath() + ".unreadable");
+        assertArrayEquals(damaged, java.nio.file.Files.readAllBytes(keptSpill.toPath()));
+        assertFalse(spill.exists());
+    }
+    
+    @Test
+    @DisplayName("Should load a data file saved by the previous version")
+    public void testLoadLegacyDataFile() throws Exception {
+        GymService legacy = loadLegacyDataFile();
+        
+        Equipment rowing = legacy.getEquipmentAt(3, 4);
+        assertNotNull(rowing);
+        assertEquals("Rowing Machine", rowing.getName());
+        assertEquals(GymService.DEFAULT_BRANCH, rowing.getBranch());
+        assertEquals(Equipment.DEFAULT_MAINTENANCE_MINUTES, rowing.getMaintenanceMinutes());
+        assertTrue(legacy.getAllEquipment().contains(rowing));
+        assertTrue(legacy.findEquipmentWithinRadius(3, 4, 1, null).contains(rowing));
+        assertTrue(legacy.getAllMembers().stream()
+            .anyMatch(m -> "legacy@gym.com".equals(m.getEmail())));
+        
+        // Old history and workout lists are moved into the ring buffer and workout log
+        List<String> history = legacy.getFullHistory();
+        assertTrue(history.contains("Added member: Legacy Member"));
+        assertTrue(history.contains("Added equipment: Rowing Machine"));
+        assertEquals(0, legacy.getSpilledHistoryCount());
+        List<String> workouts = legacy.getWorkoutHistoryPage(0, legacy.getWorkoutHistorySize());
+        assertEquals("Legacy Member rowed 20 min", workouts.get(workouts.size() - 1));
+        // Migrated records have no time, so they fall in no period or bucket
+        java.time.LocalDateTime today = LocalDate.now().atStartOfDay();
+        assertEquals(0, legacy.getWorkoutSummary(WorkoutLog.ANY_MEMBER, null, today, today.plusDays(1)).getCount());
+        assertEquals(0, legacy.getWorkoutTotals(null, null, today, today.plusDays(1)).getCount());
+        assertEquals(workouts.size(), legacy.getWorkoutSummary(WorkoutLog.ANY_MEMBER, null, null, null).getCount());
+        
+        // The plain file is replaced by a block compressed one on the next save
+        legacy.saveData();
+        assertTrue(com.ibrahim.mehdi.gymmanager.util.BinaryFileStorage.isCompressed(TEST_DATA_FILE));
+        assertEquals("Rowing Machine", new GymService().getEquipmentAt(3, 4).getName());
+    }
+    
+    /**
+     * Replace the data file with one saved by the previous version and load it
+     */
+    private GymService loadLegacyDataFile() throws Exception {
+        try (java.io.InputStream in = getClass().getResourceAsStream("/legacy/gymservice-baseline.dat")) {
+            java.nio.file.Files.copy(in, new File(TEST_DATA_DIR, TEST_DATA_FILE).toPath(),
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        }
+        GymService legacy = new GymService();
+        assertFalse(new File(TEST_DATA_DIR, TEST_DATA_FILE + ".unreadable").exists());
+        return legacy;
+    }
+    
+    @Test
+    @DisplayName("Should rebuild equipment index after loadData")
+    public void testEquipmentIndexAfterLoadData() {
+        assertTrue(service.findEquipmentInArea(900, 900, 910, 910, null).isEmpty());
+        new GymService().addEquipment("Reload Bike", "Cardio", 1, 905, 905);
+        
+        service.loadData();
+        List<Equipment> found = service.findEquipmentInArea(900, 900, 910, 910, null);
+        assertEquals(1, found.size());
+        assertEquals("Reload Bike", found.get(0).getName());
+    }
+    
+    @Test
+    @DisplayName("Should rebuild member name index after loadData")
+    public void testMemberNameIndexAfterLoadData() {
+        assertTrue(service.searchMemberByName("Trigramova").isEmpty());
+        new GymService().addMember("Reload", "Trigramova", "555-3434",
+            "trigram@test.com", Member.MembershipType.MONTHLY);
+        
+        service.loadData();
+        List<Member> found = service.searchMemberByName("Trigramova");
+        assertEquals(1, found.size());
+        assertEquals("trigram@test.com", found.get(0).getEmail());
+    }
+    
+    @Test
+    @DisplayName("Should rebuild fuzzy member index after loadData")
+    public void testMemberFuzzyIndexAfterLoadData() {
+        assertTrue(service.fuzzySearchMembers("Kwarzytan", 1).isEmpty());
+        new GymService().addMember("Reload", "Kwarzytan", "555-4545",
+            "fuzzy@test.com", Member.MembershipType.MONTHLY);
+        
+        service.loadData();
+        List<Member> found = service.fuzzySearchMembers("Kwarzitan", 1);
+        assertEquals(1, found.size());
+        assertEquals("fuzzy@test.com", found.get(0).getEmail());
+    }
+    
+    @Test
+    @DisplayName("Should rebuild member name arena after loadData")
+    public void testMemberNameArenaAfterLoadData() {
+        assertTrue(service.searchMembersByPattern("^reload arenov").isEmpty());
+        new GymService().addMember("Reload", "Arenov", "555-5656",
+            "arena@test.com", Member.MembershipType.MONTHLY);
+        
+        service.loadData();
+        List<Member> found = service.searchMembersByPattern("^reload arenov");
+        assertEquals(1, found.size());
+        assertEquals("arena@test.com", found.get(0).getEmail());
+    }
+    
+    @Test
+    @DisplayName("Should rebuild workout rollup after loadData")
+    public void testWorkoutRollupAfterLoadData() {
+        java.time.LocalDateTime time = java.time.LocalDateTime.of(2026, 3, 2, 10, 0);
+        assertEquals(0, service.getWorkoutTotals("Reload", null, time.minusDays(1), time.plusDays(1)).getCount());
+        GymService other = new GymService();
+        Member member = other.addMember("Reload", "Rollup", "555-6767",
+            "rollup@test.com", Member.MembershipType.MONTHLY);
+        other.addWorkout(member.getId(), WorkoutLog.ExerciseType.CARDIO, "Reload", time, 30, 0);
+        
+        service.loadData();
+        WorkoutLog.Summary totals = service.getWorkoutTotals("Reload", null, time.minusDays(1), time.plusDays(1));
+        assertEquals(1, totals.getCount());
+        assertEquals(30, totals.getTotalMinutes());
+    }
+    
+    @Test
+    @DisplayName("Should autocomplete from a background thread while members change")
+    public void testAutocompleteWhileMembersChange() throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread worker = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    service.autocompleteMembers("con", 20);
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        worker.start();
+        for (int i = 0; i < 50; i++) {
+            Member m = service.addMember("Concurrent", "Member" + i, "555-7" + i,
+                "con" + i + "@test.com", Member.MembershipType.MONTHLY);
+            if (i % 2 == 0) {
+                service.deleteMember(m.getId());
+            }
+        }
+        service.loadData();
+        running.set(false);
+        worker.join();
+        
+        assertNull(failure.get());
+        assertEquals(25, service.autocompleteMembers("con", 50).size());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.ibrahim.mehdi.gymmanager.util;
+
+import com.ibrahim.mehdi.gymmanager.model.Appointment;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * AppointmentArchive Test Suite
+ * Tests day partitioning and range/member/service queries
+ */
+@DisplayName("AppointmentArchive Utility - Complete Tests")
+public class AppointmentArchiveTest {
+    
+    @TempDir
+    File tempDir;
+    
+    private AppointmentArchive archive;
+    
+    @BeforeEach
+    public void setUp() {
+        archive = new AppointmentArchive(tempDir);
+    }
+    
+    private Appointment appointment(int id, int memberId, String service, LocalDateTime time,
+                                    Appointment.AppointmentStatus status) {
+        Appointment apt = new Appointment(id, memberId, "Member " + memberId, time, service, 1);
+        apt.setStatus(status);
+        return apt;
+    }
+    
+    @Test
+    @DisplayName("Should append and read back appointments")
+    public void testAppendAndRead() {
+        LocalDateTime time = LocalDateTime.of(2025, 3, 10, 14, 30, 15, 500);
+        assertTrue(archive.append(appointment(1, 7, "Yoga", time,
+            Appointment.AppointmentStatus.COMPLETED)));
+        
+        List<Appointment> all = archive.findByDateRange(null, null);
+        assertEquals(1, all.size());
+        
+        Appointment loaded = all.get(0);
+        assertEquals(1, loaded.getId());
+        assertEquals(7, loaded.getMemberId());
+        assertEquals("Member 7", loaded.getMemberName());
+        assertEquals("Yoga", loaded.getService());
+        assertEquals(time, loaded.getAppointmentTime());
+        assertEquals(Appointment.AppointmentStatus.COMPLETED, loaded.getStatus());
+        
+        assertFalse(archive.append(null));
+    }
+    
+    @Test
+    @DisplayName("Should partition by day and prune by date range")
+    public void testDateRange() {
+        LocalDateTime day1 = LocalDateTime.of(2025, 1, 1, 9, 0);
+        archive.append(appointment(1, 1, "Yoga", day1, Appointment.AppointmentStatus.COMPLETED));
+        archive.append(appointment(2, 2, "Pilates", day1.plusDays(1), Appointment.AppointmentStatus.CANCELLED));
+        archive.append(appointment(3, 1, "Yoga", day1.plusDays(5), Appointment.AppointmentStatus.COMPLETED));
+        
+        assertEquals(3, archive.getPartitionDates().size());
+        assertEquals(LocalDate.of(2025, 1, 1), archive.getPartitionDates().get(0));
+        
+        List<Appointment> range = archive.findByDateRange(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 2));
+        assertEquals(2, range.size());
+        assertEquals(1, range.get(0).getId());
+        assertEquals(2, range.get(1).getId());
+        
+        assertTrue(archive.findByDateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should filter by member and service")
+    public void testMemberAndServiceFilters() {
+        LocalDateTime time = LocalDateTime.of(2025, 6, 1, 18, 0);
+        archive.append(appointment(1, 1, "Yoga", time, Appointment.AppointmentStatus.COMPLETED));
+        archive.append(appointment(2, 2, "Yoga", time, Appointment.AppointmentStatus.COMPLETED));
+        archive.append(appointment(3, 1, "Boxing", time, Appointment.AppointmentStatus.CANCELLED));
+        
+        assertEquals(2, archive.findByMember(1, null, null).size());
+        assertEquals(2, archive.findByService("yoga", null, null).size());
+        
+        List<Appointment> both = archive.query(null, null, 1, "Boxing");
+        assertEquals(1, both.size());
+        assertEquals(3, both.get(0).getId());
+        assertEquals(Appointment.AppointmentStatus.CANCELLED, both.get(0).getStatus());
+    }
+    
+    @Test
+    @DisplayName("Should delete old partitions")
+    public void testRetention() {
+        LocalDateTime time = LocalDateTime.of(2025, 1, 1, 9, 0);
+        archive.append(appointment(1, 1, "Yoga", time, Appointment.AppointmentStatus.COMPLETED));
+        archive.append(appointment(2, 1, "Yoga", time.plusDays(10), Appointment.AppointmentStatus.COMPLETED));
+        
+        assertEquals(1, archive.deleteBefore(LocalDate.of(2025, 1, 5)));
+        assertEquals(1, archive.findByDateRange(null, null).size());
+        assertEquals(tempDir, archive.getDirectory());
+    }
+}
@@ -247,4 +247,29 @@ public class BinaryFileStorageTest {
         assertEquals(largeData.value, loaded.value);
         assertTrue(loaded.name.length() > 50000);
     }
+    
+    @Test
+    @DisplayName("Should save compressed and load either format")
+    public void testCompressedSave() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append("Line ").append(i).append(" ");
+        }
+        TestData data = new TestData(text.toString(), 43);
+        
+        assertTrue(BinaryFileStorage.save(TEST_FILE, data, false));
+        assertFalse(BinaryFileStorage.isCompressed(TEST_FILE));
+        long plainSize = new File(TEST_DATA_DIR, TEST_FILE).length();
+        
+        assertTrue(BinaryFileStorage.save(TEST_FILE, data, true));
+        assertTrue(BinaryFileStorage.isCompressed(TEST_FILE));
+        long packedSize = new File(TEST_DATA_DIR, TEST_FILE).length();
+        assertTrue(packedSize < plainSize * 0.7, packedSize + " vs " + plainSize);
+        
+        assertTrue(BlockCompressedFile.isBlockFile(BinaryFileStorage.getFile(TEST_FILE)));
+        
+        TestData loaded = BinaryFileStorage.load(TEST_FILE);
+        assertEquals(data, loaded);
+        assertFalse(BinaryFileStorage.isCompressed("non_existent_file.dat"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.ibrahim.mehdi.gymmanager.util;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * BlockCompressedFile Test Suite
+ * Tests parallel block compression, random access and corruption checks
+ */
+@DisplayName("BlockCompressedFile Utility - Complete Tests")
+public class BlockCompressedFileTest {
+    
+    @TempDir
+    File tempDir;
+    
+    private byte[] sampleData(int size) {
+        Random random = new Random(45);
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            // Text-like skew so blocks actually compress
+            data[i] = (byte) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 5)));
+        }
+        return data;
+    }
+    
+    private File write(byte[] data, int blockSize, int parallelism) throws IOException {
+        File file = new File(tempDir, "blocks.dat");
+        try (BlockCompressedFile.Writer writer = new BlockCompressedFile.Writer(file, blockSize, parallelism)) {
+            writer.write(data, 0, data.length / 3);
+            writer.write(data[data.length / 3]);
+            writer.write(data, data.length / 3 + 1, data.length - data.length / 3 - 1);
+        }
+        return file;
+    }
+    
+    @Test
+    @DisplayName("Should write blocks in parallel and read them all back")
+    public void testRoundTrip() throws IOException {
+        byte[] data = sampleData(100_000);
+        File file = write(data, 4096, 4);
+        assertTrue(BlockCompressedFile.isBlockFile(file));
+        assertTrue(file.length() < data.length * 0.75);
+        
+        try (BlockCompressedFile blocks = new BlockCompressedFile(file)) {
+            assertEquals(data.length, blocks.length());
+            assertEquals(4096, blocks.getBlockSize());
+            assertEquals(25, blocks.getBlockCount());
+            assertArrayEquals(data, blocks.readAll(3));
+            assertArrayEquals(Arrays.copyOfRange(data, 4096, 8192), blocks.readBlock(1));
+            assertThrows(IndexOutOfBoundsException.class, () -> blocks.readBlock(25));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should stream the data a few blocks at a time")
+    public void testStream() throws IOException {
+        byte[] data = sampleData(100_000);
+        File file = write(data, 4096, 4);
+        
+        try (BlockCompressedFile blocks = new BlockCompressedFile(file);
+             InputStream in = blocks.openStream(3)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(data[0] & 0xFF, in.read());
+            out.write(data[0]);
+            byte[] buffer = new byte[5000];
+            int n;
+            while ((n = in.read(buffer, 0, buffer.length)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            assertEquals(-1, in.read());
+            assertArrayEquals(data, out.toByteArray());
+        }
+        assertThrows(IllegalArgumentException.class, () -> {
+            try (BlockCompressedFile blocks = new BlockCompressedFile(file)) {
+                blocks.openStream(0);
+            }
+        });
+    }
+    
+    @Test
+    @DisplayName("Should read byte ranges across block borders")
+    public void testRandomAccess() throws IOException {
+        byte[] data = sampleData(50_000);
+        File file = write(data, 1000, 2);
+        
+        try (BlockCompressedFile blocks = new BlockCompressedFile(file)) {
+            byte[] buffer = new byte[2500];
+            assertEquals(2500, blocks.read(12_345, buffer, 0, 2500));
+            assertArrayEquals(Arrays.copyOfRange(data, 12_345, 14_845), buffer);
+            
+            assertEquals(5, blocks.read(49_995, buffer, 10, 100));
+            assertArrayEquals(Arrays.copyOfRange(data, 49_995, 50_000), Arrays.copyOfRange(buffer, 10, 15));
+            assertEquals(-1, blocks.read(50_000, buffer, 0, 1));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should handle empty data and reject damaged files")
+    public void testEmptyAndCorrupt() throws IOException {
+        File empty = new File(tempDir, "empty.dat");
+        new BlockCompressedFile.Writer(empty, 1024, 2).close();
+        try (BlockCompressedFile blocks = new BlockCompressedFile(empty)) {
+            assertEquals(0, blocks.getBlockCount());
+            assertEquals(0, blocks.readAll(1).length);
+        }
+        
+        File file = write(sampleData(10_000), 1024, 2);
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(raw.length() - 1);
+        }
+        assertThrows(IOException.class, () -> new BlockCompressedFile(file));
+        
+        File plain = new File(tempDir, "plain.dat");
+        try (RandomAccessFile raw = new RandomAccessFile(plain, "rw")) {
+            raw.write(new byte[64]);
+        }
+        assertFalse(BlockCompressedFile.isBlockFile(plain));
+        assertThrows(IOException.class, () -> new BlockCompressedFile(plain));
+    }
+    
+    @Test
+    @DisplayName("Should share worker threads across saves and loads")
+    public void testSharedPool() throws IOException {
+        byte[] data = sampleData(20_000);
+        int threads = Thread.activeCount();
+        for (int i = 0; i < 30; i++) {
+            File file = write(data, 1024, 4);
+            try (BlockCompressedFile blocks = new BlockCompressedFile(file)) {
+                assertArrayEquals(data, blocks.readAll(4));
+            }
+        }
+        assertTrue(Thread.activeCount() <= threads + java.util.concurrent.ForkJoinPool.commonPool().getParallelism());
+    }
+}
\ No newline at end of file
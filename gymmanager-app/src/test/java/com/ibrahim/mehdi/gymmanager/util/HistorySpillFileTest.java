@@ -0,0 +1,186 @@
+package com.ibrahim.mehdi.gymmanager.util;
+
+import com.ibrahim.mehdi.gymmanager.datastructures.HuffmanCoding;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HistorySpillFile Test Suite
+ * Tests segment writing, reading back and the serialized pending tail
+ */
+@DisplayName("HistorySpillFile Utility - Complete Tests")
+public class HistorySpillFileTest {
+    
+    @TempDir
+    File tempDir;
+    
+    private File file;
+    private HistorySpillFile spill;
+    
+    @BeforeEach
+    public void setUp() {
+        file = new File(tempDir, "history.dat");
+        spill = new HistorySpillFile(file);
+    }
+    
+    @Test
+    @DisplayName("Should write full segments and keep the tail pending")
+    public void testAppendAndRead() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < HistorySpillFile.SEGMENT_RECORDS * 2 + 10; i++) {
+            String entry = "Added member: Üye " + i;
+            expected.add(entry);
+            assertTrue(spill.append(entry));
+        }
+        
+        assertTrue(file.exists());
+        assertEquals(10, spill.getPendingCount());
+        assertEquals(expected.size(), spill.size());
+        assertEquals(expected, spill.readAll());
+        // Two segments of repetitive text take far less than the raw entries
+        assertTrue(file.length() < HistorySpillFile.SEGMENT_RECORDS * 2 * 20);
+        
+        assertTrue(spill.flush());
+        assertEquals(0, spill.getPendingCount());
+        assertEquals(expected, spill.readAll());
+        assertFalse(spill.append(null));
+    }
+    
+    @Test
+    @DisplayName("Should keep pending entries across serialization")
+    public void testSerializedTail() throws Exception {
+        spill.append("Processed from queue: Ahmet Yılmaz");
+        assertFalse(file.exists());
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(spill);
+        }
+        HistorySpillFile copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (HistorySpillFile) in.readObject();
+        }
+        assertEquals(1, copy.size());
+        assertEquals("Processed from queue: Ahmet Yılmaz", copy.readAll().get(0));
+        assertEquals(file, copy.getFile());
+    }
+    
+    @Test
+    @DisplayName("Should stop at a damaged segment and clear the file")
+    public void testCorruptAndClear() throws IOException {
+        for (int i = 0; i < HistorySpillFile.SEGMENT_RECORDS; i++) {
+            spill.append("Entry " + i);
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{0, 0, 0, 9, 1, 2});
+        }
+        assertEquals(HistorySpillFile.SEGMENT_RECORDS, spill.readAll().size());
+        
+        spill.clear();
+        assertFalse(file.exists());
+        assertEquals(0, spill.size());
+        assertTrue(spill.readAll().isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should pack later segments with a new dictionary")
+    public void testDictionary() {
+        List<byte[]> samples = new ArrayList<>();
+        samples.add("Added member: Ahmet Yılmaz".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        HuffmanCoding.Dictionary first = HuffmanCoding.train(samples);
+        spill.setDictionary(first);
+        assertNull(spill.getDictionary());
+        
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < HistorySpillFile.SEGMENT_RECORDS; i++) {
+            expected.add("Added member: Üye " + i);
+            spill.append(expected.get(i));
+        }
+        assertEquals(first.getId(), spill.getDictionary().getId());
+        
+        // Segments already written stay readable with their dictionary
+        samples.add("0123456789".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        HuffmanCoding.Dictionary second = HuffmanCoding.train(samples);
+        spill.setDictionary(second);
+        for (int i = 0; i < HistorySpillFile.SEGMENT_RECORDS; i++) {
+            expected.add("Deleted member: Üye " + i);
+            spill.append(expected.get(expected.size() - 1));
+        }
+        assertEquals(second.getId(), spill.getDictionary().getId());
+        assertEquals(second.getId(), new HistorySpillFile(file).getDictionary().getId());
+        assertEquals(expected, new HistorySpillFile(file).readAll());
+        
+        // The same dictionary again is not stored twice
+        long length = file.length();
+        spill.append("Processed from queue: Ahmet Yılmaz");
+        assertTrue(spill.flush());
+        assertTrue(file.length() - length < 100);
+        
+        spill.clear();
+        spill.setDictionary(null);
+        spill.append("Processed from queue: Ahmet Yılmaz");
+        assertTrue(spill.flush());
+        assertNotEquals(second.getId(), spill.getDictionary().getId());
+    }
+    
+    @Test
+    @DisplayName("Should drop segments written after the state was saved")
+    public void testRollBack() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < HistorySpillFile.SEGMENT_RECORDS + 5; i++) {
+            expected.add("Entry " + i);
+            spill.append(expected.get(i));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(spill);
+        }
+        long savedLength = file.length();
+        
+        // Segment written, then a crash before the owner is saved again
+        for (int i = 5; i < HistorySpillFile.SEGMENT_RECORDS; i++) {
+            spill.append("Entry " + HistorySpillFile.SEGMENT_RECORDS + i);
+        }
+        assertTrue(file.length() > savedLength);
+        
+        HistorySpillFile copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (HistorySpillFile) in.readObject();
+        }
+        copy.rollBack();
+        assertEquals(savedLength, file.length());
+        assertEquals(expected, copy.readAll());
+        assertTrue(copy.flush());
+        assertEquals(expected, copy.readAll());
+    }
+    
+    @Test
+    @DisplayName("Should read a page without decoding earlier segments")
+    public void testReadPage() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < HistorySpillFile.SEGMENT_RECORDS * 3 + 10; i++) {
+            expected.add("Entry " + i);
+            spill.append(expected.get(i));
+        }
+        int segment = HistorySpillFile.SEGMENT_RECORDS;
+        assertEquals(expected.subList(0, 5), spill.read(0, 5));
+        assertEquals(expected.subList(segment - 2, segment + 3), spill.read(segment - 2, 5));
+        assertEquals(expected.subList(segment * 3 - 1, segment * 3 + 4), spill.read(segment * 3 - 1, 5));
+        assertEquals(expected.subList(segment * 3 + 8, segment * 3 + 10), spill.read(segment * 3 + 8, 5));
+        assertTrue(spill.read(expected.size(), 5).isEmpty());
+        assertTrue(spill.read(10, 0).isEmpty());
+        
+        // Damage in a later segment does not affect earlier pages
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(file.length() - 1);
+        } catch (IOException e) {
+            fail(e);
+        }
+        assertEquals(expected.subList(10, 20), spill.read(10, 10));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.ibrahim.mehdi.gymmanager.util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TextFolding Test Suite
+ * Tests case and Turkish letter folding
+ */
+@DisplayName("TextFolding Utility - Complete Tests")
+public class TextFoldingTest {
+    
+    @Test
+    @DisplayName("Should fold Turkish letters and case")
+    public void testFold() {
+        assertEquals("ayse yilmaz", TextFolding.fold("AYŞE YILMAZ"));
+        assertEquals("cagri ozgur", TextFolding.fold("Çağrı Özgür"));
+        assertEquals("istanbul", TextFolding.fold("İstanbul"));
+        assertEquals("uzum", TextFolding.fold("ÜZÜM"));
+        assertEquals('i', TextFolding.fold('ı'));
+        assertEquals('5', TextFolding.fold('5'));
+    }
+    
+    @Test
+    @DisplayName("Should keep length and reuse folded strings")
+    public void testFoldKeepsLength() {
+        String folded = "already folded 123";
+        assertSame(folded, TextFolding.fold(folded));
+        assertNull(TextFolding.fold(null));
+        
+        String text = "İĞNE Şiş";
+        assertEquals(text.length(), TextFolding.fold(text).length());
+    }
+}